@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Runs circles.load.test.js against the app on platform threads and then on virtual threads,
+# restarting the app between runs, and prints the k6 summaries side by side.
+#
+# Requires the database from docker-compose.yml, k6 and jq.
+#   VUS=200 ./circles.load.compare.sh
+set -euo pipefail
+
+VUS="${VUS:-200}"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+OUT_DIR="${OUT_DIR:-load-results}"
+ROOT="$(cd "$(dirname "$0")" && pwd)"
+
+mkdir -p "$OUT_DIR"
+
+run() {
+  local mode="$1" virtual="$2"
+
+  (cd "$ROOT/circlesync" && VIRTUAL_THREADS_ENABLED="$virtual" ./gradlew -q bootRun) \
+    > "$OUT_DIR/$mode.app.log" 2>&1 &
+  local app=$!
+  trap 'kill $app 2>/dev/null || true' EXIT
+
+  until curl -fs "$BASE_URL/actuator/health" > /dev/null; do sleep 2; done
+
+  k6 run -q -e VUS="$VUS" -e BASE_URL="$BASE_URL" --summary-trend-stats "avg,med,p(95),p(99),max" \
+    --summary-export "$OUT_DIR/$mode.json" "$ROOT/circles.load.test.js" || true
+
+  kill "$app"
+  wait "$app" 2>/dev/null || true
+  trap - EXIT
+}
+
+run platform false
+run virtual true
+
+printf '%-10s %10s %10s %10s %10s\n' mode req/s p95_ms p99_ms failed
+for mode in platform virtual; do
+  jq -r --arg mode "$mode" '[$mode,
+      (.metrics.http_reqs.rate | floor),
+      (.metrics.http_req_duration["p(95)"] | floor),
+      (.metrics.http_req_duration["p(99)"] // 0 | floor),
+      (.metrics.http_req_failed.value)] | @tsv' "$OUT_DIR/$mode.json" |
+    awk -F'\t' '{printf "%-10s %10s %10s %10s %10s\n", $1, $2, $3, $4, $5}'
+done
@@ -5,6 +5,7 @@ import { check, sleep } from "k6";
 const BASE_URL = __ENV.BASE_URL || "http://localhost:8080";
 const CIRCLES = parseInt(__ENV.CIRCLES || "10", 10);
 const MEMBERS_PER_CIRCLE = parseInt(__ENV.MEMBERS_PER_CIRCLE || "5", 10);
+const VUS = parseInt(__ENV.VUS || "10", 10);
 const HEADERS = { "Content-Type": "application/json" };
 
 // --------- k6 Options ---------
@@ -15,8 +16,8 @@ export const options = {
             executor: "ramping-vus",
             startVUs: 0,
             stages: [
-                { duration: "20s", target: 10 },
-                { duration: "1m", target: 10 },
+                { duration: "20s", target: VUS },
+                { duration: "1m", target: VUS },
                 { duration: "20s", target: 0 },
             ],
             gracefulRampDown: "10s",
@@ -0,0 +1,97 @@
+package com.circlesync.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Thin JSON client over the JDK HttpClient; blocking calls are meant for virtual threads. */
+final class ApiClient implements AutoCloseable {
+
+  private final URI baseUrl;
+  private final Duration timeout;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final HttpClient httpClient;
+
+  ApiClient(URI baseUrl, Duration timeout) {
+    this.baseUrl = baseUrl;
+    this.timeout = timeout;
+    this.httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .executor(executor)
+            .build();
+  }
+
+  ObjectMapper objectMapper() {
+    return objectMapper;
+  }
+
+  HttpRequest get(String path) {
+    return request(path).GET().build();
+  }
+
+  HttpRequest post(String path, Object body) {
+    return request(path).POST(json(body)).build();
+  }
+
+  HttpRequest patch(String path, Object body) {
+    return request(path).method("PATCH", json(body)).build();
+  }
+
+  /**
+   * Send a request and return its status, discarding the body.
+   *
+   * @param request the request
+   * @return the HTTP status
+   */
+  int send(HttpRequest request) throws IOException, InterruptedException {
+    return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  /**
+   * Send a request that must succeed and parse its JSON body.
+   *
+   * @param request the request
+   * @return the parsed body
+   */
+  JsonNode exchange(HttpRequest request) throws IOException, InterruptedException {
+    HttpResponse<String> response =
+        httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() >= 300) {
+      throw new IOException(
+          request.method() + " " + request.uri() + " answered " + response.statusCode()
+              + ": " + response.body());
+    }
+    return objectMapper.readTree(response.body());
+  }
+
+  @Override
+  public void close() {
+    httpClient.close();
+    executor.close();
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(baseUrl.resolve(path))
+        .timeout(timeout)
+        .header("Content-Type", "application/json")
+        .header("Accept", "application/json");
+  }
+
+  private HttpRequest.BodyPublisher json(Object body) {
+    try {
+      return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Cannot serialize request body", e);
+    }
+  }
+}
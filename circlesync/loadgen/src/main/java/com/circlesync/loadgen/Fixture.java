@@ -0,0 +1,35 @@
+package com.circlesync.loadgen;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Circles, members and tasks created by {@link Seeder} for the operations to pick from.
+ *
+ * @param circles the seeded circles
+ */
+record Fixture(List<SeededCircle> circles) {
+
+  SeededCircle randomCircle() {
+    return circles.get(ThreadLocalRandom.current().nextInt(circles.size()));
+  }
+
+  /**
+   * One seeded circle.
+   *
+   * @param id the circle ID
+   * @param members user IDs of its members
+   * @param tasks IDs of its tasks, each assigned to every member
+   */
+  record SeededCircle(UUID id, List<UUID> members, List<UUID> tasks) {
+
+    UUID randomMember() {
+      return members.get(ThreadLocalRandom.current().nextInt(members.size()));
+    }
+
+    UUID randomTask() {
+      return tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.circlesync.loadgen;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Prints a percentile table per operation and writes each histogram as an .hgrm percentile
+ * distribution, which the HdrHistogram plotter can chart and compare across runs.
+ */
+final class LatencyReport {
+
+  private static final double MICROS_PER_MILLI = 1000.0;
+
+  private LatencyReport() {}
+
+  static void print(OpenModelRunner.PhaseResult result, int rate, PrintStream out) {
+    long total = 0;
+    long errors = 0;
+    out.printf(
+        Locale.ROOT,
+        "%-20s %8s %7s %7s %9s %9s %9s %9s %9s %12s%n",
+        "operation",
+        "count",
+        "errors",
+        "drop %",
+        "p50 ms",
+        "p90 ms",
+        "p99 ms",
+        "p99.9 ms",
+        "max ms",
+        "svc p99 ms");
+    for (Map.Entry<String, OperationStats.Snapshot> entry : result.stats().entrySet()) {
+      Histogram response = entry.getValue().responseTimes();
+      Histogram service = entry.getValue().serviceTimes();
+      total += response.getTotalCount();
+      errors += entry.getValue().errors();
+      out.printf(
+          Locale.ROOT,
+          "%-20s %8d %7d %7.2f %9.2f %9.2f %9.2f %9.2f %9.2f %12.2f%n",
+          entry.getKey(),
+          response.getTotalCount(),
+          entry.getValue().errors(),
+          entry.getValue().dropPercent(),
+          millis(response, 50),
+          millis(response, 90),
+          millis(response, 99),
+          millis(response, 99.9),
+          response.getMaxValue() / MICROS_PER_MILLI,
+          millis(service, 99));
+    }
+    double seconds = result.elapsed().toNanos() / 1e9;
+    out.printf(
+        Locale.ROOT,
+        "%n%d arrivals in %.1f s (%.1f/s, target %d/s), %d errors including %d (%.2f%%) dropped"
+            + " by the generator%n",
+        total,
+        seconds,
+        total / seconds,
+        rate,
+        errors,
+        result.dropped(),
+        total == 0 ? 0 : 100.0 * result.dropped() / total);
+  }
+
+  static void write(OpenModelRunner.PhaseResult result, Path directory) throws IOException {
+    Files.createDirectories(directory);
+    for (Map.Entry<String, OperationStats.Snapshot> entry : result.stats().entrySet()) {
+      String file = entry.getKey().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+      write(entry.getValue().responseTimes(), directory.resolve(file + ".hgrm"));
+      write(entry.getValue().serviceTimes(), directory.resolve(file + ".service.hgrm"));
+    }
+  }
+
+  private static void write(Histogram histogram, Path path) throws IOException {
+    try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+      histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+    }
+  }
+
+  private static double millis(Histogram histogram, double percentile) {
+    return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+  }
+}
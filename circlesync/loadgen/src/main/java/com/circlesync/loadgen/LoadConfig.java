@@ -0,0 +1,50 @@
+package com.circlesync.loadgen;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of one load test run, read from {@code loadgen.*} system properties.
+ *
+ * @param baseUrl the instance under test
+ * @param rate requests started per second across all operations
+ * @param warmup how long to run before recording
+ * @param duration how long to record
+ * @param circles circles to seed
+ * @param membersPerCircle members to add to each seeded circle
+ * @param tasksPerCircle tasks to create in each seeded circle
+ * @param maxInFlight requests allowed in flight before new arrivals are counted as dropped
+ * @param requestTimeout timeout of a single request
+ * @param output directory for the histogram files
+ */
+record LoadConfig(
+    URI baseUrl,
+    int rate,
+    Duration warmup,
+    Duration duration,
+    int circles,
+    int membersPerCircle,
+    int tasksPerCircle,
+    int maxInFlight,
+    Duration requestTimeout,
+    Path output) {
+
+  static LoadConfig fromSystemProperties() {
+    return new LoadConfig(
+        URI.create(property("baseUrl", "http://localhost:8080")),
+        Integer.parseInt(property("rate", "200")),
+        Duration.parse(property("warmup", "PT15S")),
+        Duration.parse(property("duration", "PT1M")),
+        Integer.parseInt(property("circles", "20")),
+        Integer.parseInt(property("membersPerCircle", "5")),
+        Integer.parseInt(property("tasksPerCircle", "10")),
+        Integer.parseInt(property("maxInFlight", "2000")),
+        Duration.parse(property("requestTimeout", "PT10S")),
+        Path.of(property("output", "build/loadgen")));
+  }
+
+  private static String property(String name, String defaultValue) {
+    return System.getProperty("loadgen." + name, defaultValue);
+  }
+}
@@ -0,0 +1,46 @@
+package com.circlesync.loadgen;
+
+import java.util.List;
+
+/**
+ * Entry point: seeds a fixture through the API, runs a warmup phase whose results are discarded,
+ * then a measured phase, and reports latency per operation.
+ */
+public final class LoadGen {
+
+  private LoadGen() {}
+
+  public static void main(String[] args) throws Exception {
+    LoadConfig config = LoadConfig.fromSystemProperties();
+    if (config.rate() <= 0
+        || config.circles() <= 0
+        || config.membersPerCircle() <= 0
+        || config.tasksPerCircle() <= 0) {
+      throw new IllegalArgumentException(
+          "rate, circles, membersPerCircle and tasksPerCircle must be positive");
+    }
+
+    try (ApiClient client = new ApiClient(config.baseUrl(), config.requestTimeout())) {
+      System.out.printf(
+          "Seeding %d circles with %d members and %d tasks each at %s%n",
+          config.circles(), config.membersPerCircle(), config.tasksPerCircle(), config.baseUrl());
+      Fixture fixture = new Seeder(client, config).seed();
+
+      List<Operation> operations = Operation.defaultMix();
+      OpenModelRunner runner = new OpenModelRunner(client, fixture, operations, config);
+
+      if (!config.warmup().isZero()) {
+        System.out.printf("Warming up at %d requests/s for %s%n", config.rate(), config.warmup());
+        runner.run(config.warmup());
+      }
+
+      System.out.printf("Measuring at %d requests/s for %s%n", config.rate(), config.duration());
+      OpenModelRunner.PhaseResult result = runner.run(config.duration());
+
+      System.out.println();
+      LatencyReport.print(result, config.rate(), System.out);
+      LatencyReport.write(result, config.output());
+      System.out.println("Histograms written to " + config.output().toAbsolutePath());
+    }
+  }
+}
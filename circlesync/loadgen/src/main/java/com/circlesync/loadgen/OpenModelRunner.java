@@ -0,0 +1,144 @@
+package com.circlesync.loadgen;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts requests at a constant arrival rate regardless of how fast responses come back (open
+ * model), each on its own virtual thread. A slow server therefore builds up requests in flight
+ * instead of slowing the generator down, as it would with real users.
+ */
+final class OpenModelRunner {
+
+  private final ApiClient client;
+  private final Fixture fixture;
+  private final List<Operation> operations;
+  private final int[] cumulativeWeights;
+  private final long intervalNanos;
+  private final int maxInFlight;
+  private final Duration drainTimeout;
+  private final long requestTimeoutNanos;
+
+  OpenModelRunner(
+      ApiClient client, Fixture fixture, List<Operation> operations, LoadConfig config) {
+    this.client = client;
+    this.fixture = fixture;
+    this.operations = operations;
+    this.cumulativeWeights = new int[operations.size()];
+    int total = 0;
+    for (int i = 0; i < operations.size(); i++) {
+      total += operations.get(i).weight();
+      cumulativeWeights[i] = total;
+    }
+    this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+    this.maxInFlight = config.maxInFlight();
+    this.drainTimeout = config.requestTimeout();
+    this.requestTimeoutNanos = config.requestTimeout().toNanos();
+  }
+
+  /**
+   * Run one phase and wait for its requests to finish.
+   *
+   * @param length how long to keep starting requests
+   * @return the per-operation statistics of the phase
+   */
+  PhaseResult run(Duration length) throws InterruptedException {
+    Map<String, OperationStats> stats = new LinkedHashMap<>();
+    for (Operation operation : operations) {
+      stats.put(operation.name(), new OperationStats());
+    }
+    Semaphore inFlight = new Semaphore(maxInFlight);
+
+    long start = System.nanoTime();
+    long end = start + length.toNanos();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (long i = 0; ; i++) {
+        long intendedStart = start + i * intervalNanos;
+        if (intendedStart >= end) {
+          break;
+        }
+        long wait = intendedStart - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+        }
+
+        Operation operation = pick();
+        OperationStats operationStats = stats.get(operation.name());
+        if (!inFlight.tryAcquire()) {
+          // The generator itself is saturated; record a failure rather than delay the schedule
+          operationStats.recordDropped(intendedStart, System.nanoTime(), requestTimeoutNanos);
+          continue;
+        }
+        executor.execute(
+            () -> {
+              try {
+                call(operation, intendedStart, operationStats);
+              } finally {
+                inFlight.release();
+              }
+            });
+      }
+      if (!inFlight.tryAcquire(maxInFlight, drainTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+        System.err.println("Requests still in flight after " + drainTimeout + "; not waiting");
+        executor.shutdownNow();
+      }
+    }
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+    Map<String, OperationStats.Snapshot> snapshots = new LinkedHashMap<>();
+    long dropped = 0;
+    for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+      OperationStats.Snapshot snapshot = entry.getValue().snapshot();
+      snapshots.put(entry.getKey(), snapshot);
+      dropped += snapshot.dropped();
+    }
+    return new PhaseResult(snapshots, dropped, elapsed);
+  }
+
+  private void call(Operation operation, long intendedStart, OperationStats stats) {
+    HttpRequest request = operation.request().apply(client, fixture);
+    long sent = System.nanoTime();
+    boolean ok;
+    try {
+      int status = client.send(request);
+      ok = status < 400;
+    } catch (IOException e) {
+      ok = false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    stats.record(intendedStart, sent, System.nanoTime(), ok);
+  }
+
+  private Operation pick() {
+    int totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+    int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (ticket < cumulativeWeights[i]) {
+        return operations.get(i);
+      }
+    }
+    throw new IllegalStateException("Unreachable");
+  }
+
+  /**
+   * Outcome of one phase.
+   *
+   * @param stats statistics per operation name
+   * @param dropped arrivals skipped because maxInFlight requests were already running; they are
+   *     also in the per-operation errors and response times
+   * @param elapsed wall time of the phase including the drain
+   */
+  record PhaseResult(
+      Map<String, OperationStats.Snapshot> stats, long dropped, Duration elapsed) {}
+}
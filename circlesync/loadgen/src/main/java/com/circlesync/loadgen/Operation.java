@@ -0,0 +1,70 @@
+package com.circlesync.loadgen;
+
+import com.circlesync.loadgen.Fixture.SeededCircle;
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * One endpoint in the request mix, with its share of the arrivals.
+ *
+ * @param name the name used in the report
+ * @param weight relative share of the arrivals
+ * @param request builds a request against a random part of the fixture
+ */
+record Operation(String name, int weight, BiFunction<ApiClient, Fixture, HttpRequest> request) {
+
+  /**
+   * The default mix: mostly reads of circles and of what is due today, plus the writes a member
+   * makes during the day.
+   *
+   * @return the operations
+   */
+  static List<Operation> defaultMix() {
+    return List.of(
+        get("GET circle", 10, f -> "/api/circles/" + f.randomCircle().id()),
+        get("GET circle members", 8, f -> "/api/circles/" + f.randomCircle().id() + "/members"),
+        get("GET user circles", 8, f -> "/api/circles/user/" + f.randomCircle().randomMember()),
+        get("GET circle stats", 4, f -> "/api/circles/" + f.randomCircle().id() + "/stats"),
+        new Operation(
+            "PATCH circle",
+            2,
+            (client, f) ->
+                client.patch(
+                    "/api/circles/" + f.randomCircle().id(),
+                    Map.of("description", "patched by loadgen"))),
+        get("GET circle tasks", 12, f -> "/api/tasks/circle/" + f.randomCircle().id()),
+        get("GET today", 16, f -> "/api/tasks/circle/" + f.randomCircle().id() + "/today"),
+        get("GET agenda", 4, f -> "/api/tasks/circle/" + f.randomCircle().id() + "/agenda"),
+        get(
+            "GET leaderboard",
+            6,
+            f -> "/api/tasks/circle/" + f.randomCircle().id() + "/leaderboard"),
+        get("GET assigned", 6, f -> "/api/tasks/assigned/" + f.randomCircle().randomMember()),
+        get("GET streak", 4, Operation::streakPath),
+        new Operation("POST complete", 10, Operation::complete),
+        get("GET dashboard", 4, f -> "/api/dashboard/" + f.randomCircle().randomMember()));
+  }
+
+  private static Operation get(String name, int weight, Function<Fixture, String> path) {
+    return new Operation(name, weight, (client, fixture) -> client.get(path.apply(fixture)));
+  }
+
+  private static String streakPath(Fixture fixture) {
+    SeededCircle circle = fixture.randomCircle();
+    return "/api/tasks/" + circle.randomTask() + "/streak/user/" + circle.randomMember();
+  }
+
+  private static HttpRequest complete(ApiClient client, Fixture fixture) {
+    SeededCircle circle = fixture.randomCircle();
+    // Spread over the past month so most completions insert instead of hitting duplicates
+    LocalDate date = LocalDate.now().minusDays(ThreadLocalRandom.current().nextInt(30));
+    return client.post(
+        "/api/tasks/" + circle.randomTask() + "/complete",
+        Map.of("userId", circle.randomMember(), "date", date.toString()));
+  }
+}
@@ -0,0 +1,74 @@
+package com.circlesync.loadgen;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histograms of one operation in microseconds. Response time is measured from the moment
+ * the request was scheduled to start, so time spent queued behind a stalled server or a saturated
+ * generator counts against the server (coordinated-omission correction); service time is measured
+ * from the moment it was actually sent.
+ *
+ * <p>Arrivals the generator drops because too many requests are in flight count as errors. Their
+ * response time is the request timeout counted from the intended start, the earliest a client that
+ * got no answer would have given up; leaving them out would hide the slowest requests of an
+ * overloaded run.
+ */
+final class OperationStats {
+
+  private final Recorder responseTime = new Recorder(3);
+  private final Recorder serviceTime = new Recorder(3);
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+
+  void record(long intendedStartNanos, long sentNanos, long doneNanos, boolean ok) {
+    responseTime.recordValue(TimeUnit.NANOSECONDS.toMicros(doneNanos - intendedStartNanos));
+    serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(doneNanos - sentNanos));
+    if (!ok) {
+      errors.increment();
+    }
+  }
+
+  void recordDropped(long intendedStartNanos, long nowNanos, long timeoutNanos) {
+    responseTime.recordValue(
+        TimeUnit.NANOSECONDS.toMicros(nowNanos + timeoutNanos - intendedStartNanos));
+    errors.increment();
+    dropped.increment();
+  }
+
+  /**
+   * Take the histograms recorded so far; the recorders start over afterwards.
+   *
+   * @return the recorded latencies and error counts
+   */
+  Snapshot snapshot() {
+    return new Snapshot(
+        responseTime.getIntervalHistogram(),
+        serviceTime.getIntervalHistogram(),
+        errors.sum(),
+        dropped.sum());
+  }
+
+  /**
+   * Latencies of one operation in microseconds.
+   *
+   * @param responseTimes time from scheduled start to response, including dropped arrivals
+   * @param serviceTimes time from send to response, for requests actually sent
+   * @param errors failed requests, including 4xx and 5xx responses and dropped arrivals
+   * @param dropped arrivals the generator dropped instead of sending
+   */
+  record Snapshot(Histogram responseTimes, Histogram serviceTimes, long errors, long dropped) {
+
+    /**
+     * Share of this operation's arrivals that were dropped.
+     *
+     * @return the drop rate in percent
+     */
+    double dropPercent() {
+      long arrivals = responseTimes.getTotalCount();
+      return arrivals == 0 ? 0 : 100.0 * dropped / arrivals;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.circlesync.loadgen;
+
+import com.circlesync.loadgen.Fixture.SeededCircle;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeds circles, members and tasks through the public API, so the data goes through the same
+ * services, validation and outbox as real traffic. Circles are seeded in parallel.
+ */
+final class Seeder {
+
+  private static final String[] FREQUENCIES = {"DAILY", "WEEKDAYS", "MON,WED,FRI", "WEEKLY"};
+
+  private final ApiClient client;
+  private final LoadConfig config;
+
+  Seeder(ApiClient client, LoadConfig config) {
+    this.client = client;
+    this.config = config;
+  }
+
+  Fixture seed() throws InterruptedException {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<SeededCircle>> futures = new ArrayList<>(config.circles());
+      for (int i = 0; i < config.circles(); i++) {
+        int index = i;
+        futures.add(executor.submit(() -> seedCircle(index)));
+      }
+      List<SeededCircle> circles = new ArrayList<>(futures.size());
+      for (Future<SeededCircle> future : futures) {
+        circles.add(future.get());
+      }
+      return new Fixture(List.copyOf(circles));
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Seeding failed", e.getCause());
+    }
+  }
+
+  private SeededCircle seedCircle(int index) throws Exception {
+    Map<String, Object> circle = new LinkedHashMap<>();
+    circle.put("name", "loadgen-" + index + "-" + UUID.randomUUID().toString().substring(0, 8));
+    circle.put("description", "Seeded by loadgen");
+    circle.put("circleType", "FRIENDS");
+    circle.put("privacy", "PRIVATE");
+    circle.put("settings", Map.of("timeZone", "UTC"));
+    UUID circleId =
+        UUID.fromString(client.exchange(client.post("/api/circles", circle)).get("id").asText());
+
+    List<UUID> members = new ArrayList<>(config.membersPerCircle());
+    for (int m = 0; m < config.membersPerCircle(); m++) {
+      UUID userId = UUID.randomUUID();
+      Map<String, Object> member = new LinkedHashMap<>();
+      member.put("userId", userId);
+      member.put("userName", "loadgen-user-" + index + "-" + m);
+      member.put("role", m == 0 ? "ADMIN" : "MEMBER");
+      client.exchange(client.post("/api/circles/" + circleId + "/members", member));
+      members.add(userId);
+    }
+
+    List<UUID> tasks = new ArrayList<>(config.tasksPerCircle());
+    for (int t = 0; t < config.tasksPerCircle(); t++) {
+      Map<String, Object> task = new LinkedHashMap<>();
+      task.put("circleId", circleId);
+      task.put("createdBy", members.getFirst());
+      task.put("assignedTo", members);
+      task.put("title", "loadgen task " + t);
+      task.put("type", "HABIT");
+      task.put("frequency", FREQUENCIES[t % FREQUENCIES.length]);
+      task.put("visibility", "CIRCLE");
+      task.put("points", 10);
+      task.put("dueDate", LocalDate.now().toString());
+      JsonNode created = client.exchange(client.post("/api/tasks", task));
+      tasks.add(UUID.fromString(created.get("id").asText()));
+    }
+
+    return new SeededCircle(circleId, List.copyOf(members), List.copyOf(tasks));
+  }
+}
@@ -0,0 +1,73 @@
+package com.circlesync.circlesync.benchmark;
+
+import com.circlesync.circlesync.circlemodule.entity.Circle;
+import com.circlesync.circlesync.circlemodule.entity.CircleMember;
+import com.circlesync.circlesync.taskmodule.entity.Task;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/** Deterministic sample entities shared by the benchmarks. */
+final class BenchmarkFixtures {
+
+  private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 6, 9, 30);
+
+  private BenchmarkFixtures() {}
+
+  static Circle circle(SplittableRandom random) {
+    return Circle.builder()
+        .id(uuid(random))
+        .name("Circle " + random.nextInt(10_000))
+        .description("Benchmark circle with a description of typical length")
+        .circleType("FRIENDS")
+        .inviteCode("AB12CD34")
+        .privacy("PRIVATE")
+        .avatarUrl("https://example.com/avatar.png")
+        .createdBy(uuid(random))
+        .createdAt(CREATED)
+        .updatedAt(CREATED)
+        .settings(Map.of("color", "blue", "timeZone", "Europe/London"))
+        .build();
+  }
+
+  static CircleMember member(SplittableRandom random) {
+    return CircleMember.builder()
+        .id(uuid(random))
+        .circleId(uuid(random))
+        .userId(uuid(random))
+        .userName("user_" + random.nextInt(10_000))
+        .userAvatar("https://example.com/user.png")
+        .role("MEMBER")
+        .nickname("nick")
+        .joinedAt(CREATED)
+        .updatedAt(CREATED)
+        .build();
+  }
+
+  static Task task(SplittableRandom random, String frequency) {
+    Task task = new Task();
+    task.setId(uuid(random));
+    task.setCircleId(uuid(random));
+    task.setCreatedBy(uuid(random));
+    task.setAssignedTo(new UUID[] {uuid(random), uuid(random)});
+    task.setTitle("Task " + random.nextInt(10_000));
+    task.setDescription("Benchmark task");
+    task.setType(frequency == null ? "TODO" : "HABIT");
+    task.setCategory("HEALTH");
+    task.setFrequency(frequency);
+    task.setVisibility("CIRCLE");
+    task.setPoints(10);
+    task.setStatus("ACTIVE");
+    task.setDueDate(LocalDate.of(2025, 1, 6).plusDays(random.nextInt(30)));
+    task.setTags(new String[] {"morning", "daily"});
+    task.setCreatedAt(CREATED);
+    task.setUpdatedAt(CREATED);
+    return task;
+  }
+
+  static UUID uuid(SplittableRandom random) {
+    return new UUID(random.nextLong(), random.nextLong());
+  }
+}
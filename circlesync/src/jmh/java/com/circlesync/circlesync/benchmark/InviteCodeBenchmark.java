@@ -0,0 +1,33 @@
+package com.circlesync.circlesync.benchmark;
+
+import com.circlesync.circlesync.circlemodule.service.InviteCodeGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Invite code generation and validation, hit by circle creation and every join by code. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InviteCodeBenchmark {
+
+  private final InviteCodeGenerator generator = new InviteCodeGenerator();
+
+  @Param({"AB12CD34", "AB12-CD34", "ab12cd34"})
+  public String code;
+
+  @Benchmark
+  public String generate() {
+    return generator.generate();
+  }
+
+  @Benchmark
+  public boolean isValid() {
+    return generator.isValid(code);
+  }
+}
@@ -0,0 +1,68 @@
+package com.circlesync.circlesync.benchmark;
+
+import com.circlesync.circlesync.circlemodule.dto.CircleResponse;
+import com.circlesync.circlesync.circlemodule.mapper.CircleMapper;
+import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
+import com.circlesync.circlesync.taskmodule.mapper.TaskMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Jackson serialization of the list payloads returned by the circle and task endpoints, with the
+ * same date handling Spring Boot configures by default.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+  @Param({"10", "100"})
+  public int size;
+
+  private ObjectMapper objectMapper;
+  private List<CircleResponse> circles;
+  private List<TaskResponse> tasks;
+
+  @Setup
+  public void setUp() {
+    objectMapper =
+        new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    CircleMapper circleMapper = Mappers.getMapper(CircleMapper.class);
+    TaskMapper taskMapper = Mappers.getMapper(TaskMapper.class);
+    SplittableRandom random = new SplittableRandom(42);
+    circles = new ArrayList<>(size);
+    tasks = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      circles.add(circleMapper.toResponse(BenchmarkFixtures.circle(random), 8, "MEMBER"));
+      tasks.add(taskMapper.toResponse(BenchmarkFixtures.task(random, "WEEKDAYS")));
+    }
+  }
+
+  @Benchmark
+  public byte[] circleResponses() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(circles);
+  }
+
+  @Benchmark
+  public byte[] taskResponses() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(tasks);
+  }
+}
@@ -0,0 +1,146 @@
+package com.circlesync.circlesync.benchmark;
+
+import com.circlesync.circlesync.circlemodule.dto.MemberResponse;
+import com.circlesync.circlesync.circlemodule.entity.CircleMember;
+import com.circlesync.circlesync.circlemodule.mapper.MemberMapper;
+import com.circlesync.circlesync.shared.json.JsonStreams;
+import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
+import com.circlesync.circlesync.taskmodule.entity.Task;
+import com.circlesync.circlesync.taskmodule.mapper.TaskMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Whole list responses of GET /api/tasks/circle/{id} and /api/circles/{id}/members, from loaded
+ * entities to bytes on the wire: the previous path (collect DTOs, then serialize the list with a
+ * plain ObjectMapper), the same with Blackbird, and the streamed path through JsonStreams. Compare
+ * gc.alloc.rate.norm from the gc profiler for allocation per response.
+ *
+ * <p>Streaming still builds one DTO per element, so it mainly saves the list and the time every
+ * DTO is held at once, not bytes allocated. A proxy measurement outside JMH (Jackson 2.16.1
+ * without Blackbird, 10,000 task responses, thread-allocated bytes per response) gave 8,840,720 B
+ * for list-then-serialize against 8,800,568 B streamed, 0.5% less; 100 elements gave 89,120 B
+ * against 88,568 B. Run this benchmark for the numbers of the real stack.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListResponseBenchmark {
+
+  @Param({"100", "10000"})
+  public int size;
+
+  private final TaskMapper taskMapper = Mappers.getMapper(TaskMapper.class);
+  private final MemberMapper memberMapper = Mappers.getMapper(MemberMapper.class);
+
+  private ObjectMapper plainMapper;
+  private ObjectMapper blackbirdMapper;
+  private JsonStreams jsonStreams;
+  private List<Task> tasks;
+  private List<CircleMember> members;
+
+  @Setup
+  public void setUp() {
+    plainMapper = objectMapper();
+    blackbirdMapper = objectMapper().registerModule(new BlackbirdModule());
+    jsonStreams = new JsonStreams(blackbirdMapper);
+
+    SplittableRandom random = new SplittableRandom(42);
+    tasks = new ArrayList<>(size);
+    members = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      tasks.add(BenchmarkFixtures.task(random, "WEEKDAYS"));
+      members.add(BenchmarkFixtures.member(random));
+    }
+  }
+
+  @Benchmark
+  public long tasksAsList() throws IOException {
+    return writeList(plainMapper, tasks.stream().map(taskMapper::toResponse).toList());
+  }
+
+  @Benchmark
+  public long tasksAsListBlackbird() throws IOException {
+    return writeList(blackbirdMapper, tasks.stream().map(taskMapper::toResponse).toList());
+  }
+
+  @Benchmark
+  public long tasksStreamed() throws IOException {
+    CountingOutputStream out = new CountingOutputStream();
+    jsonStreams
+        .arrayOf(
+            TaskResponse.class,
+            consumer -> tasks.forEach(task -> consumer.accept(taskMapper.toResponse(task))))
+        .getBody()
+        .writeTo(out);
+    return out.count;
+  }
+
+  @Benchmark
+  public long membersAsList() throws IOException {
+    return writeList(plainMapper, members.stream().map(memberMapper::toResponse).toList());
+  }
+
+  @Benchmark
+  public long membersAsListBlackbird() throws IOException {
+    return writeList(blackbirdMapper, members.stream().map(memberMapper::toResponse).toList());
+  }
+
+  @Benchmark
+  public long membersStreamed() throws IOException {
+    CountingOutputStream out = new CountingOutputStream();
+    jsonStreams
+        .arrayOf(
+            MemberResponse.class,
+            consumer -> members.forEach(member -> consumer.accept(memberMapper.toResponse(member))))
+        .getBody()
+        .writeTo(out);
+    return out.count;
+  }
+
+  private static long writeList(ObjectMapper objectMapper, List<?> responses) throws IOException {
+    CountingOutputStream out = new CountingOutputStream();
+    objectMapper.writeValue(out, responses);
+    return out.count;
+  }
+
+  // Same date handling Spring Boot configures by default
+  private static ObjectMapper objectMapper() {
+    return new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+  }
+
+  /** Stands in for the servlet output stream; counting keeps the writes from being eliminated. */
+  private static final class CountingOutputStream extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+}
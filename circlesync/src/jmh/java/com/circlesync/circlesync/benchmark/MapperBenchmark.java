@@ -0,0 +1,59 @@
+package com.circlesync.circlesync.benchmark;
+
+import com.circlesync.circlesync.circlemodule.dto.CircleResponse;
+import com.circlesync.circlesync.circlemodule.dto.MemberResponse;
+import com.circlesync.circlesync.circlemodule.entity.Circle;
+import com.circlesync.circlesync.circlemodule.entity.CircleMember;
+import com.circlesync.circlesync.circlemodule.mapper.CircleMapper;
+import com.circlesync.circlesync.circlemodule.mapper.MemberMapper;
+import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
+import com.circlesync.circlesync.taskmodule.entity.Task;
+import com.circlesync.circlesync.taskmodule.mapper.TaskMapper;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Entity to response conversions done for every item of every list endpoint. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+  private final CircleMapper circleMapper = Mappers.getMapper(CircleMapper.class);
+  private final MemberMapper memberMapper = Mappers.getMapper(MemberMapper.class);
+  private final TaskMapper taskMapper = Mappers.getMapper(TaskMapper.class);
+
+  private Circle circle;
+  private CircleMember member;
+  private Task task;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    circle = BenchmarkFixtures.circle(random);
+    member = BenchmarkFixtures.member(random);
+    task = BenchmarkFixtures.task(random, "DAILY");
+  }
+
+  @Benchmark
+  public CircleResponse circleToResponse() {
+    return circleMapper.toResponse(circle, 12, "MEMBER");
+  }
+
+  @Benchmark
+  public MemberResponse memberToResponse() {
+    return memberMapper.toResponse(member);
+  }
+
+  @Benchmark
+  public TaskResponse taskToResponse() {
+    return taskMapper.toResponse(task);
+  }
+}
@@ -0,0 +1,89 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.entity.Task;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * In-process work behind the today, agenda and heatmap views: recurrence checks over a circle's
+ * active tasks and summing completion day bitmaps. Streaks themselves are computed in SQL.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DuePathBenchmark {
+
+  private static final String[] FREQUENCIES = {
+    null, "DAILY", "WEEKDAYS", "WEEKLY", "MON,WED,FRI", "EVERY 3 DAYS", "MONTHLY"
+  };
+  private static final LocalDate TODAY = LocalDate.of(2025, 3, 14);
+
+  @Param({"50"})
+  public int tasksPerCircle;
+
+  @Param({"20"})
+  public int members;
+
+  private final RecurrenceEngine recurrenceEngine = new RecurrenceEngine();
+  private List<Task> tasks;
+  private List<byte[]> bitmaps;
+
+  @Setup
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    tasks = new ArrayList<>(tasksPerCircle);
+    for (int i = 0; i < tasksPerCircle; i++) {
+      Task task = new Task();
+      task.setId(new UUID(random.nextLong(), random.nextLong()));
+      task.setFrequency(FREQUENCIES[i % FREQUENCIES.length]);
+      task.setDueDate(TODAY.minusDays(random.nextInt(60)));
+      task.setCreatedAt(LocalDateTime.of(2025, 1, 1, 8, 0));
+      tasks.add(task);
+    }
+
+    bitmaps = new ArrayList<>(members);
+    for (int i = 0; i < members; i++) {
+      byte[] days = new byte[DayBitmap.BYTES];
+      random.nextBytes(days);
+      bitmaps.add(days);
+    }
+  }
+
+  @Benchmark
+  public int dueToday() {
+    int due = 0;
+    for (Task task : tasks) {
+      if (recurrenceEngine.isDueOn(task, TODAY)) {
+        due++;
+      }
+    }
+    return due;
+  }
+
+  @Benchmark
+  public long agendaQuarter() {
+    long occurrences = 0;
+    for (Task task : tasks) {
+      occurrences += recurrenceEngine.occurrences(task, TODAY, TODAY.plusDays(91)).count();
+    }
+    return occurrences;
+  }
+
+  @Benchmark
+  public int[] circleHeatmap() {
+    return DayBitmap.sum(bitmaps, 365);
+  }
+}
@@ -0,0 +1,222 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.repository.StreakRepository;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Streak SQL from {@link StreakRepository} over millions of completions in Postgres. Every (task,
+ * user) pair gets {@code days} days of history with a missed day every 37 days, so histories are
+ * long and made of many islands. The statements are read from the repository's @Query
+ * annotations, so this always measures the shipped SQL; the full-history variant is the same
+ * gaps-and-islands without the longest-streak window, for comparison.
+ *
+ * <p>Needs the docker-compose Postgres (TASK_DB_URL, TASK_DB_USERNAME, TASK_DB_PASSWORD) and runs
+ * with {@code ./gradlew jmh -Pjmh.database}. Data lives in a separate streak_bench schema of
+ * tasks_db and is reused across runs with the same parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StreakRecomputeBenchmark {
+
+  private static final String SCHEMA = "streak_bench";
+  private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+  private static final String FULL_HISTORY_SQL =
+      "WITH ordered AS (SELECT tc.date,"
+          + " tc.date - CAST(ROW_NUMBER() OVER (ORDER BY tc.date) AS INT) AS grp"
+          + " FROM task_completions tc WHERE tc.task_id = :taskId AND tc.user_id = :userId),"
+          + " island AS (SELECT COUNT(*) AS len, MAX(o.date) AS last_day FROM ordered o"
+          + " WHERE o.grp = (SELECT a.grp FROM ordered a WHERE a.date = :date))"
+          + " INSERT INTO streaks (task_id, user_id, current_streak, longest_streak,"
+          + " last_completed_date, updated_at)"
+          + " SELECT :taskId, :userId, i.len, i.len, i.last_day, CURRENT_TIMESTAMP"
+          + " FROM island i WHERE i.len > 0"
+          + " ON CONFLICT (task_id, user_id) DO UPDATE SET"
+          + " current_streak = EXCLUDED.current_streak,"
+          + " longest_streak = GREATEST(streaks.longest_streak, EXCLUDED.longest_streak),"
+          + " last_completed_date = EXCLUDED.last_completed_date,"
+          + " updated_at = EXCLUDED.updated_at";
+
+  @Param({"1000000", "5000000"})
+  public int completions;
+
+  /** Days of history per (task, user) pair; the pair count follows from completions. */
+  @Param({"1000"})
+  public int days;
+
+  @Param({"4"})
+  public int partitions;
+
+  private SingleConnectionDataSource dataSource;
+  private NamedParameterJdbcTemplate jdbc;
+  private String recomputeAroundSql;
+  private String recomputePartitionSql;
+  private int tasks;
+  private LocalDate lastDay;
+  private SplittableRandom random;
+
+  @Setup(Level.Trial)
+  public void setUp() throws NoSuchMethodException {
+    dataSource =
+        new SingleConnectionDataSource(
+            env("TASK_DB_URL", "jdbc:postgresql://localhost:5432/tasks_db"),
+            env("TASK_DB_USERNAME", "postgres"),
+            env("TASK_DB_PASSWORD", "postgres"),
+            true);
+    jdbc = new NamedParameterJdbcTemplate(dataSource);
+    recomputeAroundSql =
+        StreakRepository.class
+            .getMethod("recomputeAround", UUID.class, UUID.class, LocalDate.class)
+            .getAnnotation(Query.class)
+            .value();
+    recomputePartitionSql =
+        StreakRepository.class
+            .getMethod("recomputePartition", int.class, int.class)
+            .getAnnotation(Query.class)
+            .value();
+
+    int perPair = days - days / 37;
+    tasks = Math.max(1, completions / perPair);
+    lastDay = FIRST_DAY.plusDays(days - 1);
+    random = new SplittableRandom(42);
+
+    jdbc.getJdbcOperations().execute("CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+    jdbc.getJdbcOperations().execute("SET search_path TO " + SCHEMA);
+    if (!seeded()) {
+      seed();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    dataSource.destroy();
+  }
+
+  /** One completion on the last day of a long history, as TaskServiceImpl.completeTask runs it. */
+  @Benchmark
+  public int recomputeAround() {
+    return jdbc.update(recomputeAroundSql, pair());
+  }
+
+  /** The same completion reading the pair's whole history instead of the longest-streak window. */
+  @Benchmark
+  public int recomputeAroundFullHistory() {
+    return jdbc.update(FULL_HISTORY_SQL, pair());
+  }
+
+  /** One of the partitions POST /api/tasks/streaks/recompute runs in parallel. */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public int recomputePartition() {
+    return jdbc.update(
+        recomputePartitionSql, Map.of("partition", 0, "partitions", partitions));
+  }
+
+  private Map<String, Object> pair() {
+    int task = random.nextInt(tasks);
+    return Map.of("taskId", taskId(task), "userId", userId(task), "date", lastDay);
+  }
+
+  private boolean seeded() {
+    Integer tables =
+        jdbc.getJdbcOperations()
+            .queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables"
+                    + " WHERE table_schema = '"
+                    + SCHEMA
+                    + "' AND table_name IN ('tasks', 'task_completions', 'streaks')",
+                Integer.class);
+    if (tables == null || tables < 3) {
+      return false;
+    }
+    Integer seededTasks =
+        jdbc.getJdbcOperations().queryForObject("SELECT COUNT(*) FROM tasks", Integer.class);
+    LocalDate seededLastDay =
+        jdbc.getJdbcOperations()
+            .queryForObject("SELECT MAX(date) FROM task_completions", LocalDate.class);
+    return seededTasks != null && seededTasks == tasks && lastDay.equals(seededLastDay);
+  }
+
+  private void seed() {
+    JdbcOperations sql = jdbc.getJdbcOperations();
+    sql.execute("DROP TABLE IF EXISTS streaks, task_completions, tasks");
+    sql.execute("CREATE TABLE tasks (id UUID PRIMARY KEY)");
+    sql.execute(
+        "CREATE TABLE task_completions (id UUID NOT NULL DEFAULT gen_random_uuid(),"
+            + " task_id UUID NOT NULL REFERENCES tasks(id), user_id UUID NOT NULL,"
+            + " date DATE NOT NULL, PRIMARY KEY (id, date),"
+            + " UNIQUE (task_id, user_id, date))");
+    sql.execute(
+        "CREATE TABLE streaks (id UUID PRIMARY KEY DEFAULT gen_random_uuid(),"
+            + " task_id UUID NOT NULL REFERENCES tasks(id), user_id UUID NOT NULL,"
+            + " current_streak INT NOT NULL DEFAULT 0, longest_streak INT NOT NULL DEFAULT 0,"
+            + " last_completed_date DATE, updated_at TIMESTAMP, UNIQUE (task_id, user_id))");
+
+    // One user per task keeps the pair count equal to the task count
+    jdbc.update(
+        "INSERT INTO tasks (id) SELECT CAST(lpad(to_hex(t), 32, '0') AS UUID)"
+            + " FROM generate_series(0, :tasks - 1) t",
+        Map.of("tasks", tasks));
+    jdbc.update(
+        "INSERT INTO task_completions (task_id, user_id, date)"
+            + " SELECT CAST(lpad(to_hex(t), 32, '0') AS UUID),"
+            + " CAST(lpad(to_hex(t), 32, 'f') AS UUID), CAST(:firstDay AS DATE) + d"
+            + " FROM generate_series(0, :tasks - 1) t, generate_series(0, :days - 1) d"
+            + " WHERE d % 37 <> 36",
+        Map.of("tasks", tasks, "days", days, "firstDay", FIRST_DAY));
+    sql.execute(
+        "CREATE INDEX idx_bench_completions_task_date ON task_completions(task_id, date, id)");
+    sql.execute("ANALYZE tasks");
+    sql.execute("ANALYZE task_completions");
+  }
+
+  private static UUID taskId(int task) {
+    return new UUID(0, task);
+  }
+
+  private static UUID userId(int task) {
+    return UUID.fromString(padded(Integer.toHexString(task)));
+  }
+
+  // Mirrors lpad(to_hex(t), 32, 'f') in the seed statement
+  private static String padded(String hex) {
+    String digits = "f".repeat(32 - hex.length()) + hex;
+    return digits.substring(0, 8)
+        + "-"
+        + digits.substring(8, 12)
+        + "-"
+        + digits.substring(12, 16)
+        + "-"
+        + digits.substring(16, 20)
+        + "-"
+        + digits.substring(20);
+  }
+
+  private static String env(String name, String defaultValue) {
+    String value = System.getenv(name);
+    return value != null ? value : defaultValue;
+  }
+}
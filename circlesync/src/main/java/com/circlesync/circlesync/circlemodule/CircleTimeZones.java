@@ -0,0 +1,30 @@
+package com.circlesync.circlesync.circlemodule;
+
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resolves the local time zone of a circle for other modules, so "today" means the circle's day
+ * rather than the server's.
+ */
+public interface CircleTimeZones {
+
+    /**
+     * Get the time zone of a circle, falling back to the default zone when the circle is unknown
+     * or has no valid {@code timeZone} setting.
+     *
+     * @param circleId the circle ID
+     * @return the circle's time zone
+     */
+    ZoneId zoneOf(UUID circleId);
+
+    /**
+     * Get the time zones of several circles with a single query.
+     *
+     * @param circleIds the circle IDs
+     * @return each circle ID mapped to its time zone, with the default zone for unknown circles
+     */
+    Map<UUID, ZoneId> zonesOf(Collection<UUID> circleIds);
+}
@@ -43,7 +43,8 @@ public class CircleDatabaseConfig {
 
     /**
      * Primary EntityManagerFactory for Circle Module
-     * Scans entities in com.circlesync.circlesync.circlemodule.entity package
+     * Scans entities in com.circlesync.circlesync.circlemodule.entity package, plus the
+     * Spring Modulith event publication registry, which lives in circles_db
      */
     @Primary
     @Bean(name = "circleEntityManagerFactory")
@@ -63,7 +64,9 @@ public class CircleDatabaseConfig {
 
         return builder
                 .dataSource(dataSource)
-                .packages("com.circlesync.circlesync.circlemodule.entity")
+                .packages(
+                        "com.circlesync.circlesync.circlemodule.entity",
+                        "org.springframework.modulith.events.jpa")
                 .persistenceUnit("circle")
                 .properties(properties)
                 .build();
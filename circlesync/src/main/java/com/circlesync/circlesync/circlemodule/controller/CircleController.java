@@ -9,6 +9,7 @@ import com.circlesync.circlesync.circlemodule.dto.MemberResponse;
 import com.circlesync.circlesync.circlemodule.dto.UpdateCircleRequest;
 import com.circlesync.circlesync.circlemodule.dto.UpdateMemberRequest;
 import com.circlesync.circlesync.circlemodule.service.CircleService;
+import com.circlesync.circlesync.shared.json.JsonStreams;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -30,9 +32,11 @@ import java.util.List;
 public class CircleController {
 
     private final CircleService circleService;
+    private final JsonStreams jsonStreams;
 
-    public CircleController(CircleService circleService) {
+    public CircleController(CircleService circleService, JsonStreams jsonStreams) {
         this.circleService = circleService;
+        this.jsonStreams = jsonStreams;
     }
 
     // ==================== Circle Management ====================
@@ -163,14 +167,14 @@ public class CircleController {
      * GET /api/circles/{id}/members - Get circle members
      * @param id Circle UUID
      * @param role Optional filter by role
-     * @return List of circle members
+     * @return List of circle members, streamed as they are read
      */
     @GetMapping("/{id}/members")
-    public ResponseEntity<List<MemberResponse>> getCircleMembers(
+    public ResponseEntity<StreamingResponseBody> getCircleMembers(
             @PathVariable String id,
             @RequestParam(required = false) String role) {
-        List<MemberResponse> response = circleService.getCircleMembers(id, role);
-        return ResponseEntity.ok(response);
+        return jsonStreams.arrayOf(MemberResponse.class,
+                consumer -> circleService.streamCircleMembers(id, role, consumer));
     }
 
     /**
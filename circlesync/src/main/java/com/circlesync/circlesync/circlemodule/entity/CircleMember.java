@@ -69,6 +69,10 @@ public class CircleMember {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Written only by the task completion listener, so saving a member never overwrites it
+    @Column(name = "last_active_at", insertable = false, updatable = false)
+    private LocalDateTime lastActiveAt;
+
     // Optional: Add ManyToOne relationship to Circle entity
     // @ManyToOne(fetch = FetchType.LAZY)
     // @JoinColumn(name = "circle_id", insertable = false, updatable = false)
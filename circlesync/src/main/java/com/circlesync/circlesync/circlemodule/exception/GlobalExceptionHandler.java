@@ -1,7 +1,9 @@
 package com.circlesync.circlesync.circlemodule.exception;
 
+import com.circlesync.circlesync.taskmodule.exception.CompletionBacklogFullException;
 import com.circlesync.circlesync.taskmodule.exception.TaskNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -53,6 +55,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(CompletionBacklogFullException.class)
+    public ResponseEntity<ErrorResponse> handleCompletionBacklogFullException(CompletionBacklogFullException ex) {
+        log.warn("Completion backlog full: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message(ex.getMessage())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     @ExceptionHandler(DuplicateMemberException.class)
     public ResponseEntity<ErrorResponse> handleDuplicateMemberException(DuplicateMemberException ex) {
         log.error("Duplicate member: {}", ex.getMessage());
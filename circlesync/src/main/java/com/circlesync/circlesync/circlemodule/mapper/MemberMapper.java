@@ -31,6 +31,7 @@ public interface MemberMapper {
     @Mapping(target = "nickname", source = "request.nickname")
     @Mapping(target = "joinedAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "lastActiveAt", ignore = true)
     CircleMember toEntity(AddMemberRequest request, UUID circleId);
 
     /**
@@ -51,6 +52,7 @@ public interface MemberMapper {
     @Mapping(target = "userName", ignore = true)
     @Mapping(target = "joinedAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "lastActiveAt", ignore = true)
     @Mapping(target = "role", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "nickname", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "userAvatar", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
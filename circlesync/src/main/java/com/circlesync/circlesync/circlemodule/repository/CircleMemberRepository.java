@@ -1,14 +1,21 @@
 package com.circlesync.circlesync.circlemodule.repository;
 
 import com.circlesync.circlesync.circlemodule.entity.CircleMember;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface CircleMemberRepository extends JpaRepository<CircleMember, UUID> {
@@ -33,6 +40,25 @@ public interface CircleMemberRepository extends JpaRepository<CircleMember, UUID
      */
     List<CircleMember> findByCircleIdAndRole(UUID circleId, String role);
 
+    /**
+     * Stream members of a circle, fetching rows from the cursor in batches.
+     * The stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CircleMember> streamByCircleId(UUID circleId);
+
+    /**
+     * Stream members of a circle with a role; same contract as streamByCircleId
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CircleMember> streamByCircleIdAndRole(UUID circleId, String role);
+
     /**
      * Find members by user and role
      */
@@ -70,4 +96,27 @@ public interface CircleMemberRepository extends JpaRepository<CircleMember, UUID
     @Query("SELECT cm.role, COUNT(cm) FROM CircleMember cm " +
             "WHERE cm.circleId = :circleId GROUP BY cm.role")
     List<Object[]> countMembersByRole(@Param("circleId") UUID circleId);
+
+    /**
+     * Get member counts for several circles in one query
+     */
+    @Query("SELECT cm.circleId, COUNT(cm) FROM CircleMember cm " +
+            "WHERE cm.circleId IN :circleIds GROUP BY cm.circleId")
+    List<Object[]> countMembersByCircleIds(@Param("circleIds") Collection<UUID> circleIds);
+
+    /**
+     * Find a user's memberships among several circles
+     */
+    List<CircleMember> findByUserIdAndCircleIdIn(UUID userId, Collection<UUID> circleIds);
+
+    /**
+     * Record task activity of a user in several circles; never moves last_active_at backwards
+     */
+    @Modifying
+    @Query(value = "UPDATE circle_members " +
+            "SET last_active_at = GREATEST(last_active_at, :activeAt) " +
+            "WHERE user_id = :userId AND circle_id IN (:circleIds)", nativeQuery = true)
+    int markActive(@Param("userId") UUID userId,
+                   @Param("circleIds") Collection<UUID> circleIds,
+                   @Param("activeAt") LocalDateTime activeAt);
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -61,4 +62,17 @@ public interface CircleRepository extends JpaRepository<Circle, UUID> {
      */
     @Query("SELECT c FROM Circle c WHERE c.privacy = 'PUBLIC' ORDER BY c.createdAt DESC")
     List<Circle> findPublicCircles();
+
+    /**
+     * Find the time zone stored in a circle's settings
+     */
+    @Query(value = "SELECT settings ->> 'timeZone' FROM circles WHERE id = :id", nativeQuery = true)
+    Optional<String> findTimeZoneById(@Param("id") UUID id);
+
+    /**
+     * Find the time zones stored in the settings of several circles
+     */
+    @Query(value = "SELECT id AS \"id\", settings ->> 'timeZone' AS \"timeZone\" " +
+            "FROM circles WHERE id IN (:ids)", nativeQuery = true)
+    List<CircleZoneSetting> findTimeZonesByIdIn(@Param("ids") Collection<UUID> ids);
 }
\ No newline at end of file
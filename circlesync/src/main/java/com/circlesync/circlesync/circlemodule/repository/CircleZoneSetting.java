@@ -0,0 +1,13 @@
+package com.circlesync.circlesync.circlemodule.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection of a circle's ID and the time zone from its settings.
+ */
+public interface CircleZoneSetting {
+
+    UUID getId();
+
+    String getTimeZone();
+}
@@ -0,0 +1,32 @@
+package com.circlesync.circlesync.circlemodule.service;
+
+import com.circlesync.circlesync.circlemodule.repository.CircleMemberRepository;
+import com.circlesync.circlesync.shared.events.TaskCompleted;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tracks when members were last active in a circle from the task module's completion events.
+ * Runs asynchronously after the completion commits, in its own circle transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CircleActivityListener {
+
+    private final CircleMemberRepository circleMemberRepository;
+
+    @ApplicationModuleListener
+    void on(TaskCompleted event) {
+        if (event.circleIds().isEmpty()) {
+            return;
+        }
+        int updated = circleMemberRepository.markActive(
+                event.userId(), event.circleIds(), LocalDateTime.now());
+        log.debug("Marked user {} active in {} circles", event.userId(), updated);
+    }
+}
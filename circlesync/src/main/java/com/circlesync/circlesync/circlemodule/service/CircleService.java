@@ -10,6 +10,7 @@ import com.circlesync.circlesync.circlemodule.dto.UpdateCircleRequest;
 import com.circlesync.circlesync.circlemodule.dto.UpdateMemberRequest;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CircleService {
 
@@ -35,6 +36,8 @@ public interface CircleService {
 
     List<MemberResponse> getCircleMembers(String circleId, String role);
 
+    void streamCircleMembers(String circleId, String role, Consumer<MemberResponse> consumer);
+
     MemberResponse getMemberDetails(String circleId, String userId);
 
     MemberResponse updateMember(String circleId, String userId, UpdateMemberRequest request);
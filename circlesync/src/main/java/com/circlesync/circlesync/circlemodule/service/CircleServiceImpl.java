@@ -19,18 +19,28 @@ import com.circlesync.circlesync.circlemodule.mapper.CircleMapper;
 import com.circlesync.circlesync.circlemodule.mapper.MemberMapper;
 import com.circlesync.circlesync.circlemodule.repository.CircleMemberRepository;
 import com.circlesync.circlesync.circlemodule.repository.CircleRepository;
+import com.circlesync.circlesync.shared.events.CircleDeleted;
+import com.circlesync.circlesync.shared.events.MemberLeft;
+import com.circlesync.circlesync.shared.outbox.Outbox;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -38,11 +48,21 @@ import java.util.stream.Collectors;
 @Transactional
 public class CircleServiceImpl implements CircleService {
 
+    // Outbox topics; messages are keyed by circle ID so each circle's changes stay in order
+    private static final String CIRCLES_TOPIC = "circlesync.circles";
+    private static final String MEMBERS_TOPIC = "circlesync.circle-members";
+
     private final CircleRepository circleRepository;
     private final CircleMemberRepository circleMemberRepository;
     private final CircleMapper circleMapper;
     private final MemberMapper memberMapper;
     private final InviteCodeGenerator inviteCodeGenerator;
+    private final ApplicationEventPublisher events;
+    @Qualifier("circleOutbox")
+    private final Outbox outbox;
+
+    @PersistenceContext(unitName = "circle")
+    private EntityManager entityManager;
 
     // ==================== Circle Management ====================
 
@@ -71,8 +91,11 @@ public class CircleServiceImpl implements CircleService {
                 .build();
         circleMemberRepository.save(creatorMember);
 
+        CircleResponse response = circleMapper.toResponse(savedCircle, 1, "ADMIN");
+        outbox.append(CIRCLES_TOPIC, savedCircle.getId(), "CircleCreated", response);
+
         log.info("Circle created successfully with ID: {}", savedCircle.getId());
-        return circleMapper.toResponse(savedCircle, 1, "ADMIN");
+        return response;
     }
 
     @Override
@@ -109,8 +132,11 @@ public class CircleServiceImpl implements CircleService {
         int memberCount = circleMemberRepository.countByCircleId(circleId);
         String currentUserRole = getCurrentUserRole(circleId);
 
+        CircleResponse response = circleMapper.toResponse(updatedCircle, memberCount, currentUserRole);
+        outbox.append(CIRCLES_TOPIC, circleId, "CircleUpdated", response);
+
         log.info("Circle updated successfully: {}", id);
-        return circleMapper.toResponse(updatedCircle, memberCount, currentUserRole);
+        return response;
     }
 
     @Override
@@ -131,8 +157,11 @@ public class CircleServiceImpl implements CircleService {
         int memberCount = circleMemberRepository.countByCircleId(circleId);
         String currentUserRole = getCurrentUserRole(circleId);
 
+        CircleResponse response = circleMapper.toResponse(updatedCircle, memberCount, currentUserRole);
+        outbox.append(CIRCLES_TOPIC, circleId, "CircleUpdated", response);
+
         log.info("Circle patched successfully: {}", id);
-        return circleMapper.toResponse(updatedCircle, memberCount, currentUserRole);
+        return response;
     }
 
     @Override
@@ -152,6 +181,11 @@ public class CircleServiceImpl implements CircleService {
         // Delete circle
         circleRepository.delete(circle);
 
+        // Tasks of the circle are soft deleted by the task module after commit
+        CircleDeleted deleted = new CircleDeleted(circleId);
+        events.publishEvent(deleted);
+        outbox.append(CIRCLES_TOPIC, circleId, "CircleDeleted", deleted);
+
         log.info("Circle deleted successfully: {}", id);
     }
 
@@ -169,16 +203,18 @@ public class CircleServiceImpl implements CircleService {
             memberships = circleMemberRepository.findByUserId(userUuid);
         }
 
+        // Load circles and member counts for all memberships at once instead of per membership
+        List<UUID> circleIds = memberships.stream().map(CircleMember::getCircleId).toList();
+        Map<UUID, Circle> circles = circleRepository.findAllById(circleIds).stream()
+                .collect(Collectors.toMap(Circle::getId, circle -> circle));
+        Map<UUID, Integer> memberCounts = countMembers(circleIds);
+
         return memberships.stream()
-                .map(membership -> {
-                    Circle circle = circleRepository.findById(membership.getCircleId())
-                            .orElse(null);
-                    if (circle == null) return null;
-
-                    int memberCount = circleMemberRepository.countByCircleId(circle.getId());
-                    return circleMapper.toResponse(circle, memberCount, membership.getRole());
-                })
-                .filter(response -> response != null)
+                .filter(membership -> circles.containsKey(membership.getCircleId()))
+                .map(membership -> circleMapper.toResponse(
+                        circles.get(membership.getCircleId()),
+                        memberCounts.getOrDefault(membership.getCircleId(), 0),
+                        membership.getRole()))
                 .collect(Collectors.toList());
     }
 
@@ -188,18 +224,23 @@ public class CircleServiceImpl implements CircleService {
         log.info("Searching circles with filters - name: {}, type: {}, privacy: {}",
                 name, circleType, privacy);
 
-        List<Circle> circles = circleRepository.findAll();
+        List<Circle> circles = circleRepository.searchCircles(
+                blankToNull(name), blankToNull(circleType), blankToNull(privacy));
+        if (circles.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> circleIds = circles.stream().map(Circle::getId).toList();
+        Map<UUID, Integer> memberCounts = countMembers(circleIds);
+        Map<UUID, String> userRoles = circleMemberRepository
+                .findByUserIdAndCircleIdIn(getCurrentUserId(), circleIds).stream()
+                .collect(Collectors.toMap(CircleMember::getCircleId, CircleMember::getRole));
 
-        UUID currentUserId = getCurrentUserId();
         return circles.stream()
-                .map(circle -> {
-                    int memberCount = circleMemberRepository.countByCircleId(circle.getId());
-                    String userRole = circleMemberRepository
-                            .findByCircleIdAndUserId(circle.getId(), currentUserId)
-                            .map(CircleMember::getRole)
-                            .orElse(null);
-                    return circleMapper.toResponse(circle, memberCount, userRole);
-                })
+                .map(circle -> circleMapper.toResponse(
+                        circle,
+                        memberCounts.getOrDefault(circle.getId(), 0),
+                        userRoles.get(circle.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -228,7 +269,9 @@ public class CircleServiceImpl implements CircleService {
                 .nickname(request.getNickname())
                 .build();
 
-        circleMemberRepository.save(member);
+        CircleMember savedMember = circleMemberRepository.save(member);
+        outbox.append(MEMBERS_TOPIC, circle.getId(), "MemberJoined",
+                memberMapper.toResponse(savedMember));
 
         int memberCount = circleMemberRepository.countByCircleId(circle.getId());
         log.info("User {} joined circle {} successfully", userId, circle.getId());
@@ -257,9 +300,11 @@ public class CircleServiceImpl implements CircleService {
         // Create member
         CircleMember member = memberMapper.toEntity(request, circleUuid);
         CircleMember savedMember = circleMemberRepository.save(member);
+        MemberResponse response = memberMapper.toResponse(savedMember);
+        outbox.append(MEMBERS_TOPIC, circleUuid, "MemberJoined", response);
 
         log.info("Member {} added successfully to circle {}", request.getUserId(), circleId);
-        return memberMapper.toResponse(savedMember);
+        return response;
     }
 
     @Override
@@ -285,6 +330,30 @@ public class CircleServiceImpl implements CircleService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamCircleMembers(
+            String circleId, String role, Consumer<MemberResponse> consumer) {
+        log.info("Streaming members for circle: {} with role filter: {}", circleId, role);
+
+        UUID circleUuid = UUID.fromString(circleId);
+
+        // Verify circle exists before the first element, while the response can still become a 404
+        if (!circleRepository.existsById(circleUuid)) {
+            throw new CircleNotFoundException("Circle not found with ID: " + circleId);
+        }
+
+        try (Stream<CircleMember> members = role != null && !role.isBlank()
+                ? circleMemberRepository.streamByCircleIdAndRole(circleUuid, role)
+                : circleMemberRepository.streamByCircleId(circleUuid)) {
+            members.forEach(member -> {
+                consumer.accept(memberMapper.toResponse(member));
+                // Keep the persistence context from growing with the circle
+                entityManager.detach(member);
+            });
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public MemberResponse getMemberDetails(String circleId, String userId) {
@@ -320,9 +389,11 @@ public class CircleServiceImpl implements CircleService {
         // Update fields
         memberMapper.updateEntityFromRequest(request, member);
         CircleMember updatedMember = circleMemberRepository.save(member);
+        MemberResponse response = memberMapper.toResponse(updatedMember);
+        outbox.append(MEMBERS_TOPIC, circleUuid, "MemberUpdated", response);
 
         log.info("Member {} updated successfully in circle {}", userId, circleId);
-        return memberMapper.toResponse(updatedMember);
+        return response;
     }
 
     @Override
@@ -340,6 +411,7 @@ public class CircleServiceImpl implements CircleService {
                         "Member not found in circle: " + circleId));
 
         circleMemberRepository.delete(member);
+        memberLeft(circleUuid, userUuid);
         log.info("Member {} removed successfully from circle {}", userId, circleId);
     }
 
@@ -364,6 +436,7 @@ public class CircleServiceImpl implements CircleService {
         }
 
         circleMemberRepository.delete(member);
+        memberLeft(circleUuid, userUuid);
         log.info("User {} left circle {} successfully", userId, circleId);
     }
 
@@ -454,9 +527,9 @@ public class CircleServiceImpl implements CircleService {
                 .average()
                 .orElse(0.0);
 
-        // Find last activity (most recent member join or update)
+        // Find last activity (most recent member join, update or task completion)
         LocalDateTime lastActivity = members.stream()
-                .map(m -> m.getUpdatedAt() != null ? m.getUpdatedAt() : m.getJoinedAt())
+                .map(CircleServiceImpl::lastActivityOf)
                 .max(LocalDateTime::compareTo)
                 .orElse(circle.getCreatedAt());
 
@@ -482,6 +555,35 @@ public class CircleServiceImpl implements CircleService {
 
     // ==================== Helper Methods ====================
 
+    private Map<UUID, Integer> countMembers(Collection<UUID> circleIds) {
+        Map<UUID, Integer> counts = new HashMap<>();
+        if (circleIds.isEmpty()) {
+            return counts;
+        }
+        for (Object[] row : circleMemberRepository.countMembersByCircleIds(circleIds)) {
+            counts.put((UUID) row[0], ((Long) row[1]).intValue());
+        }
+        return counts;
+    }
+
+    private void memberLeft(UUID circleId, UUID userId) {
+        MemberLeft left = new MemberLeft(circleId, userId);
+        events.publishEvent(left);
+        outbox.append(MEMBERS_TOPIC, circleId, "MemberLeft", left);
+    }
+
+    private static LocalDateTime lastActivityOf(CircleMember member) {
+        LocalDateTime last = member.getUpdatedAt() != null
+                ? member.getUpdatedAt()
+                : member.getJoinedAt();
+        LocalDateTime active = member.getLastActiveAt();
+        return active != null && active.isAfter(last) ? active : last;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
     private UUID getCurrentUserId() {
         // TODO: Get from Spring Security context
         // return ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUserId();
@@ -0,0 +1,67 @@
+package com.circlesync.circlesync.circlemodule.service;
+
+import com.circlesync.circlesync.circlemodule.CircleTimeZones;
+import com.circlesync.circlesync.circlemodule.repository.CircleRepository;
+import com.circlesync.circlesync.circlemodule.repository.CircleZoneSetting;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads a circle's time zone from the {@code timeZone} key of its settings.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class CircleTimeZoneService implements CircleTimeZones {
+
+    private final CircleRepository circleRepository;
+    private final ZoneId defaultZone;
+
+    public CircleTimeZoneService(
+            CircleRepository circleRepository,
+            @Value("${circlesync.circles.default-time-zone:UTC}") String defaultZone) {
+        this.circleRepository = circleRepository;
+        this.defaultZone = ZoneId.of(defaultZone);
+    }
+
+    @Override
+    public ZoneId zoneOf(UUID circleId) {
+        return circleRepository.findTimeZoneById(circleId)
+                .map(zone -> parse(circleId, zone))
+                .orElse(defaultZone);
+    }
+
+    @Override
+    public Map<UUID, ZoneId> zonesOf(Collection<UUID> circleIds) {
+        Map<UUID, ZoneId> zones = new HashMap<>();
+        circleIds.forEach(circleId -> zones.put(circleId, defaultZone));
+        if (circleIds.isEmpty()) {
+            return zones;
+        }
+
+        for (CircleZoneSetting circle : circleRepository.findTimeZonesByIdIn(circleIds)) {
+            if (circle.getTimeZone() != null) {
+                zones.put(circle.getId(), parse(circle.getId(), circle.getTimeZone()));
+            }
+        }
+        return zones;
+    }
+
+    private ZoneId parse(UUID circleId, String zone) {
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            log.warn("Circle {} has invalid time zone '{}', using {}", circleId, zone, defaultZone);
+            return defaultZone;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.security.SecureRandom;
+import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
@@ -12,6 +13,7 @@ public class InviteCodeGenerator {
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
     private static final int CODE_LENGTH = 8;
     private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Pattern VALID_CHARACTERS = Pattern.compile("[A-Z0-9]+");
 
     /**
      * Generate a unique invite code
@@ -56,6 +58,6 @@ public class InviteCodeGenerator {
         }
 
         // Check characters
-        return normalized.matches("[A-Z0-9]+");
+        return VALID_CHARACTERS.matcher(normalized).matches();
     }
 }
\ No newline at end of file
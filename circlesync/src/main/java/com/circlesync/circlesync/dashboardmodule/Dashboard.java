@@ -0,0 +1,7 @@
+package com.circlesync.circlesync.dashboardmodule;
+
+import org.springframework.modulith.ApplicationModule;
+
+@ApplicationModule(id = "dashboard-service", displayName = "Dashboard Service")
+public class Dashboard {
+}
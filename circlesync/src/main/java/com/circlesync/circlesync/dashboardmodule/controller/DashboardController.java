@@ -0,0 +1,44 @@
+package com.circlesync.circlesync.dashboardmodule.controller;
+
+import com.circlesync.circlesync.dashboardmodule.dto.DashboardResponse;
+import com.circlesync.circlesync.dashboardmodule.service.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the composed user dashboard.
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Dashboard", description = "User dashboard API")
+public class DashboardController {
+
+  private final DashboardService dashboardService;
+
+  /**
+   * Get a user's dashboard in one call.
+   *
+   * @param userId the user ID
+   * @return the dashboard response
+   */
+  @GetMapping("/{userId}")
+  @Operation(
+      summary = "Get user dashboard",
+      description =
+          "Get the user's circles, the tasks due today in each circle and the user's streaks."
+              + " Sections that exceed the latency budget are listed in missing.")
+  public ResponseEntity<DashboardResponse> getDashboard(@PathVariable String userId) {
+    log.info("GET /api/dashboard/{} - Fetching dashboard", userId);
+    DashboardResponse response = dashboardService.getDashboard(userId);
+    return ResponseEntity.ok(response);
+  }
+}
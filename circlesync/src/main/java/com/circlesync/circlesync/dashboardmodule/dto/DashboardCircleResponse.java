@@ -0,0 +1,24 @@
+package com.circlesync.circlesync.dashboardmodule.dto;
+
+import com.circlesync.circlesync.circlemodule.dto.CircleResponse;
+import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A circle on the dashboard with its active tasks and the tasks due on its local date. Either
+ * list is null when it did not load within the latency budget.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardCircleResponse {
+
+  private CircleResponse circle;
+  private LocalDate today;
+  private List<TaskResponse> todayTasks;
+  private List<TaskResponse> activeTasks;
+}
@@ -0,0 +1,25 @@
+package com.circlesync.circlesync.dashboardmodule.dto;
+
+import com.circlesync.circlesync.taskmodule.dto.StreakResponse;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a user's dashboard. Sections that did not load within the latency budget are
+ * null and listed in {@code missing}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+
+  private UUID userId;
+  private List<DashboardCircleResponse> circles;
+  private List<StreakResponse> streaks;
+  private boolean partial;
+  private List<String> missing;
+  private Long durationMs;
+}
@@ -0,0 +1,17 @@
+package com.circlesync.circlesync.dashboardmodule.service;
+
+import com.circlesync.circlesync.dashboardmodule.dto.DashboardResponse;
+
+/**
+ * Service interface for the composed user dashboard.
+ */
+public interface DashboardService {
+
+  /**
+   * Get a user's circles, the tasks due today in each circle and the user's streaks.
+   *
+   * @param userId the user ID
+   * @return the dashboard, possibly partial if a section exceeded the latency budget
+   */
+  DashboardResponse getDashboard(String userId);
+}
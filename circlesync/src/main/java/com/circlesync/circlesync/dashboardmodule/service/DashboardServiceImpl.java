@@ -0,0 +1,202 @@
+package com.circlesync.circlesync.dashboardmodule.service;
+
+import com.circlesync.circlesync.circlemodule.CircleTimeZones;
+import com.circlesync.circlesync.circlemodule.dto.CircleResponse;
+import com.circlesync.circlesync.circlemodule.service.CircleService;
+import com.circlesync.circlesync.dashboardmodule.dto.DashboardCircleResponse;
+import com.circlesync.circlesync.dashboardmodule.dto.DashboardResponse;
+import com.circlesync.circlesync.taskmodule.dto.StreakResponse;
+import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
+import com.circlesync.circlesync.taskmodule.service.TaskService;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of DashboardService. Circles come from circles_db and streaks from tasks_db, and
+ * the two run in parallel on virtual threads since each database has its own connection pool.
+ * Once the circles arrive, their zones are read with one IN-list query and the tasks due today
+ * come from the agenda cache, with one query for the circles it misses; in parallel, the active
+ * tasks of all the circles are read with one more IN-list query. Sections still running
+ * when the latency budget runs out are left out of the response instead of failing it.
+ *
+ * <p>Each section runs in read-only transactions whose timeout is the budget left when it starts,
+ * rounded up to whole seconds. The timeout applies to every statement, so a section that misses
+ * the budget has its queries cancelled by the database; cancelling its future alone would not
+ * stop JDBC work.
+ */
+@Service
+@Slf4j
+public class DashboardServiceImpl implements DashboardService {
+
+  private static final String CIRCLES = "circles";
+  private static final String TODAY_TASKS = "todayTasks";
+  private static final String ACTIVE_TASKS = "activeTasks";
+  private static final String STREAKS = "streaks";
+
+  private final CircleService circleService;
+  private final CircleTimeZones circleTimeZones;
+  private final TaskService taskService;
+  private final PlatformTransactionManager circleTransactionManager;
+  private final PlatformTransactionManager taskTransactionManager;
+  private final Duration timeout;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public DashboardServiceImpl(
+      CircleService circleService,
+      CircleTimeZones circleTimeZones,
+      TaskService taskService,
+      @Qualifier("circleTransactionManager") PlatformTransactionManager circleTransactionManager,
+      @Qualifier("taskTransactionManager") PlatformTransactionManager taskTransactionManager,
+      @Value("${circlesync.dashboard.timeout:PT2S}") Duration timeout) {
+    this.circleService = circleService;
+    this.circleTimeZones = circleTimeZones;
+    this.taskService = taskService;
+    this.circleTransactionManager = circleTransactionManager;
+    this.taskTransactionManager = taskTransactionManager;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public DashboardResponse getDashboard(String userId) {
+    log.info("Fetching dashboard for user: {}", userId);
+
+    UUID userUuid = UUID.fromString(userId);
+    long start = System.nanoTime();
+    long deadline = start + timeout.toNanos();
+
+    CompletableFuture<List<CircleResponse>> circles =
+        CompletableFuture.supplyAsync(
+            () ->
+                withinBudget(
+                    deadline,
+                    List.of(circleTransactionManager),
+                    () -> circleService.getUserCircles(userId, null)),
+            executor);
+    // Streaks and today's tasks also read circle time zones
+    List<PlatformTransactionManager> bothDatabases =
+        List.of(circleTransactionManager, taskTransactionManager);
+    CompletableFuture<List<StreakResponse>> streaks =
+        CompletableFuture.supplyAsync(
+            () -> withinBudget(deadline, bothDatabases, () -> taskService.getUserStreaks(userId)),
+            executor);
+    CompletableFuture<Map<UUID, TodayTasks>> today =
+        circles.thenApplyAsync(
+            circleList ->
+                withinBudget(deadline, bothDatabases, () -> loadTodayTasks(circleList)),
+            executor);
+    CompletableFuture<Map<UUID, List<TaskResponse>>> active =
+        circles.thenApplyAsync(
+            circleList ->
+                withinBudget(
+                    deadline,
+                    List.of(taskTransactionManager),
+                    () ->
+                        taskService.getActiveTasksForCircles(
+                            circleList.stream().map(CircleResponse::getId).toList())),
+            executor);
+
+    List<String> missing = new ArrayList<>();
+    List<CircleResponse> circleList = await(circles, deadline, CIRCLES, missing);
+    List<StreakResponse> streakList = await(streaks, deadline, STREAKS, missing);
+    Map<UUID, TodayTasks> todayByCircle =
+        circleList != null ? await(today, deadline, TODAY_TASKS, missing) : null;
+    Map<UUID, List<TaskResponse>> activeByCircle =
+        circleList != null ? await(active, deadline, ACTIVE_TASKS, missing) : null;
+    if (circleList == null) {
+      today.cancel(true);
+      active.cancel(true);
+      missing.add(TODAY_TASKS);
+      missing.add(ACTIVE_TASKS);
+    }
+
+    List<DashboardCircleResponse> dashboardCircles = null;
+    if (circleList != null) {
+      dashboardCircles = new ArrayList<>(circleList.size());
+      for (CircleResponse circle : circleList) {
+        TodayTasks tasks = todayByCircle != null ? todayByCircle.get(circle.getId()) : null;
+        dashboardCircles.add(
+            new DashboardCircleResponse(
+                circle,
+                tasks != null ? tasks.date() : null,
+                tasks != null ? tasks.tasks() : null,
+                activeByCircle != null ? activeByCircle.get(circle.getId()) : null));
+      }
+    }
+
+    long durationMs = (System.nanoTime() - start) / 1_000_000;
+    return new DashboardResponse(
+        userUuid, dashboardCircles, streakList, !missing.isEmpty(), missing, durationMs);
+  }
+
+  /** Stop the virtual threads of requests still in flight at shutdown. */
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /** Run work inside nested read-only transactions that time out with the budget. */
+  private <T> T withinBudget(
+      long deadline, List<PlatformTransactionManager> managers, Supplier<T> work) {
+    if (managers.isEmpty()) {
+      return work.get();
+    }
+    long remaining = Math.max(0, deadline - System.nanoTime());
+    TransactionTemplate transaction = new TransactionTemplate(managers.getFirst());
+    transaction.setReadOnly(true);
+    transaction.setTimeout((int) Math.max(1, Math.ceilDiv(remaining, 1_000_000_000L)));
+    return transaction.execute(
+        status -> withinBudget(deadline, managers.subList(1, managers.size()), work));
+  }
+
+  private Map<UUID, TodayTasks> loadTodayTasks(List<CircleResponse> circles) {
+    Map<UUID, ZoneId> zones =
+        circleTimeZones.zonesOf(circles.stream().map(CircleResponse::getId).toList());
+
+    Map<UUID, LocalDate> dates = new HashMap<>();
+    zones.forEach((circleId, zone) -> dates.put(circleId, LocalDate.now(zone)));
+    Map<UUID, List<TaskResponse>> tasks = taskService.getTodayTasksForCircles(dates);
+
+    Map<UUID, TodayTasks> byCircle = new HashMap<>();
+    dates.forEach(
+        (circleId, date) -> byCircle.put(circleId, new TodayTasks(date, tasks.get(circleId))));
+    return byCircle;
+  }
+
+  private <T> T await(
+      CompletableFuture<T> future, long deadline, String section, List<String> missing) {
+    try {
+      return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      log.warn("Dashboard section {} missed the {} ms budget", section, timeout.toMillis());
+    } catch (ExecutionException e) {
+      log.warn("Dashboard section {} failed", section, e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    future.cancel(true);
+    missing.add(section);
+    return null;
+  }
+
+  private record TodayTasks(LocalDate date, List<TaskResponse> tasks) {}
+}
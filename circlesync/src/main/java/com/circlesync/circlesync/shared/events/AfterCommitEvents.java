@@ -0,0 +1,77 @@
+package com.circlesync.circlesync.shared.events;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes events raised in a tasks_db transaction. The event publication registry lives in
+ * circles_db, so publishing inside the tasks_db transaction would write the registry row in a
+ * separate circles_db transaction that commits even when the tasks_db one rolls back, and on the
+ * request thread. Instead the event is published once the surrounding transaction has committed,
+ * on the application task executor, in a circle transaction of its own: a rolled-back change
+ * publishes nothing and the request does not wait for the registry. An event is lost if the node
+ * stops between the commit and the publication; the outbox, written in the same transaction as
+ * the change, remains the durable record.
+ */
+@Component
+@Slf4j
+public class AfterCommitEvents {
+
+  private final ApplicationEventPublisher events;
+  private final TransactionTemplate circleTransaction;
+  private final Executor executor;
+
+  public AfterCommitEvents(
+      ApplicationEventPublisher events,
+      @Qualifier("circleTransactionManager") PlatformTransactionManager transactionManager,
+      @Qualifier("applicationTaskExecutor") Executor executor) {
+    this.events = events;
+    this.circleTransaction = new TransactionTemplate(transactionManager);
+    this.executor = executor;
+  }
+
+  /**
+   * Publish an event once the current transaction commits, or right away when there is no
+   * transaction. Nothing is published if the transaction rolls back.
+   *
+   * @param event the event
+   */
+  public void publishAfterCommit(Object event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      submit(event);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            submit(event);
+          }
+        });
+  }
+
+  private void submit(Object event) {
+    try {
+      executor.execute(() -> publish(event));
+    } catch (RejectedExecutionException e) {
+      log.warn("Dropping {}, the task executor rejected it", event, e);
+    }
+  }
+
+  private void publish(Object event) {
+    try {
+      circleTransaction.executeWithoutResult(status -> events.publishEvent(event));
+    } catch (RuntimeException e) {
+      log.warn("Publishing {} failed", event, e);
+    }
+  }
+}
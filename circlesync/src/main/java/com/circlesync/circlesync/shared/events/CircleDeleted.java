@@ -0,0 +1,10 @@
+package com.circlesync.circlesync.shared.events;
+
+import java.util.UUID;
+
+/**
+ * Published by the circle module when a circle and its memberships have been deleted.
+ *
+ * @param circleId the deleted circle's ID
+ */
+public record CircleDeleted(UUID circleId) {}
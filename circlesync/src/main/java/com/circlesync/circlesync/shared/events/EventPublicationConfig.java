@@ -0,0 +1,56 @@
+package com.circlesync.circlesync.shared.events;
+
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.modulith.events.CompletedEventPublications;
+import org.springframework.modulith.events.IncompleteEventPublications;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Runs module event listeners on the application task executor and maintains the JPA event
+ * publication registry in circles_db: completed publications are deleted once they are older
+ * than the retention, and publications whose listener failed, or whose node stopped before the
+ * listener ran, are resubmitted.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableAsync
+@Slf4j
+public class EventPublicationConfig {
+
+  private final CompletedEventPublications completed;
+  private final IncompleteEventPublications incomplete;
+  private final Duration retention;
+  private final Duration resubmitAfter;
+
+  public EventPublicationConfig(
+      CompletedEventPublications completed,
+      IncompleteEventPublications incomplete,
+      @Value("${circlesync.events.completed-retention:P7D}") Duration retention,
+      @Value("${circlesync.events.resubmit-after:PT5M}") Duration resubmitAfter) {
+    this.completed = completed;
+    this.incomplete = incomplete;
+    this.retention = retention;
+    this.resubmitAfter = resubmitAfter;
+  }
+
+  /** Delete completed publications past the retention. */
+  @Scheduled(fixedDelayString = "${circlesync.events.cleanup-interval:PT1H}")
+  public void deleteCompleted() {
+    completed.deletePublicationsOlderThan(retention);
+  }
+
+  /**
+   * Resubmit publications still incomplete after the resubmit delay. Every node resubmits, so
+   * listeners must tolerate running more than once for the same event.
+   */
+  @Scheduled(
+      fixedDelayString = "${circlesync.events.resubmit-interval:PT5M}",
+      initialDelayString = "${circlesync.events.resubmit-interval:PT5M}")
+  public void resubmitIncomplete() {
+    log.debug("Resubmitting event publications incomplete for over {}", resubmitAfter);
+    incomplete.resubmitIncompletePublicationsOlderThan(resubmitAfter);
+  }
+}
@@ -0,0 +1,12 @@
+package com.circlesync.circlesync.shared.events;
+
+import java.util.UUID;
+
+/**
+ * Published by the circle module when a user is no longer a member of a circle, whether they left
+ * or were removed by an admin.
+ *
+ * @param circleId the circle ID
+ * @param userId the former member's user ID
+ */
+public record MemberLeft(UUID circleId, UUID userId) {}
@@ -0,0 +1,16 @@
+package com.circlesync.circlesync.shared.events;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published by the task module once per completion request, or per write-behind group, with every
+ * task a user completed on one date. Duplicate completions are not included.
+ *
+ * @param userId the user who completed the tasks
+ * @param date the completion date
+ * @param taskIds the completed tasks
+ * @param circleIds the circles of the completed tasks
+ */
+public record TaskCompleted(UUID userId, LocalDate date, Set<UUID> taskIds, Set<UUID> circleIds) {}
@@ -0,0 +1,8 @@
+/**
+ * Domain events exchanged between modules. They live outside both the circle and the task module
+ * so that either can listen to the other without a dependency cycle.
+ */
+@NamedInterface("events")
+package com.circlesync.circlesync.shared.events;
+
+import org.springframework.modulith.NamedInterface;
@@ -0,0 +1,84 @@
+package com.circlesync.circlesync.shared.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Wraps each module's connection pool in a {@link ConnectionPermitDataSource} when requests are
+ * served on virtual threads. Permits default to the pool's maximum size and the wait to its
+ * connection timeout, so the limit follows spring.datasource.*.hikari.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class ConnectionPermitConfig {
+
+  private static final Set<String> DATA_SOURCES = Set.of("circleDataSource", "taskDataSource");
+
+  @Bean
+  static BeanPostProcessor connectionPermitPostProcessor() {
+    return new ConnectionPermitPostProcessor();
+  }
+
+  @Bean
+  MeterBinder connectionPermitMetrics(Map<String, DataSource> dataSources) {
+    return registry ->
+        dataSources.values().stream()
+            .filter(ConnectionPermitDataSource.class::isInstance)
+            .map(ConnectionPermitDataSource.class::cast)
+            .forEach(
+                limited -> {
+                  Gauge.builder(
+                          "circlesync.datasource.permits.waiting",
+                          limited,
+                          ConnectionPermitDataSource::getWaitingThreads)
+                      .description("Threads waiting for a connection permit")
+                      .tag("pool", limited.getName())
+                      .register(registry);
+                  Gauge.builder(
+                          "circlesync.datasource.permits.available",
+                          limited,
+                          ConnectionPermitDataSource::getAvailablePermits)
+                      .description("Connection permits currently free")
+                      .tag("pool", limited.getName())
+                      .register(registry);
+                });
+  }
+
+  /** Ordered so it sees the Hikari pools before unordered post-processors wrap them. */
+  private static class ConnectionPermitPostProcessor implements BeanPostProcessor, Ordered {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      if (!DATA_SOURCES.contains(beanName) || !(bean instanceof HikariDataSource pool)) {
+        return bean;
+      }
+
+      log.info(
+          "Limiting {} to {} concurrent connection holders",
+          pool.getPoolName(),
+          pool.getMaximumPoolSize());
+      return new ConnectionPermitDataSource(
+          pool,
+          pool.getPoolName(),
+          pool.getMaximumPoolSize(),
+          Duration.ofMillis(pool.getConnectionTimeout()));
+    }
+
+    @Override
+    public int getOrder() {
+      return Ordered.HIGHEST_PRECEDENCE;
+    }
+  }
+}
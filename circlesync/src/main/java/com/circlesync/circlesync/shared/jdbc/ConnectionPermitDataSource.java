@@ -0,0 +1,131 @@
+package com.circlesync.circlesync.shared.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource that lets at most a fixed number of threads hold a connection of the wrapped pool at
+ * once. With virtual threads there is no request thread cap, so without it every in-flight
+ * request would contend in the pool's borrow path; here the excess waits in FIFO order on a fair
+ * semaphore and fails with the pool's own connection timeout. The permit is released when the
+ * connection is closed, i.e. returned to the pool.
+ */
+public class ConnectionPermitDataSource extends DelegatingDataSource {
+
+  private final String name;
+  private final Semaphore permits;
+  private final long acquireTimeoutMs;
+
+  public ConnectionPermitDataSource(
+      DataSource targetDataSource, String name, int permits, Duration acquireTimeout) {
+    super(targetDataSource);
+    this.name = name;
+    this.permits = new Semaphore(permits, true);
+    this.acquireTimeoutMs = acquireTimeout.toMillis();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return releasingPermitOnClose(super.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return releasingPermitOnClose(super.getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Name of the wrapped pool.
+   *
+   * @return the pool name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Number of permits currently free.
+   *
+   * @return the free permits
+   */
+  public int getAvailablePermits() {
+    return permits.availablePermits();
+  }
+
+  /**
+   * Estimated number of threads waiting for a permit.
+   *
+   * @return the waiting threads
+   */
+  public int getWaitingThreads() {
+    return permits.getQueueLength();
+  }
+
+  private void acquire() throws SQLException {
+    try {
+      if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new SQLTransientConnectionException(
+            name + " - Connection permit not available, request timed out after "
+                + acquireTimeoutMs
+                + "ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException(
+          name + " - Interrupted while waiting for a connection permit", e);
+    }
+  }
+
+  private Connection releasingPermitOnClose(Connection target) {
+    AtomicBoolean released = new AtomicBoolean();
+    return (Connection)
+        Proxy.newProxyInstance(
+            ConnectionProxy.class.getClassLoader(),
+            new Class<?>[] {ConnectionProxy.class},
+            (proxy, method, args) ->
+                switch (method.getName()) {
+                  case "getTargetConnection" -> target;
+                  case "equals" -> proxy == args[0];
+                  case "hashCode" -> System.identityHashCode(proxy);
+                  case "close" -> {
+                    try {
+                      target.close();
+                    } finally {
+                      if (released.compareAndSet(false, true)) {
+                        permits.release();
+                      }
+                    }
+                    yield null;
+                  }
+                  default -> {
+                    try {
+                      yield method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                      throw e.getTargetException();
+                    }
+                  }
+                });
+  }
+}
@@ -0,0 +1,54 @@
+package com.circlesync.circlesync.shared.json;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Jackson tuning for the API payloads and the executor that writes streamed list responses.
+ */
+@Configuration(proxyBeanMethods = false)
+public class JsonConfig implements WebMvcConfigurer {
+
+  private final int concurrencyLimit;
+  private final Duration timeout;
+  private final boolean virtualThreads;
+
+  JsonConfig(
+      @Value("${circlesync.json.streaming.concurrency-limit:8}") int concurrencyLimit,
+      @Value("${circlesync.json.streaming.timeout:PT30S}") Duration timeout,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    this.concurrencyLimit = concurrencyLimit;
+    this.timeout = timeout;
+    this.virtualThreads = virtualThreads;
+  }
+
+  /**
+   * Replaces reflective getter calls in the bean serializers with generated lambdas. Spring Boot
+   * registers Module beans with the application ObjectMapper.
+   */
+  @Bean
+  Module blackbirdModule() {
+    return new BlackbirdModule();
+  }
+
+  /**
+   * Streamed responses are written off the request thread and hold a database connection while
+   * they run, so they get their own bounded executor instead of the one shared with the event
+   * listeners.
+   */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("json-stream-");
+    executor.setVirtualThreads(virtualThreads);
+    executor.setConcurrencyLimit(concurrencyLimit);
+    configurer.setTaskExecutor(executor);
+    configurer.setDefaultTimeout(timeout.toMillis());
+  }
+}
@@ -0,0 +1,78 @@
+package com.circlesync.circlesync.shared.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Writes list responses as a JSON array while the elements are produced, so an endpoint never
+ * holds the whole list. Each element type gets one ObjectWriter with its serializer resolved up
+ * front.
+ *
+ * <p>Output goes through the generator's buffer and is not flushed per element, so a source that
+ * fails before the buffer first fills (e.g. with a not-found exception) leaves the response
+ * uncommitted and the error is rendered as usual.
+ */
+@Component
+public class JsonStreams {
+
+  private final ObjectMapper objectMapper;
+  private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+  public JsonStreams(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Response whose body is the array of elements the source passes to its consumer. The source
+   * runs on the MVC async executor once the handler has returned.
+   */
+  public <T> ResponseEntity<StreamingResponseBody> arrayOf(Class<T> type, Source<T> source) {
+    ObjectWriter writer = writers.computeIfAbsent(type, this::newWriter);
+    StreamingResponseBody body =
+        outputStream -> {
+          SequenceWriter sequence = writer.writeValuesAsArray(outputStream);
+          try {
+            source.forEach(value -> write(sequence, value));
+          } catch (UncheckedIOException e) {
+            throw e.getCause();
+          }
+          // Only closed on success: closing writes the end of the array and flushes it
+          sequence.close();
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  private ObjectWriter newWriter(Class<?> type) {
+    return objectMapper
+        .writerFor(type)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  private static void write(SequenceWriter sequence, Object value) {
+    try {
+      sequence.write(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Produces the elements of a streamed array, typically from a repository stream. */
+  @FunctionalInterface
+  public interface Source<T> {
+
+    void forEach(Consumer<T> consumer);
+  }
+}
@@ -0,0 +1,111 @@
+package com.circlesync.circlesync.shared.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Marker;
+
+/**
+ * Logback turbo filter that lets each hot-path logger emit at most {@code eventsPerSecond} INFO
+ * and lower events per second and drops the rest before a logging event is even created. WARN and
+ * ERROR always pass. Configured in logback-spring.xml, e.g.
+ *
+ * <pre>{@code
+ * <turboFilter class="com.circlesync.circlesync.shared.logging.HotPathSamplingFilter">
+ *   <logger>com.circlesync.circlesync.circlemodule.controller</logger>
+ *   <eventsPerSecond>20</eventsPerSecond>
+ * </turboFilter>
+ * }</pre>
+ */
+public class HotPathSamplingFilter extends TurboFilter {
+
+  private final List<String> loggers = new ArrayList<>();
+  private final Map<String, Window> windows = new ConcurrentHashMap<>();
+  private final AtomicLong dropped = new AtomicLong();
+  private int eventsPerSecond = 20;
+
+  /**
+   * Add a logger name prefix to sample.
+   *
+   * @param logger the logger name or package prefix
+   */
+  public void addLogger(String logger) {
+    loggers.add(logger);
+  }
+
+  /**
+   * Set the events each sampled logger may emit per second.
+   *
+   * @param eventsPerSecond the per-logger limit
+   */
+  public void setEventsPerSecond(int eventsPerSecond) {
+    this.eventsPerSecond = eventsPerSecond;
+  }
+
+  /**
+   * Number of events dropped since startup.
+   *
+   * @return the dropped events
+   */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  @Override
+  public void start() {
+    if (eventsPerSecond <= 0) {
+      addError("eventsPerSecond must be positive");
+      return;
+    }
+    super.start();
+  }
+
+  @Override
+  public FilterReply decide(
+      Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+    // isXxxEnabled() checks pass no format and must not use up the budget
+    if (format == null
+        || level.isGreaterOrEqual(Level.WARN)
+        || !level.isGreaterOrEqual(logger.getEffectiveLevel())
+        || !sampled(logger.getName())) {
+      return FilterReply.NEUTRAL;
+    }
+
+    long second = System.nanoTime() / 1_000_000_000L;
+    if (windows.computeIfAbsent(logger.getName(), name -> new Window()).tryAcquire(second)) {
+      return FilterReply.NEUTRAL;
+    }
+    dropped.incrementAndGet();
+    return FilterReply.DENY;
+  }
+
+  private boolean sampled(String name) {
+    for (String prefix : loggers) {
+      if (name.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Fixed one-second window, so a burst may straddle two windows. */
+  private final class Window {
+
+    private long second = -1;
+    private int count;
+
+    synchronized boolean tryAcquire(long now) {
+      if (now != second) {
+        second = now;
+        count = 0;
+      }
+      return ++count <= eventsPerSecond;
+    }
+  }
+}
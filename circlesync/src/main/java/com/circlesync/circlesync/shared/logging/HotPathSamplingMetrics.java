@@ -0,0 +1,44 @@
+package com.circlesync.circlesync.shared.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the events dropped by the {@link HotPathSamplingFilter} as
+ * circlesync.logging.hot-path.dropped. Logback, not Spring, creates the filter, so the count is
+ * read from the turbo filters of the current logger context; it stays at zero when no filter is
+ * configured, as outside the prod profile.
+ */
+@Configuration(proxyBeanMethods = false)
+public class HotPathSamplingMetrics {
+
+  @Bean
+  MeterBinder hotPathSamplingMetrics() {
+    return registry ->
+        FunctionCounter.builder(
+                "circlesync.logging.hot-path.dropped",
+                LoggerFactory.getILoggerFactory(),
+                HotPathSamplingMetrics::dropped)
+            .description("Log events dropped by hot-path sampling")
+            .register(registry);
+  }
+
+  private static double dropped(ILoggerFactory loggerFactory) {
+    if (!(loggerFactory instanceof LoggerContext context)) {
+      return 0;
+    }
+    long dropped = 0;
+    for (TurboFilter filter : context.getTurboFilterList()) {
+      if (filter instanceof HotPathSamplingFilter sampling) {
+        dropped += sampling.getDropped();
+      }
+    }
+    return dropped;
+  }
+}
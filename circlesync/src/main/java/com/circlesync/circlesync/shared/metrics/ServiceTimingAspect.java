@@ -0,0 +1,59 @@
+package com.circlesync.circlesync.shared.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public CircleService and TaskService method with a percentile histogram, tagged by
+ * service, method, outcome and exception type. Runs outside the transaction advice so the
+ * recorded time includes commit.
+ */
+@Aspect
+@Component
+@Order(0)
+public class ServiceTimingAspect {
+
+  static final String METRIC = "circlesync.service";
+
+  private final MeterRegistry meterRegistry;
+
+  public ServiceTimingAspect(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Pointcut("execution(public * com.circlesync.circlesync..CircleService+.*(..))")
+  void circleService() {}
+
+  @Pointcut("execution(public * com.circlesync.circlesync..TaskService+.*(..))")
+  void taskService() {}
+
+  @Around("circleService() || taskService()")
+  public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "SUCCESS";
+    String exception = "none";
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      outcome = "ERROR";
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      sample.stop(
+          Timer.builder(METRIC)
+              .description("Service method latency")
+              .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+              .tag("method", joinPoint.getSignature().getName())
+              .tag("outcome", outcome)
+              .tag("exception", exception)
+              .publishPercentileHistogram()
+              .register(meterRegistry));
+    }
+  }
+}
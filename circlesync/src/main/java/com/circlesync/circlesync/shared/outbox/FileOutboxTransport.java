@@ -0,0 +1,68 @@
+package com.circlesync.circlesync.shared.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stand-in transport that appends each message as one JSON line to a local log file, so the outbox
+ * can be exercised without a broker. Lines are buffered and forced to disk once per batch.
+ */
+public class FileOutboxTransport implements OutboxTransport, AutoCloseable {
+
+  private final ObjectMapper objectMapper;
+  private final FileChannel channel;
+  private final BufferedWriter writer;
+
+  public FileOutboxTransport(Path path, ObjectMapper objectMapper) throws IOException {
+    this.objectMapper = objectMapper;
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    this.channel =
+        FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    this.writer =
+        new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 64 * 1024);
+  }
+
+  @Override
+  public synchronized CompletableFuture<Void> send(OutboxMessage message) {
+    try {
+      ObjectNode line = objectMapper.createObjectNode();
+      line.put("topic", message.topic());
+      line.put("key", message.key());
+      line.put("type", message.type());
+      line.set("payload", objectMapper.readTree(message.payload()));
+      writer.write(objectMapper.writeValueAsString(line));
+      writer.newLine();
+      return CompletableFuture.completedFuture(null);
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @Override
+  public synchronized void flush() {
+    try {
+      writer.flush();
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    writer.close();
+  }
+}
@@ -0,0 +1,34 @@
+package com.circlesync.circlesync.shared.outbox;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+
+/**
+ * Publishes outbox messages to Kafka. Sends are asynchronous, so a batch is pipelined through the
+ * producer's own batching (see spring.kafka.producer); the event type travels as a header.
+ */
+public class KafkaOutboxTransport implements OutboxTransport {
+
+  static final String TYPE_HEADER = "event-type";
+
+  private final KafkaTemplate<String, String> kafkaTemplate;
+
+  public KafkaOutboxTransport(KafkaTemplate<String, String> kafkaTemplate) {
+    this.kafkaTemplate = kafkaTemplate;
+  }
+
+  @Override
+  public CompletableFuture<Void> send(OutboxMessage message) {
+    ProducerRecord<String, String> record =
+        new ProducerRecord<>(message.topic(), message.key(), message.payload());
+    record.headers().add(TYPE_HEADER, message.type().getBytes(StandardCharsets.UTF_8));
+    return kafkaTemplate.send(record).thenApply(result -> null);
+  }
+
+  @Override
+  public void flush() {
+    kafkaTemplate.flush();
+  }
+}
@@ -0,0 +1,55 @@
+package com.circlesync.circlesync.shared.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Writes messages to the outbox table of one module database. The insert runs on the caller's
+ * connection, so it commits or rolls back together with the change it describes; the module's
+ * {@link OutboxRelay} delivers it afterwards.
+ *
+ * <p>Before inserting, the writer takes a transaction-level advisory lock on the message's topic
+ * and key, so two transactions appending for the same aggregate take their IDs in commit order and
+ * the relay, reading by ID, sends them in that order. The lock is held until commit; a
+ * transaction appending for several keys should append them in a consistent order.
+ */
+public class Outbox {
+
+  /** First half of the advisory lock keys, which keeps them apart from single-key locks. */
+  static final int LOCK_NAMESPACE = 0x4353;
+
+  private static final String LOCK_AGGREGATE = "SELECT pg_advisory_xact_lock(?, hashtext(?))";
+
+  private static final String INSERT =
+      "INSERT INTO outbox (topic, message_key, event_type, payload)"
+          + " VALUES (?, ?, ?, CAST(? AS jsonb))";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+
+  public Outbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Append a message to the outbox in the current transaction.
+   *
+   * @param topic the destination topic
+   * @param key the partitioning key
+   * @param type the event type
+   * @param payload the payload, serialized to JSON
+   */
+  public void append(String topic, Object key, String type, Object payload) {
+    String json;
+    try {
+      json = objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize " + type + " outbox payload", e);
+    }
+    String messageKey = String.valueOf(key);
+    jdbcTemplate.query(LOCK_AGGREGATE, resultSet -> {}, LOCK_NAMESPACE, topic + "/" + messageKey);
+    jdbcTemplate.update(INSERT, topic, messageKey, type, json);
+  }
+}
@@ -0,0 +1,105 @@
+package com.circlesync.circlesync.shared.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One outbox and relay per module database, plus the transport selected by
+ * circlesync.outbox.transport: {@code file} (default) or {@code kafka}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class OutboxConfig {
+
+  @Bean
+  Outbox circleOutbox(
+      @Qualifier("circleDataSource") DataSource dataSource, ObjectMapper objectMapper) {
+    return new Outbox(new JdbcTemplate(dataSource), objectMapper);
+  }
+
+  @Bean
+  Outbox taskOutbox(@Qualifier("taskDataSource") DataSource dataSource, ObjectMapper objectMapper) {
+    return new Outbox(new JdbcTemplate(dataSource), objectMapper);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "circlesync.outbox.transport", havingValue = "kafka")
+  OutboxTransport kafkaOutboxTransport(KafkaTemplate<String, String> kafkaTemplate) {
+    return new KafkaOutboxTransport(kafkaTemplate);
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      name = "circlesync.outbox.transport",
+      havingValue = "file",
+      matchIfMissing = true)
+  FileOutboxTransport fileOutboxTransport(
+      @Value("${circlesync.outbox.file:data/outbox.log}") String path, ObjectMapper objectMapper)
+      throws IOException {
+    return new FileOutboxTransport(Path.of(path), objectMapper);
+  }
+
+  /** Relays for both databases, unless this node only writes to the outboxes. */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnProperty(
+      name = "circlesync.outbox.relay.enabled",
+      havingValue = "true",
+      matchIfMissing = true)
+  static class RelayConfig {
+
+    private final OutboxTransport transport;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration sendTimeout;
+
+    RelayConfig(
+        OutboxTransport transport,
+        @Value("${circlesync.outbox.relay.batch-size:500}") int batchSize,
+        @Value("${circlesync.outbox.relay.max-batches-per-run:20}") int maxBatchesPerRun,
+        @Value("${circlesync.outbox.relay.send-timeout:PT10S}") Duration sendTimeout) {
+      this.transport = transport;
+      this.batchSize = batchSize;
+      this.maxBatchesPerRun = maxBatchesPerRun;
+      this.sendTimeout = sendTimeout;
+    }
+
+    @Bean
+    OutboxRelay circleOutboxRelay(
+        @Qualifier("circleDataSource") DataSource dataSource,
+        @Qualifier("circleTransactionManager") PlatformTransactionManager transactionManager) {
+      return relay("circle", dataSource, transactionManager);
+    }
+
+    @Bean
+    OutboxRelay taskOutboxRelay(
+        @Qualifier("taskDataSource") DataSource dataSource,
+        @Qualifier("taskTransactionManager") PlatformTransactionManager transactionManager) {
+      return relay("task", dataSource, transactionManager);
+    }
+
+    private OutboxRelay relay(
+        String name, DataSource dataSource, PlatformTransactionManager transactionManager) {
+      return new OutboxRelay(
+          name,
+          new NamedParameterJdbcTemplate(dataSource),
+          new TransactionTemplate(transactionManager),
+          transport,
+          batchSize,
+          maxBatchesPerRun,
+          sendTimeout,
+          OutboxRelay.LOCK_KEY);
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package com.circlesync.circlesync.shared.outbox;
+
+/**
+ * One row of a module's outbox table, ready to hand to an {@link OutboxTransport}.
+ *
+ * @param id the row ID, taken from a sequence when the row is inserted rather than when its
+ *     transaction commits, so rows may commit out of ID order; {@link Outbox} locks the topic and
+ *     key before inserting, so one key's messages are in order
+ * @param topic the destination topic
+ * @param key the partitioning key, e.g. the circle ID, so one aggregate's messages stay ordered
+ * @param type the event type, e.g. {@code CircleUpdated}
+ * @param payload the JSON payload
+ */
+public record OutboxMessage(long id, String topic, String key, String type, String payload) {}
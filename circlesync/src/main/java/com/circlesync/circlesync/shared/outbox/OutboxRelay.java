@@ -0,0 +1,186 @@
+package com.circlesync.circlesync.shared.outbox;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains one module's outbox table through an {@link OutboxTransport}. Only one node relays an
+ * outbox at a time: each run first takes a session-level advisory lock on a connection of its own
+ * and skips the run if another node holds it, since relays working side by side would send later
+ * batches before earlier ones. Each batch reads the oldest rows, sends the whole batch before
+ * awaiting any result, and deletes the rows that were delivered in the same transaction.
+ * Delivery is at least once: the batch stops at the first failed send and everything from there on
+ * stays in the table for the next round, which keeps each key's messages in order but may repeat
+ * messages already sent after the failure.
+ */
+@Slf4j
+public class OutboxRelay {
+
+  private static final String SELECT_BATCH =
+      "SELECT id, topic, message_key, event_type, CAST(payload AS TEXT) AS payload FROM outbox"
+          + " ORDER BY id LIMIT :limit";
+  private static final String DELETE_SENT = "DELETE FROM outbox WHERE id IN (:ids)";
+  private static final RowMapper<OutboxMessage> ROW_MAPPER =
+      (rs, rowNum) ->
+          new OutboxMessage(
+              rs.getLong("id"),
+              rs.getString("topic"),
+              rs.getString("message_key"),
+              rs.getString("event_type"),
+              rs.getString("payload"));
+
+  /** Advisory lock key of the relays; each module's outbox lives in its own database. */
+  static final long LOCK_KEY = 0x43530004L;
+
+  private final String name;
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final OutboxTransport transport;
+  private final int batchSize;
+  private final int maxBatchesPerRun;
+  private final long sendTimeoutNanos;
+  private final long lockKey;
+
+  public OutboxRelay(
+      String name,
+      NamedParameterJdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      OutboxTransport transport,
+      int batchSize,
+      int maxBatchesPerRun,
+      Duration sendTimeout,
+      long lockKey) {
+    this.name = name;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.transport = transport;
+    this.batchSize = batchSize;
+    this.maxBatchesPerRun = maxBatchesPerRun;
+    this.sendTimeoutNanos = sendTimeout.toNanos();
+    this.lockKey = lockKey;
+  }
+
+  /**
+   * Relay full batches until the outbox is drained or the per-run batch limit is reached, unless
+   * another node is relaying this outbox.
+   */
+  @Scheduled(fixedDelayString = "${circlesync.outbox.relay.interval:PT1S}")
+  public void relay() {
+    Integer relayed;
+    try {
+      relayed =
+          jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Integer>) this::relayLocked);
+    } catch (DataAccessException e) {
+      log.warn("Relaying the {} outbox failed", name, e);
+      return;
+    }
+    if (relayed != null && relayed > 0) {
+      log.debug("Relayed {} messages from the {} outbox", relayed, name);
+    }
+  }
+
+  /**
+   * Run the batches while holding the relay lock. The lock is held by the given connection, which
+   * stays checked out for the whole run; the batches run in transactions on other connections.
+   */
+  private int relayLocked(Connection connection) throws SQLException {
+    if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+      log.debug("Relaying the {} outbox skipped, another node holds the lock", name);
+      return 0;
+    }
+    try {
+      return relayBatches();
+    } finally {
+      advisoryLock(connection, "pg_advisory_unlock");
+    }
+  }
+
+  private boolean advisoryLock(Connection connection, String function) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+      statement.setLong(1, lockKey);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() && resultSet.getBoolean(1);
+      }
+    }
+  }
+
+  private int relayBatches() {
+    int relayed = 0;
+    for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+      int sent;
+      try {
+        sent = transactionTemplate.execute(status -> relayBatch());
+      } catch (RuntimeException e) {
+        log.warn("Relaying the {} outbox failed", name, e);
+        break;
+      }
+      relayed += sent;
+      if (sent < batchSize) {
+        break;
+      }
+    }
+    return relayed;
+  }
+
+  private int relayBatch() {
+    List<OutboxMessage> batch =
+        jdbcTemplate.query(SELECT_BATCH, Map.of("limit", batchSize), ROW_MAPPER);
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+    for (OutboxMessage message : batch) {
+      sends.add(transport.send(message));
+    }
+    transport.flush();
+
+    long deadline = System.nanoTime() + sendTimeoutNanos;
+    List<Long> delivered = new ArrayList<>(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      if (!awaitDelivery(sends.get(i), batch.get(i), deadline)) {
+        break;
+      }
+      delivered.add(batch.get(i).id());
+    }
+
+    if (!delivered.isEmpty()) {
+      jdbcTemplate.update(DELETE_SENT, Map.of("ids", delivered));
+    }
+    // A short count ends the run, so a failing transport is retried on the next schedule
+    return delivered.size();
+  }
+
+  private boolean awaitDelivery(
+      CompletableFuture<Void> send, OutboxMessage message, long deadline) {
+    try {
+      send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      return true;
+    } catch (ExecutionException e) {
+      log.warn(
+          "Sending outbox message {} to {} failed", message.id(), message.topic(), e.getCause());
+    } catch (TimeoutException e) {
+      log.warn("Sending outbox message {} to {} timed out", message.id(), message.topic());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+}
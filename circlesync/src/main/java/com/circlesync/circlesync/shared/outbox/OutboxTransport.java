@@ -0,0 +1,24 @@
+package com.circlesync.circlesync.shared.outbox;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delivers outbox messages to their destination. The relay sends a whole batch before waiting on
+ * any result, so implementations should pipeline sends rather than complete them one by one.
+ */
+public interface OutboxTransport {
+
+  /**
+   * Start sending a message.
+   *
+   * @param message the message
+   * @return completes once the destination has accepted the message
+   */
+  CompletableFuture<Void> send(OutboxMessage message);
+
+  /**
+   * Push out everything sent so far. Called once per batch before the results are awaited; a
+   * failure fails the whole batch.
+   */
+  default void flush() {}
+}
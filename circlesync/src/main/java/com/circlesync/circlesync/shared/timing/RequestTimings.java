@@ -0,0 +1,80 @@
+package com.circlesync.circlesync.shared.timing;
+
+import java.util.Locale;
+
+/**
+ * Per-request accumulator of database and serialization time, bound to the request thread while
+ * {@link ServerTimingFilter} runs. Work on other threads, such as the dashboard fan-out, is not
+ * attributed to the request.
+ */
+public final class RequestTimings {
+
+  /** Persistence units reported in the header, in header order. */
+  static final String[] POOLS = {"circle", "task"};
+
+  private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+  private final long startNanos = System.nanoTime();
+  private final long[] databaseNanos = new long[POOLS.length];
+  private final int[] statements = new int[POOLS.length];
+  private long serializationNanos;
+
+  private RequestTimings() {}
+
+  static RequestTimings start() {
+    RequestTimings timings = new RequestTimings();
+    CURRENT.set(timings);
+    return timings;
+  }
+
+  static void clear() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Get the accumulator of the request running on this thread.
+   *
+   * @return the accumulator, or null outside a timed request
+   */
+  static RequestTimings current() {
+    return CURRENT.get();
+  }
+
+  void recordStatement(int pool, long nanos) {
+    databaseNanos[pool] += nanos;
+    statements[pool]++;
+  }
+
+  void recordSerialization(long nanos) {
+    serializationNanos += nanos;
+  }
+
+  /**
+   * Render the Server-Timing header value, e.g. {@code db-task;dur=1.8;desc="3 statements"}.
+   *
+   * @return the header value
+   */
+  String toHeader() {
+    StringBuilder header = new StringBuilder(160);
+    for (int pool = 0; pool < POOLS.length; pool++) {
+      header
+          .append("db-")
+          .append(POOLS[pool])
+          .append(";dur=")
+          .append(millis(databaseNanos[pool]))
+          .append(";desc=\"")
+          .append(statements[pool])
+          .append(" statements\", ");
+    }
+    header
+        .append("ser;dur=")
+        .append(millis(serializationNanos))
+        .append(", total;dur=")
+        .append(millis(System.nanoTime() - startNanos));
+    return header.toString();
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+  }
+}
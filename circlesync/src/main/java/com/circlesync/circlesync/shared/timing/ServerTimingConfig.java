@@ -0,0 +1,58 @@
+package com.circlesync.circlesync.shared.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Server-Timing headers for the circle and task APIs, so slow requests can be diagnosed from the
+ * browser devtools of the Electron app.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(
+    name = "circlesync.server-timing.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ServerTimingConfig {
+
+  private static final Map<String, Integer> DATA_SOURCES =
+      Map.of("circleDataSource", 0, "taskDataSource", 1);
+
+  // List endpoints written through JsonStreams
+  private static final List<String> STREAMED_PATHS =
+      List.of("/api/circles/{id}/members", "/api/tasks/circle/{id}");
+
+  @Bean
+  static BeanPostProcessor serverTimingDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Integer pool = DATA_SOURCES.get(beanName);
+        return pool != null && bean instanceof DataSource dataSource
+            ? new TimingDataSource(dataSource, pool)
+            : bean;
+      }
+    };
+  }
+
+  @Bean
+  FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+    FilterRegistrationBean<ServerTimingFilter> registration =
+        new FilterRegistrationBean<>(new ServerTimingFilter(STREAMED_PATHS));
+    registration.addUrlPatterns("/api/circles/*", "/api/tasks/*");
+    return registration;
+  }
+
+  @Bean
+  MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+      ObjectMapper objectMapper) {
+    return new TimingJackson2HttpMessageConverter(objectMapper);
+  }
+}
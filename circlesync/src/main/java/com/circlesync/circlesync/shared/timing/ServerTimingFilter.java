@@ -0,0 +1,56 @@
+package com.circlesync.circlesync.shared.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Adds a Server-Timing header with database time and statement count per pool, serialization
+ * time and total time. The body is buffered so the header can follow serialization; the JSON
+ * payloads of the circle and task APIs are small enough for that. Streamed responses are written
+ * after the handler returns, so their paths are excluded rather than buffered.
+ */
+class ServerTimingFilter extends OncePerRequestFilter {
+
+  static final String HEADER = "Server-Timing";
+
+  private final List<PathPattern> excluded;
+
+  ServerTimingFilter(List<String> excludedPatterns) {
+    this.excluded =
+        excludedPatterns.stream().map(PathPatternParser.defaultInstance::parse).toList();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    PathContainer path =
+        PathContainer.parsePath(
+            request.getRequestURI().substring(request.getContextPath().length()));
+    return excluded.stream().anyMatch(pattern -> pattern.matches(path));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    RequestTimings timings = RequestTimings.start();
+    ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+    try {
+      filterChain.doFilter(request, buffered);
+    } finally {
+      RequestTimings.clear();
+      if (!response.isCommitted()) {
+        response.setHeader(HEADER, timings.toHeader());
+      }
+      buffered.copyBodyToResponse();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.circlesync.circlesync.shared.timing;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource that adds the time spent in each statement execution to the current request's
+ * {@link RequestTimings}. Connections are wrapped in a {@link TimingConnection}, whose statements
+ * time their executions with plain delegating calls; outside a timed request they only delegate.
+ */
+class TimingDataSource extends DelegatingDataSource {
+
+  private final int pool;
+
+  TimingDataSource(DataSource targetDataSource, int pool) {
+    super(targetDataSource);
+    this.pool = pool;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return new TimingConnection(super.getConnection(), pool);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return new TimingConnection(super.getConnection(username, password), pool);
+  }
+}
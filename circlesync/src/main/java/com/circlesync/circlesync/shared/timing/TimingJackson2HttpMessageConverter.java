@@ -0,0 +1,32 @@
+package com.circlesync.circlesync.shared.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/** Jackson converter that adds response serialization time to the current request's timings. */
+class TimingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+  TimingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+    super(objectMapper);
+  }
+
+  @Override
+  protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+      throws IOException, HttpMessageNotWritableException {
+    RequestTimings timings = RequestTimings.current();
+    if (timings == null) {
+      super.writeInternal(object, type, outputMessage);
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      super.writeInternal(object, type, outputMessage);
+    } finally {
+      timings.recordSerialization(System.nanoTime() - start);
+    }
+  }
+}
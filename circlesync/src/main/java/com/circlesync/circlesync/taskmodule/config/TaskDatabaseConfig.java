@@ -7,6 +7,7 @@ import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -74,4 +75,13 @@ public class TaskDatabaseConfig {
             @Qualifier("taskEntityManagerFactory") LocalContainerEntityManagerFactoryBean taskEntityManagerFactory) {
         return new JpaTransactionManager(taskEntityManagerFactory.getObject());
     }
+
+    /**
+     * JdbcTemplate for Task Module
+     * Used for DDL and set-based maintenance that falls outside JPA
+     */
+    @Bean(name = "taskJdbcTemplate")
+    public JdbcTemplate taskJdbcTemplate(@Qualifier("taskDataSource") DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
 }
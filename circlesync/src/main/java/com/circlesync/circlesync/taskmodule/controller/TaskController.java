@@ -1,21 +1,41 @@
 package com.circlesync.circlesync.taskmodule.controller;
 
+import com.circlesync.circlesync.shared.json.JsonStreams;
+import com.circlesync.circlesync.taskmodule.dto.AgendaResponse;
+import com.circlesync.circlesync.taskmodule.dto.BulkCompleteTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.BulkCompleteTaskResponse;
+import com.circlesync.circlesync.taskmodule.dto.CalendarBackfillResponse;
 import com.circlesync.circlesync.taskmodule.dto.CompleteTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.CompletionPageResponse;
 import com.circlesync.circlesync.taskmodule.dto.CreateTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.HeatmapResponse;
+import com.circlesync.circlesync.taskmodule.dto.LeaderboardResponse;
+import com.circlesync.circlesync.taskmodule.dto.StreakRecomputeResponse;
 import com.circlesync.circlesync.taskmodule.dto.StreakResponse;
 import com.circlesync.circlesync.taskmodule.dto.TaskCompletionResponse;
+import com.circlesync.circlesync.taskmodule.dto.TaskPageResponse;
 import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
 import com.circlesync.circlesync.taskmodule.dto.UpdateTaskRequest;
+import com.circlesync.circlesync.taskmodule.service.CompletionWriteBehind;
 import com.circlesync.circlesync.taskmodule.service.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST controller for task operations.
@@ -28,6 +48,8 @@ import org.springframework.web.bind.annotation.*;
 public class TaskController {
 
   private final TaskService taskService;
+  private final JsonStreams jsonStreams;
+  private final ObjectProvider<CompletionWriteBehind> completionWriteBehind;
 
   /**
    * Create a new task.
@@ -91,14 +113,20 @@ public class TaskController {
    * Get all tasks for a circle.
    *
    * @param id the circle ID
-   * @return list of task responses
+   * @return list of task responses, streamed as they are read
    */
   @GetMapping("/circle/{id}")
   @Operation(summary = "Get circle's tasks", description = "Get all tasks for a specific circle")
-  public ResponseEntity<List<TaskResponse>> getCircleTasks(@PathVariable String id) {
+  @ApiResponse(
+      responseCode = "200",
+      content =
+          @Content(
+              mediaType = "application/json",
+              array = @ArraySchema(schema = @Schema(implementation = TaskResponse.class))))
+  public ResponseEntity<StreamingResponseBody> getCircleTasks(@PathVariable String id) {
     log.info("GET /api/tasks/circle/{} - Fetching circle tasks", id);
-    List<TaskResponse> responses = taskService.getCircleTasks(id);
-    return ResponseEntity.ok(responses);
+    return jsonStreams.arrayOf(
+        TaskResponse.class, consumer -> taskService.streamCircleTasks(id, consumer));
   }
 
   /**
@@ -110,43 +138,155 @@ public class TaskController {
   @GetMapping("/circle/{id}/today")
   @Operation(
       summary = "Get today's tasks",
-      description = "Get tasks with due date today for a specific circle")
+      description = "Get tasks due today for a specific circle, including recurring habits")
   public ResponseEntity<List<TaskResponse>> getCircleTodayTasks(@PathVariable String id) {
     log.info("GET /api/tasks/circle/{}/today - Fetching today's tasks", id);
     List<TaskResponse> responses = taskService.getCircleTodayTasks(id);
     return ResponseEntity.ok(responses);
   }
 
+  /**
+   * Get a circle's agenda for a date range.
+   *
+   * @param id the circle ID
+   * @param from first day, defaults to the start of the current week
+   * @param to last day, defaults to six days after from
+   * @return the agenda response
+   */
+  @GetMapping("/circle/{id}/agenda")
+  @Operation(
+      summary = "Get circle agenda",
+      description = "Get the tasks due on each day of a date range, including recurring habits")
+  public ResponseEntity<AgendaResponse> getCircleAgenda(
+      @PathVariable String id,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate to) {
+    log.info("GET /api/tasks/circle/{}/agenda - Fetching agenda", id);
+    AgendaResponse response = taskService.getCircleAgenda(id, from, to);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Get a circle's points leaderboard.
+   *
+   * @param id the circle ID
+   * @param window the leaderboard window (daily, weekly or all-time)
+   * @param limit maximum number of entries
+   * @return the leaderboard response
+   */
+  @GetMapping("/circle/{id}/leaderboard")
+  @Operation(
+      summary = "Get circle leaderboard",
+      description = "Get the top members of a circle by task points for a time window")
+  public ResponseEntity<LeaderboardResponse> getCircleLeaderboard(
+      @PathVariable String id,
+      @RequestParam(defaultValue = "weekly") String window,
+      @RequestParam(required = false) Integer limit) {
+    log.info("GET /api/tasks/circle/{}/leaderboard - Fetching {} leaderboard", id, window);
+    LeaderboardResponse response = taskService.getCircleLeaderboard(id, window, limit);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Get tasks assigned to a user across all circles.
+   *
+   * @param userId the user ID
+   * @param status the task status
+   * @param circleId optional circle ID filter
+   * @param dueFrom optional earliest due date
+   * @param dueTo optional latest due date
+   * @param cursor cursor from the previous page
+   * @param limit page size
+   * @return the task page response
+   */
+  @GetMapping("/assigned/{userId}")
+  @Operation(
+      summary = "Get user's assigned tasks",
+      description = "Get a page of tasks assigned to a user across all circles, by due date")
+  public ResponseEntity<TaskPageResponse> getAssignedTasks(
+      @PathVariable String userId,
+      @RequestParam(defaultValue = "ACTIVE") String status,
+      @RequestParam(required = false) String circleId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate dueFrom,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate dueTo,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
+    log.info("GET /api/tasks/assigned/{} - Fetching assigned tasks", userId);
+    TaskPageResponse response =
+        taskService.getAssignedTasks(userId, status, circleId, dueFrom, dueTo, cursor, limit);
+    return ResponseEntity.ok(response);
+  }
+
   /**
    * Complete a task.
    *
    * @param id the task ID
    * @param request the complete task request
-   * @return the task completion response
+   * @return the task completion response, provisional (202) when write-behind ingestion is on
    */
   @PostMapping("/{id}/complete")
   @Operation(summary = "Complete task", description = "Mark a task as completed")
   public ResponseEntity<TaskCompletionResponse> completeTask(
       @PathVariable String id, @Valid @RequestBody CompleteTaskRequest request) {
     log.info("POST /api/tasks/{}/complete - Completing task", id);
+    CompletionWriteBehind writeBehind = completionWriteBehind.getIfAvailable();
+    if (writeBehind != null) {
+      TaskCompletionResponse provisional = writeBehind.accept(UUID.fromString(id), request);
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(provisional);
+    }
     TaskCompletionResponse response = taskService.completeTask(id, request);
     return ResponseEntity.status(HttpStatus.CREATED).body(response);
   }
 
+  /**
+   * Complete several tasks at once.
+   *
+   * @param request the bulk complete request
+   * @return one result per requested task
+   */
+  @PostMapping("/complete/bulk")
+  @Operation(
+      summary = "Complete tasks in bulk",
+      description = "Mark several tasks as completed for one user in a single request")
+  public ResponseEntity<BulkCompleteTaskResponse> completeTasks(
+      @Valid @RequestBody BulkCompleteTaskRequest request) {
+    log.info("POST /api/tasks/complete/bulk - Completing {} tasks", request.getTaskIds().size());
+    BulkCompleteTaskResponse response = taskService.completeTasks(request);
+    return ResponseEntity.ok(response);
+  }
+
   /**
    * Get completion history for a task.
    *
    * @param id the task ID
-   * @return list of task completion responses
+   * @param from optional first day of the range
+   * @param to optional last day of the range
+   * @param userId optional user ID filter
+   * @param cursor cursor from the previous page
+   * @param limit page size
+   * @return the completion page response
    */
   @GetMapping("/{id}/completions")
   @Operation(
       summary = "Get completion history",
-      description = "Get all completion records for a task")
-  public ResponseEntity<List<TaskCompletionResponse>> getTaskCompletions(@PathVariable String id) {
+      description = "Get a page of completion records for a task, newest first")
+  public ResponseEntity<CompletionPageResponse> getTaskCompletions(
+      @PathVariable String id,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate to,
+      @RequestParam(required = false) String userId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
     log.info("GET /api/tasks/{}/completions - Fetching completion history", id);
-    List<TaskCompletionResponse> responses = taskService.getTaskCompletions(id);
-    return ResponseEntity.ok(responses);
+    CompletionPageResponse response =
+        taskService.getTaskCompletions(id, from, to, userId, cursor, limit);
+    return ResponseEntity.ok(response);
   }
 
   /**
@@ -166,4 +306,76 @@ public class TaskController {
     StreakResponse response = taskService.getUserStreak(id, userId);
     return ResponseEntity.ok(response);
   }
+
+  /**
+   * Get user's completion heatmap for a task.
+   *
+   * @param id the task ID
+   * @param userId the user ID
+   * @param year the calendar year, defaults to the current year
+   * @return the heatmap response
+   */
+  @GetMapping("/{id}/heatmap/user/{userId}")
+  @Operation(
+      summary = "Get user's task heatmap",
+      description = "Get a user's day-by-day completions of a task for a year")
+  public ResponseEntity<HeatmapResponse> getUserHeatmap(
+      @PathVariable String id,
+      @PathVariable String userId,
+      @RequestParam(required = false) Integer year) {
+    log.info("GET /api/tasks/{}/heatmap/user/{} - Fetching user heatmap", id, userId);
+    HeatmapResponse response = taskService.getUserHeatmap(id, userId, year);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Get user's completion heatmap across a circle's tasks.
+   *
+   * @param id the circle ID
+   * @param userId the user ID
+   * @param year the calendar year, defaults to the current year
+   * @return the heatmap response
+   */
+  @GetMapping("/circle/{id}/heatmap/user/{userId}")
+  @Operation(
+      summary = "Get user's circle heatmap",
+      description = "Get a user's day-by-day completions across all tasks of a circle for a year")
+  public ResponseEntity<HeatmapResponse> getCircleHeatmap(
+      @PathVariable String id,
+      @PathVariable String userId,
+      @RequestParam(required = false) Integer year) {
+    log.info("GET /api/tasks/circle/{}/heatmap/user/{} - Fetching circle heatmap", id, userId);
+    HeatmapResponse response = taskService.getCircleHeatmap(id, userId, year);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Recompute all streaks from completion history.
+   *
+   * @return the recomputation summary
+   */
+  @PostMapping("/streaks/recompute")
+  @Operation(
+      summary = "Recompute all streaks",
+      description = "Rebuild current and longest streaks for every task and user from history")
+  public ResponseEntity<StreakRecomputeResponse> recomputeAllStreaks() {
+    log.info("POST /api/tasks/streaks/recompute - Recomputing all streaks");
+    StreakRecomputeResponse response = taskService.recomputeAllStreaks();
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Backfill completion calendars from completion history.
+   *
+   * @return the backfill summary
+   */
+  @PostMapping("/calendars/backfill")
+  @Operation(
+      summary = "Backfill completion calendars",
+      description = "Mark every recorded completion on the calendars behind the heatmaps")
+  public ResponseEntity<CalendarBackfillResponse> backfillCompletionCalendars() {
+    log.info("POST /api/tasks/calendars/backfill - Backfilling completion calendars");
+    CalendarBackfillResponse response = taskService.backfillCompletionCalendars();
+    return ResponseEntity.ok(response);
+  }
 }
@@ -0,0 +1,19 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for the tasks due on one day of an agenda.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaDayResponse {
+
+  private LocalDate date;
+  private List<TaskResponse> tasks;
+}
@@ -0,0 +1,22 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a circle's agenda over a date range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaResponse {
+
+  private UUID circleId;
+  private LocalDate from;
+  private LocalDate to;
+  private List<AgendaDayResponse> days;
+}
@@ -0,0 +1,31 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for completing several tasks at once for one user.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCompleteTaskRequest {
+
+  @NotNull(message = "User ID is required")
+  private UUID userId;
+
+  @NotEmpty(message = "At least one task ID is required")
+  @Size(max = 200, message = "At most 200 tasks can be completed at once")
+  private List<@NotNull UUID> taskIds;
+
+  private String notes;
+
+  private LocalDate date; // Optional, defaults to today in the task's circle
+}
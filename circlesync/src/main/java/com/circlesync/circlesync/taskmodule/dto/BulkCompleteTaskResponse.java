@@ -0,0 +1,22 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a bulk task completion, with one result per requested task.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCompleteTaskResponse {
+
+  private UUID userId;
+  private LocalDate date; // Null when defaulted dates differed between the tasks' circles
+  private Integer completed;
+  private List<BulkCompletionResult> results;
+}
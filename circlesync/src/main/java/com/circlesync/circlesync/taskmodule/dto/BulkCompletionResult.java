@@ -0,0 +1,19 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one task in a bulk completion: COMPLETED, ALREADY_COMPLETED or NOT_FOUND.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCompletionResult {
+
+  private UUID taskId;
+  private String status;
+  private TaskCompletionResponse completion;
+}
@@ -0,0 +1,18 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a completion calendar backfill.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarBackfillResponse {
+
+  private Integer calendarsUpdated;
+  private Integer years;
+  private Long durationMs;
+}
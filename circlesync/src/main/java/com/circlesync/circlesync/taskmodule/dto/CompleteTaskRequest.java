@@ -20,5 +20,5 @@ public class CompleteTaskRequest {
 
   private String notes;
 
-  private LocalDate date; // Optional, defaults to today if not provided
+  private LocalDate date; // Optional, defaults to today in the task's circle
 }
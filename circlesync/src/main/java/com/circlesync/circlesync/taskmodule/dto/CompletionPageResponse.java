@@ -0,0 +1,19 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for one page of completion history, newest first. Pass nextCursor back to fetch the
+ * following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompletionPageResponse {
+
+  private List<TaskCompletionResponse> items;
+  private String nextCursor;
+}
@@ -0,0 +1,26 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a user's yearly completion heatmap, for one task or rolled up over a circle.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatmapResponse {
+
+  private UUID taskId;
+  private UUID circleId;
+  private UUID userId;
+  private Integer year;
+  private List<Integer> days;
+  private Integer activeDays;
+  private Integer totalCompletions;
+  private Integer longestRun;
+  private Double completionRate;
+}
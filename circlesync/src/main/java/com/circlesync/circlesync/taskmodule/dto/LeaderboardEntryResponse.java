@@ -0,0 +1,19 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a single leaderboard position.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+
+  private Integer rank;
+  private UUID userId;
+  private Long points;
+}
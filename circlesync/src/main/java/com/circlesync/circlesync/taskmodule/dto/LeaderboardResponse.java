@@ -0,0 +1,22 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a circle's points leaderboard.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardResponse {
+
+  private UUID circleId;
+  private String window;
+  private LocalDate periodStart; // null for the all-time window
+  private List<LeaderboardEntryResponse> entries;
+}
@@ -0,0 +1,18 @@
+package com.circlesync.circlesync.taskmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a bulk streak recomputation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreakRecomputeResponse {
+
+  private Integer streaksUpdated;
+  private Integer partitions;
+  private Long durationMs;
+}
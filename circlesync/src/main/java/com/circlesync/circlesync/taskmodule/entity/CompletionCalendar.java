@@ -0,0 +1,50 @@
+package com.circlesync.circlesync.taskmodule.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+/**
+ * CompletionCalendar entity holding a user's completions of a task for one year as a day bitmap.
+ * Bit n (least significant bit first within each byte) is set when the task was completed on day
+ * n + 1 of the year.
+ */
+@Entity
+@Table(
+    name = "completion_calendars",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"task_id", "user_id", "year"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompletionCalendar {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.UUID)
+  @Column(name = "id", nullable = false)
+  private UUID id;
+
+  @NotNull(message = "Task ID is required")
+  @Column(name = "task_id", nullable = false)
+  private UUID taskId;
+
+  @NotNull(message = "User ID is required")
+  @Column(name = "user_id", nullable = false)
+  private UUID userId;
+
+  @NotNull(message = "Year is required")
+  @Column(name = "year", nullable = false)
+  private Integer year;
+
+  @NotNull(message = "Days are required")
+  @Column(name = "days", nullable = false)
+  private byte[] days;
+
+  @UpdateTimestamp
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+}
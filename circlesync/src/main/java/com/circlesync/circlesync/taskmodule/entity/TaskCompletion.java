@@ -14,7 +14,9 @@ import org.hibernate.annotations.CreationTimestamp;
  * TaskCompletion entity representing a completion record for a task.
  */
 @Entity
-@Table(name = "task_completions")
+@Table(
+    name = "task_completions",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"task_id", "user_id", "date"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,11 @@
+package com.circlesync.circlesync.taskmodule.exception;
+
+/**
+ * Exception thrown when the write-behind completion queue is full and callers should back off.
+ */
+public class CompletionBacklogFullException extends RuntimeException {
+
+  public CompletionBacklogFullException(String message) {
+    super(message);
+  }
+}
@@ -3,6 +3,7 @@ package com.circlesync.circlesync.taskmodule.mapper;
 import com.circlesync.circlesync.taskmodule.dto.CompleteTaskRequest;
 import com.circlesync.circlesync.taskmodule.dto.TaskCompletionResponse;
 import com.circlesync.circlesync.taskmodule.entity.TaskCompletion;
+import com.circlesync.circlesync.taskmodule.repository.InsertedCompletion;
 import java.util.UUID;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -34,4 +35,12 @@ public interface TaskCompletionMapper {
    * @return the task completion response
    */
   TaskCompletionResponse toResponse(TaskCompletion taskCompletion);
+
+  /**
+   * Convert a freshly inserted completion to TaskCompletionResponse.
+   *
+   * @param completion the inserted completion
+   * @return the task completion response
+   */
+  TaskCompletionResponse toResponse(InsertedCompletion completion);
 }
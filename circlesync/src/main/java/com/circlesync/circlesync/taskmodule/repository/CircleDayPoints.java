@@ -0,0 +1,18 @@
+package com.circlesync.circlesync.taskmodule.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Projection of a user's points in a circle on one day.
+ */
+public interface CircleDayPoints {
+
+  UUID getCircleId();
+
+  UUID getUserId();
+
+  LocalDate getDate();
+
+  Long getPoints();
+}
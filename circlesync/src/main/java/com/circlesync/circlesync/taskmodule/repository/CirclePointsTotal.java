@@ -0,0 +1,15 @@
+package com.circlesync.circlesync.taskmodule.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection of a user's all-time points in a circle.
+ */
+public interface CirclePointsTotal {
+
+  UUID getCircleId();
+
+  UUID getUserId();
+
+  Long getAllTimePoints();
+}
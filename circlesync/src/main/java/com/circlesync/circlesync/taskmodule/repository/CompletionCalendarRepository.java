@@ -0,0 +1,170 @@
+package com.circlesync.circlesync.taskmodule.repository;
+
+import com.circlesync.circlesync.taskmodule.entity.CompletionCalendar;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for CompletionCalendar entity.
+ */
+@Repository
+public interface CompletionCalendarRepository extends JpaRepository<CompletionCalendar, UUID> {
+
+  /**
+   * Find a user's calendar for a task and year.
+   *
+   * @param taskId the task ID
+   * @param userId the user ID
+   * @param year the calendar year
+   * @return optional calendar
+   */
+  Optional<CompletionCalendar> findByTaskIdAndUserIdAndYear(UUID taskId, UUID userId, int year);
+
+  /**
+   * Find the day bitmaps of a user's calendars for every task in a circle.
+   *
+   * @param circleId the circle ID
+   * @param userId the user ID
+   * @param year the calendar year
+   * @return one bitmap per task the user completed that year
+   */
+  @Query(
+      "SELECT c.days FROM CompletionCalendar c WHERE c.userId = :userId AND c.year = :year"
+          + " AND c.taskId IN (SELECT t.id FROM Task t WHERE t.circleId = :circleId"
+          + " AND t.status <> 'DELETED')")
+  List<byte[]> findDaysByCircleIdAndUserIdAndYear(
+      @Param("circleId") UUID circleId, @Param("userId") UUID userId, @Param("year") int year);
+
+  /**
+   * Set the bit for a completion day, creating the year's calendar on first use. Setting a bit is
+   * idempotent, so replays and duplicates are harmless.
+   *
+   * @param taskId the task ID
+   * @param userId the user ID
+   * @param year the calendar year
+   * @param day zero-based day of the year
+   * @return number of rows inserted or updated
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO completion_calendars (task_id, user_id, year, days, updated_at)"
+              + " VALUES (:taskId, :userId, :year,"
+              + " set_bit(decode(repeat('00', 46), 'hex'), :day, 1), CURRENT_TIMESTAMP)"
+              + " ON CONFLICT (task_id, user_id, year) DO UPDATE"
+              + " SET days = set_bit(completion_calendars.days, :day, 1),"
+              + " updated_at = CURRENT_TIMESTAMP",
+      nativeQuery = true)
+  int markDay(
+      @Param("taskId") UUID taskId,
+      @Param("userId") UUID userId,
+      @Param("year") int year,
+      @Param("day") int day);
+
+  /**
+   * Batched form of {@link #markDay} for one user and day across several tasks.
+   *
+   * @param taskIds the task IDs
+   * @param userId the user ID
+   * @param year the calendar year
+   * @param day zero-based day of the year
+   * @return number of rows inserted or updated
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO completion_calendars (task_id, user_id, year, days, updated_at)"
+              + " SELECT t.id, :userId, :year,"
+              + " set_bit(decode(repeat('00', 46), 'hex'), :day, 1), CURRENT_TIMESTAMP"
+              + " FROM tasks t WHERE t.id IN (:taskIds) AND t.status <> 'DELETED'"
+              + " ON CONFLICT (task_id, user_id, year) DO UPDATE"
+              + " SET days = set_bit(completion_calendars.days, :day, 1),"
+              + " updated_at = CURRENT_TIMESTAMP",
+      nativeQuery = true)
+  int markDayForAll(
+      @Param("taskIds") Collection<UUID> taskIds,
+      @Param("userId") UUID userId,
+      @Param("year") int year,
+      @Param("day") int day);
+
+  /**
+   * Merge a year of task_completions into the calendars, creating missing ones. Bits already set
+   * are kept, so running it again, or alongside live completions, never clears a day.
+   *
+   * @param year the calendar year
+   * @param from January 1st of the year
+   * @param to January 1st of the following year
+   * @return number of calendars inserted or updated
+   */
+  @Modifying
+  @Query(
+      value =
+          "WITH day_numbers AS (SELECT tc.task_id, tc.user_id,"
+              + " tc.date - CAST(:from AS DATE) AS day"
+              + " FROM task_completions tc JOIN tasks t ON t.id = tc.task_id"
+              + " WHERE tc.date >= :from AND tc.date < :to AND t.status <> 'DELETED'),"
+              + " day_bytes AS (SELECT d.task_id, d.user_id, d.day / 8 AS idx,"
+              + " bit_or(1 << (d.day % 8)) AS val FROM day_numbers d"
+              + " GROUP BY d.task_id, d.user_id, d.day / 8),"
+              + " calendars AS (SELECT p.task_id, p.user_id,"
+              + " decode(string_agg(lpad(to_hex(COALESCE(b.val, 0)), 2, '0'), ''"
+              + " ORDER BY i.idx), 'hex') AS days"
+              + " FROM (SELECT DISTINCT task_id, user_id FROM day_bytes) p"
+              + " CROSS JOIN generate_series(0, 45) AS i(idx)"
+              + " LEFT JOIN day_bytes b ON b.task_id = p.task_id AND b.user_id = p.user_id"
+              + " AND b.idx = i.idx"
+              + " GROUP BY p.task_id, p.user_id)"
+              + " INSERT INTO completion_calendars (task_id, user_id, year, days, updated_at)"
+              + " SELECT c.task_id, c.user_id, :year, c.days, CURRENT_TIMESTAMP FROM calendars c"
+              + " ON CONFLICT (task_id, user_id, year) DO UPDATE"
+              + " SET days = (SELECT decode(string_agg(lpad(to_hex("
+              + "get_byte(completion_calendars.days, i) | get_byte(EXCLUDED.days, i)), 2, '0'),"
+              + " '' ORDER BY i), 'hex') FROM generate_series(0, 45) AS i),"
+              + " updated_at = CURRENT_TIMESTAMP",
+      nativeQuery = true)
+  int backfillYear(
+      @Param("year") int year, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  /**
+   * Find the year of the earliest completion.
+   *
+   * @return the year, or null without completions
+   */
+  @Query(
+      value = "SELECT CAST(EXTRACT(YEAR FROM MIN(tc.date)) AS INT) FROM task_completions tc",
+      nativeQuery = true)
+  Integer findFirstCompletionYear();
+
+  /**
+   * Find the year of the latest completion.
+   *
+   * @return the year, or null without completions
+   */
+  @Query(
+      value = "SELECT CAST(EXTRACT(YEAR FROM MAX(tc.date)) AS INT) FROM task_completions tc",
+      nativeQuery = true)
+  Integer findLastCompletionYear();
+
+  /**
+   * Delete up to {@code limit} calendars of a task, keeping each purge transaction short.
+   *
+   * @param taskId the task ID
+   * @param limit maximum number of rows to delete
+   * @return number of rows deleted
+   */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM completion_calendars WHERE id IN"
+              + " (SELECT id FROM completion_calendars WHERE task_id = :taskId LIMIT :limit)",
+      nativeQuery = true)
+  int deleteBatchByTaskId(@Param("taskId") UUID taskId, @Param("limit") int limit);
+}
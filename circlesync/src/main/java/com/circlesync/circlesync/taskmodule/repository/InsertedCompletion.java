@@ -0,0 +1,27 @@
+package com.circlesync.circlesync.taskmodule.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection of a freshly inserted completion, together with the circle and points of its task.
+ */
+public interface InsertedCompletion {
+
+  UUID getId();
+
+  UUID getTaskId();
+
+  UUID getUserId();
+
+  LocalDateTime getCompletedAt();
+
+  String getNotes();
+
+  LocalDate getDate();
+
+  UUID getCircleId();
+
+  Integer getPoints();
+}
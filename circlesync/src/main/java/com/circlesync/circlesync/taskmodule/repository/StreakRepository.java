@@ -1,10 +1,16 @@
 package com.circlesync.circlesync.taskmodule.repository;
 
 import com.circlesync.circlesync.taskmodule.entity.Streak;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -47,6 +53,193 @@ public interface StreakRepository extends JpaRepository<Streak, UUID> {
    */
   boolean existsByTaskIdAndUserId(UUID taskId, UUID userId);
 
+  /**
+   * Recompute a streak around a completion date using gaps-and-islands over the completion
+   * history. Only completions within {@code longest_streak + 1} days of the date are read: the
+   * island containing the date is made of at most one island on each side, and neither can be
+   * longer than the stored longest streak. The current streak is replaced only when the island
+   * reaches the last completed date, so backdated completions never move it backwards. An island
+   * starting the day after the archived streak tail continues the run archived with it.
+   *
+   * @param taskId the task ID
+   * @param userId the user ID
+   * @param date the completion date
+   * @return number of rows inserted or updated
+   */
+  @Modifying
+  @Query(
+      value =
+          "WITH prev AS (SELECT longest_streak FROM streaks"
+              + " WHERE task_id = :taskId AND user_id = :userId),"
+              + " ordered AS (SELECT tc.date,"
+              + " tc.date - CAST(ROW_NUMBER() OVER (ORDER BY tc.date) AS INT) AS grp"
+              + " FROM task_completions tc WHERE tc.task_id = :taskId AND tc.user_id = :userId"
+              + " AND tc.date BETWEEN"
+              + " CAST(:date AS DATE) - (COALESCE((SELECT longest_streak FROM prev), 0) + 1)"
+              + " AND CAST(:date AS DATE) + (COALESCE((SELECT longest_streak FROM prev), 0) + 1)),"
+              + " island AS (SELECT COUNT(*) AS len, MIN(o.date) AS first_day,"
+              + " MAX(o.date) AS last_day FROM ordered o"
+              + " WHERE o.grp = (SELECT a.grp FROM ordered a WHERE a.date = :date)),"
+              + " streak AS (SELECT i.len + COALESCE(t.length, 0) AS len, i.last_day FROM island i"
+              + " LEFT JOIN archived_streak_tails t ON t.task_id = :taskId AND t.user_id = :userId"
+              + " AND t.last_day = i.first_day - 1 WHERE i.len > 0)"
+              + " INSERT INTO streaks (task_id, user_id, current_streak, longest_streak,"
+              + " last_completed_date, updated_at)"
+              + " SELECT :taskId, :userId, s.len, s.len, s.last_day, CURRENT_TIMESTAMP"
+              + " FROM streak s"
+              + " ON CONFLICT (task_id, user_id) DO UPDATE SET"
+              + " current_streak = CASE WHEN streaks.last_completed_date IS NULL"
+              + " OR EXCLUDED.last_completed_date >= streaks.last_completed_date"
+              + " THEN EXCLUDED.current_streak ELSE streaks.current_streak END,"
+              + " longest_streak = GREATEST(streaks.longest_streak, EXCLUDED.longest_streak),"
+              + " last_completed_date ="
+              + " GREATEST(streaks.last_completed_date, EXCLUDED.last_completed_date),"
+              + " updated_at = EXCLUDED.updated_at",
+      nativeQuery = true)
+  int recomputeAround(
+      @Param("taskId") UUID taskId, @Param("userId") UUID userId, @Param("date") LocalDate date);
+
+  /**
+   * Batched form of {@link #recomputeAround} for one user and date across several tasks, in a
+   * single statement. Each task reads only the completions within its own stored longest streak
+   * of the date, and continues the archived streak tail like the single-task form.
+   *
+   * @param taskIds the task IDs
+   * @param userId the user ID
+   * @param date the completion date
+   * @return number of rows inserted or updated
+   */
+  @Modifying
+  @Query(
+      value =
+          "WITH prev AS (SELECT t.id AS task_id, COALESCE(s.longest_streak, 0) + 1 AS reach"
+              + " FROM tasks t LEFT JOIN streaks s ON s.task_id = t.id AND s.user_id = :userId"
+              + " WHERE t.id IN (:taskIds)),"
+              + " ordered AS (SELECT tc.task_id, tc.date,"
+              + " tc.date - CAST(ROW_NUMBER() OVER (PARTITION BY tc.task_id ORDER BY tc.date)"
+              + " AS INT) AS grp"
+              + " FROM task_completions tc JOIN prev p ON p.task_id = tc.task_id"
+              + " WHERE tc.user_id = :userId"
+              + " AND tc.date BETWEEN CAST(:date AS DATE) - p.reach"
+              + " AND CAST(:date AS DATE) + p.reach),"
+              + " anchor AS (SELECT task_id, grp FROM ordered WHERE date = :date),"
+              + " island AS (SELECT o.task_id, COUNT(*) AS len, MIN(o.date) AS first_day,"
+              + " MAX(o.date) AS last_day"
+              + " FROM ordered o JOIN anchor a ON a.task_id = o.task_id AND a.grp = o.grp"
+              + " GROUP BY o.task_id),"
+              + " streak AS (SELECT i.task_id, i.len + COALESCE(t.length, 0) AS len, i.last_day"
+              + " FROM island i LEFT JOIN archived_streak_tails t ON t.task_id = i.task_id"
+              + " AND t.user_id = :userId AND t.last_day = i.first_day - 1)"
+              + " INSERT INTO streaks (task_id, user_id, current_streak, longest_streak,"
+              + " last_completed_date, updated_at)"
+              + " SELECT s.task_id, :userId, s.len, s.len, s.last_day, CURRENT_TIMESTAMP"
+              + " FROM streak s"
+              + " ON CONFLICT (task_id, user_id) DO UPDATE SET"
+              + " current_streak = CASE WHEN streaks.last_completed_date IS NULL"
+              + " OR EXCLUDED.last_completed_date >= streaks.last_completed_date"
+              + " THEN EXCLUDED.current_streak ELSE streaks.current_streak END,"
+              + " longest_streak = GREATEST(streaks.longest_streak, EXCLUDED.longest_streak),"
+              + " last_completed_date ="
+              + " GREATEST(streaks.last_completed_date, EXCLUDED.last_completed_date),"
+              + " updated_at = EXCLUDED.updated_at",
+      nativeQuery = true)
+  int recomputeAroundAll(
+      @Param("taskIds") Collection<UUID> taskIds,
+      @Param("userId") UUID userId,
+      @Param("date") LocalDate date);
+
+  /**
+   * Recompute current and longest streaks from scratch for every (task, user) pair whose task ID
+   * hashes into the given partition. Rows whose values do not change are left untouched. The
+   * first island after a pair's archived streak tail continues it; the longest streak is never
+   * lowered, since islands wholly inside archived months are not stored anywhere.
+   *
+   * @param partition the partition to recompute, from 0 to {@code partitions - 1}
+   * @param partitions the total number of partitions
+   * @return number of rows inserted or updated
+   */
+  @Modifying
+  @Query(
+      value =
+          "WITH ordered AS (SELECT tc.task_id, tc.user_id, tc.date,"
+              + " tc.date - CAST(ROW_NUMBER() OVER (PARTITION BY tc.task_id, tc.user_id"
+              + " ORDER BY tc.date) AS INT) AS grp"
+              + " FROM task_completions tc"
+              + " WHERE MOD(hashtext(CAST(tc.task_id AS TEXT)) & 2147483647, :partitions)"
+              + " = :partition),"
+              + " runs AS (SELECT task_id, user_id, COUNT(*) AS len, MIN(date) AS first_day,"
+              + " MAX(date) AS last_day FROM ordered GROUP BY task_id, user_id, grp),"
+              + " islands AS (SELECT r.task_id, r.user_id, r.len + COALESCE(t.length, 0) AS len,"
+              + " r.last_day FROM runs r LEFT JOIN archived_streak_tails t"
+              + " ON t.task_id = r.task_id AND t.user_id = r.user_id"
+              + " AND t.last_day = r.first_day - 1),"
+              + " summary AS (SELECT task_id, user_id, MAX(len) AS longest,"
+              + " MAX(last_day) AS last_day,"
+              + " (ARRAY_AGG(len ORDER BY last_day DESC))[1] AS current_len"
+              + " FROM islands GROUP BY task_id, user_id)"
+              + " INSERT INTO streaks (task_id, user_id, current_streak, longest_streak,"
+              + " last_completed_date, updated_at)"
+              + " SELECT task_id, user_id, current_len, longest, last_day, CURRENT_TIMESTAMP"
+              + " FROM summary"
+              + " ON CONFLICT (task_id, user_id) DO UPDATE SET"
+              + " current_streak = EXCLUDED.current_streak,"
+              + " longest_streak = GREATEST(streaks.longest_streak, EXCLUDED.longest_streak),"
+              + " last_completed_date = EXCLUDED.last_completed_date,"
+              + " updated_at = EXCLUDED.updated_at"
+              + " WHERE streaks.current_streak <> EXCLUDED.current_streak"
+              + " OR streaks.longest_streak < EXCLUDED.longest_streak"
+              + " OR streaks.last_completed_date IS DISTINCT FROM EXCLUDED.last_completed_date",
+      nativeQuery = true)
+  int recomputePartition(@Param("partition") int partition, @Param("partitions") int partitions);
+
+  /**
+   * Find a page of the circles with a running streak whose last completion is older than the
+   * cutoff, in circle ID order. Served by the partial index on last_completed_date for streaks that
+   * are still running.
+   *
+   * @param cutoff the earliest last completed date that keeps a streak alive
+   * @param after the last circle ID of the previous page, or the nil UUID for the first page
+   * @param limit the page size
+   * @return the circle IDs of the tasks of those streaks
+   */
+  @Query(
+      value =
+          "SELECT DISTINCT t.circle_id FROM streaks s JOIN tasks t ON t.id = s.task_id"
+              + " WHERE s.current_streak > 0 AND s.last_completed_date < :cutoff"
+              + " AND t.circle_id > :after ORDER BY t.circle_id LIMIT :limit",
+      nativeQuery = true)
+  List<UUID> findCircleIdsWithStreaksBefore(
+      @Param("cutoff") LocalDate cutoff, @Param("after") UUID after, @Param("limit") int limit);
+
+  /**
+   * Claim a run of a scheduled job for a time slot. Only the first node to claim a slot gets a
+   * row back; the claim is part of the surrounding transaction, so a failed run releases it.
+   *
+   * @param job the job name
+   * @param slot the start of the slot, in UTC
+   * @return 1 if this call claimed the slot, 0 if it was already claimed
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO scheduled_runs (job, last_slot) VALUES (:job, :slot)"
+              + " ON CONFLICT (job) DO UPDATE SET last_slot = EXCLUDED.last_slot"
+              + " WHERE scheduled_runs.last_slot < EXCLUDED.last_slot",
+      nativeQuery = true)
+  int claimScheduledRun(@Param("job") String job, @Param("slot") LocalDateTime slot);
+
+  /**
+   * Find a user's streaks together with the circle of each streak's task, leaving out streaks of
+   * soft-deleted tasks.
+   *
+   * @param userId the user ID
+   * @return pairs of streak and circle ID
+   */
+  @Query(
+      "SELECT s, t.circleId FROM Streak s, Task t"
+          + " WHERE t.id = s.taskId AND s.userId = :userId AND t.status <> 'DELETED'")
+  List<Object[]> findWithCircleIdByUserId(@Param("userId") UUID userId);
+
   /**
    * Delete all streaks for a task.
    *
@@ -54,6 +247,21 @@ public interface StreakRepository extends JpaRepository<Streak, UUID> {
    */
   void deleteByTaskId(UUID taskId);
 
+  /**
+   * Delete up to {@code limit} streaks of a task, keeping each purge transaction short.
+   *
+   * @param taskId the task ID
+   * @param limit maximum number of rows to delete
+   * @return number of rows deleted
+   */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM streaks WHERE id IN"
+              + " (SELECT id FROM streaks WHERE task_id = :taskId LIMIT :limit)",
+      nativeQuery = true)
+  int deleteBatchByTaskId(@Param("taskId") UUID taskId, @Param("limit") int limit);
+
   /**
    * Delete streak by task ID and user ID.
    *
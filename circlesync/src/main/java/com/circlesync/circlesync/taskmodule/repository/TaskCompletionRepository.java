@@ -2,10 +2,12 @@ package com.circlesync.circlesync.taskmodule.repository;
 
 import com.circlesync.circlesync.taskmodule.entity.TaskCompletion;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -52,7 +54,8 @@ public interface TaskCompletionRepository extends JpaRepository<TaskCompletion,
   Optional<TaskCompletion> findByTaskIdAndUserIdAndDate(UUID taskId, UUID userId, LocalDate date);
 
   /**
-   * Check if a task was completed by a user on a specific date.
+   * Check if a task was completed by a user on a specific date. The date equality lets Postgres
+   * prune the scan to a single monthly partition.
    *
    * @param taskId the task ID
    * @param userId the user ID
@@ -61,6 +64,86 @@ public interface TaskCompletionRepository extends JpaRepository<TaskCompletion,
    */
   boolean existsByTaskIdAndUserIdAndDate(UUID taskId, UUID userId, LocalDate date);
 
+  /**
+   * Insert a completion unless the user already completed the task on that date. The row is only
+   * written when the task exists and the date's month has been neither archived nor detached, so
+   * an empty result means a duplicate, an unknown task or a month that is no longer live.
+   *
+   * @param taskId the task ID
+   * @param userId the user ID
+   * @param notes optional notes
+   * @param date the completion date
+   * @return the inserted completion with its task's circle and points, or empty if nothing was
+   *     inserted
+   */
+  @Query(
+      value =
+          "WITH ins AS (INSERT INTO task_completions (task_id, user_id, notes, date)"
+              + " SELECT t.id, :userId, CAST(:notes AS TEXT), :date FROM tasks t"
+              + " WHERE t.id = :taskId AND t.status <> 'DELETED'"
+              + " AND NOT EXISTS (SELECT 1 FROM completion_segments s"
+              + " WHERE s.month = CAST(date_trunc('month', CAST(:date AS DATE)) AS DATE))"
+              + " AND NOT EXISTS (SELECT 1 FROM pg_class c WHERE c.relkind = 'r'"
+              + " AND NOT c.relispartition AND c.relname ="
+              + " 'task_completions_' || to_char(CAST(:date AS DATE), '\"y\"YYYY\"m\"MM'))"
+              + " ON CONFLICT (task_id, user_id, date) DO NOTHING"
+              + " RETURNING id, task_id, user_id, completed_at, notes, date)"
+              + " SELECT ins.id AS \"id\", ins.task_id AS \"taskId\", ins.user_id AS \"userId\","
+              + " ins.completed_at AS \"completedAt\", ins.notes AS \"notes\","
+              + " ins.date AS \"date\", t.circle_id AS \"circleId\", t.points AS \"points\""
+              + " FROM ins JOIN tasks t ON t.id = ins.task_id",
+      nativeQuery = true)
+  Optional<InsertedCompletion> insertIfAbsent(
+      @Param("taskId") UUID taskId,
+      @Param("userId") UUID userId,
+      @Param("notes") String notes,
+      @Param("date") LocalDate date);
+
+  /**
+   * Insert one completion per task in a single statement, skipping tasks the user already
+   * completed on that date and task IDs that do not exist. Nothing is inserted when the date's
+   * month has been archived or its partition detached.
+   *
+   * @param taskIds the task IDs
+   * @param userId the user ID
+   * @param notes optional notes
+   * @param date the completion date
+   * @return the inserted completions with their task's circle and points
+   */
+  @Query(
+      value =
+          "WITH ins AS (INSERT INTO task_completions (task_id, user_id, notes, date)"
+              + " SELECT t.id, :userId, CAST(:notes AS TEXT), :date FROM tasks t"
+              + " WHERE t.id IN (:taskIds) AND t.status <> 'DELETED'"
+              + " AND NOT EXISTS (SELECT 1 FROM completion_segments s"
+              + " WHERE s.month = CAST(date_trunc('month', CAST(:date AS DATE)) AS DATE))"
+              + " AND NOT EXISTS (SELECT 1 FROM pg_class c WHERE c.relkind = 'r'"
+              + " AND NOT c.relispartition AND c.relname ="
+              + " 'task_completions_' || to_char(CAST(:date AS DATE), '\"y\"YYYY\"m\"MM'))"
+              + " ON CONFLICT (task_id, user_id, date) DO NOTHING"
+              + " RETURNING id, task_id, user_id, completed_at, notes, date)"
+              + " SELECT ins.id AS \"id\", ins.task_id AS \"taskId\", ins.user_id AS \"userId\","
+              + " ins.completed_at AS \"completedAt\", ins.notes AS \"notes\","
+              + " ins.date AS \"date\", t.circle_id AS \"circleId\", t.points AS \"points\""
+              + " FROM ins JOIN tasks t ON t.id = ins.task_id",
+      nativeQuery = true)
+  List<InsertedCompletion> insertAllIfAbsent(
+      @Param("taskIds") Collection<UUID> taskIds,
+      @Param("userId") UUID userId,
+      @Param("notes") String notes,
+      @Param("date") LocalDate date);
+
+  /**
+   * Find a user's completions of several tasks on a date.
+   *
+   * @param taskIds the task IDs
+   * @param userId the user ID
+   * @param date the date
+   * @return list of completions
+   */
+  List<TaskCompletion> findByTaskIdInAndUserIdAndDate(
+      Collection<UUID> taskIds, UUID userId, LocalDate date);
+
   /**
    * Count completions for a task by a user.
    *
@@ -70,6 +153,51 @@ public interface TaskCompletionRepository extends JpaRepository<TaskCompletion,
    */
   long countByTaskIdAndUserId(UUID taskId, UUID userId);
 
+  /**
+   * Sum task points per circle and user over all completions, for the all-time leaderboards.
+   * Completions archived out of Postgres count through the per-task totals kept when archiving.
+   *
+   * @return one row per circle and user with points
+   */
+  @Query(
+      value =
+          "SELECT t.circle_id AS \"circleId\", c.user_id AS \"userId\","
+              + " CAST(SUM(t.points * c.completions) AS BIGINT) AS \"allTimePoints\""
+              + " FROM (SELECT task_id, user_id, COUNT(*) AS completions FROM task_completions"
+              + " GROUP BY task_id, user_id"
+              + " UNION ALL SELECT task_id, user_id, completions FROM archived_completion_counts) c"
+              + " JOIN tasks t ON t.id = c.task_id"
+              + " WHERE t.points > 0 AND t.status <> 'DELETED'"
+              + " GROUP BY t.circle_id, c.user_id",
+      nativeQuery = true)
+  List<CirclePointsTotal> sumPointsByCircleAndUser();
+
+  /**
+   * Sum task points per circle, user and day from a date on, for the daily and weekly
+   * leaderboards. The caller picks each circle's windows from the days in its own time zone.
+   *
+   * @param since the first day to sum
+   * @return one row per circle, user and day with points
+   */
+  @Query(
+      value =
+          "SELECT t.circle_id AS \"circleId\", tc.user_id AS \"userId\", tc.date AS \"date\","
+              + " SUM(t.points) AS \"points\""
+              + " FROM task_completions tc JOIN tasks t ON t.id = tc.task_id"
+              + " WHERE tc.date >= :since AND t.points > 0 AND t.status <> 'DELETED'"
+              + " GROUP BY t.circle_id, tc.user_id, tc.date",
+      nativeQuery = true)
+  List<CircleDayPoints> sumPointsByCircleUserAndDaySince(@Param("since") LocalDate since);
+
+  /**
+   * Find which of the given completion IDs exist.
+   *
+   * @param ids the completion IDs
+   * @return the IDs that exist
+   */
+  @Query(value = "SELECT tc.id FROM task_completions tc WHERE tc.id IN (:ids)", nativeQuery = true)
+  List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
   /**
    * Delete all completions for a task.
    *
@@ -78,7 +206,59 @@ public interface TaskCompletionRepository extends JpaRepository<TaskCompletion,
   void deleteByTaskId(UUID taskId);
 
   /**
-   * Find completions for a task within a date range.
+   * Delete up to {@code limit} completions of a task, keeping each purge transaction short.
+   *
+   * @param taskId the task ID
+   * @param limit maximum number of rows to delete
+   * @return number of rows deleted
+   */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM task_completions tc USING (SELECT id, date FROM task_completions"
+              + " WHERE task_id = :taskId LIMIT :limit) batch"
+              + " WHERE tc.id = batch.id AND tc.date = batch.date",
+      nativeQuery = true)
+  int deleteBatchByTaskId(@Param("taskId") UUID taskId, @Param("limit") int limit);
+
+  /**
+   * Find one page of a task's completions within a date range, newest first, ordered by date and
+   * then ID. Served by the (task_id, date, id) index and pruned to the months in range. The user
+   * filter and keyset cursor are passed as text so unset values bind as null.
+   *
+   * @param taskId the task ID
+   * @param userId optional user ID filter
+   * @param startDate start date
+   * @param endDate end date
+   * @param beforeDate date of the last completion on the previous page (ISO date), or null
+   * @param beforeId ID of the last completion on the previous page, or null
+   * @param limit maximum number of completions
+   * @return list of completions
+   */
+  @Query(
+      value =
+          "SELECT * FROM task_completions tc WHERE tc.task_id = :taskId"
+              + " AND (CAST(:userId AS TEXT) IS NULL"
+              + " OR tc.user_id = CAST(CAST(:userId AS TEXT) AS uuid))"
+              + " AND tc.date BETWEEN :startDate AND :endDate"
+              + " AND (CAST(:beforeId AS TEXT) IS NULL"
+              + " OR (tc.date, tc.id) < (CAST(CAST(:beforeDate AS TEXT) AS DATE),"
+              + " CAST(CAST(:beforeId AS TEXT) AS uuid)))"
+              + " ORDER BY tc.date DESC, tc.id DESC"
+              + " LIMIT :limit",
+      nativeQuery = true)
+  List<TaskCompletion> findPageByTaskIdAndDateBetween(
+      @Param("taskId") UUID taskId,
+      @Param("userId") String userId,
+      @Param("startDate") LocalDate startDate,
+      @Param("endDate") LocalDate endDate,
+      @Param("beforeDate") String beforeDate,
+      @Param("beforeId") String beforeId,
+      @Param("limit") int limit);
+
+  /**
+   * Find completions for a task within a date range. Only the monthly partitions overlapping the
+   * range are scanned.
    *
    * @param taskId the task ID
    * @param startDate start date
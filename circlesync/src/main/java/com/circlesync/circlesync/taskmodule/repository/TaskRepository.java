@@ -1,12 +1,18 @@
 package com.circlesync.circlesync.taskmodule.repository;
 
 import com.circlesync.circlesync.taskmodule.entity.Task;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -33,6 +39,29 @@ public interface TaskRepository extends JpaRepository<Task, UUID> {
    */
   List<Task> findByCircleIdAndStatus(UUID circleId, String status);
 
+  /**
+   * Stream tasks by circle ID and status, fetching rows from the cursor in batches. The stream
+   * must be consumed and closed inside a transaction.
+   *
+   * @param circleId the circle ID
+   * @param status the task status
+   * @return stream of read-only tasks
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  Stream<Task> streamByCircleIdAndStatus(UUID circleId, String status);
+
+  /**
+   * Find the active tasks of several circles in one query.
+   *
+   * @param circleIds the circle IDs
+   * @return list of tasks
+   */
+  @Query("SELECT t FROM Task t WHERE t.circleId IN :circleIds AND t.status = 'ACTIVE'")
+  List<Task> findActiveByCircleIdIn(@Param("circleIds") Collection<UUID> circleIds);
+
   /**
    * Find tasks by circle ID with due date today.
    *
@@ -68,9 +97,52 @@ public interface TaskRepository extends JpaRepository<Task, UUID> {
    * @param userId the user ID
    * @return list of tasks
    */
-  @Query(value = "SELECT * FROM tasks WHERE :userId = ANY(assigned_to)", nativeQuery = true)
+  @Query(
+      value = "SELECT * FROM tasks WHERE assigned_to @> ARRAY[CAST(:userId AS uuid)]",
+      nativeQuery = true)
   List<Task> findByAssignedToContaining(@Param("userId") UUID userId);
 
+  /**
+   * Find one page of the tasks assigned to a user across all circles, ordered by due date (tasks
+   * without one last) and then ID. Containment on assigned_to is served by the GIN index; the
+   * optional filters and the keyset cursor are passed as text so unset values bind as null.
+   *
+   * @param userId the user ID
+   * @param status the task status
+   * @param circleId optional circle ID filter
+   * @param dueFrom optional earliest due date (ISO date)
+   * @param dueTo optional latest due date (ISO date)
+   * @param afterDue sort key of the last task on the previous page (ISO date), or null
+   * @param afterId ID of the last task on the previous page, or null
+   * @param limit maximum number of tasks
+   * @return list of tasks
+   */
+  @Query(
+      value =
+          "SELECT * FROM tasks t WHERE t.assigned_to @> ARRAY[CAST(:userId AS uuid)]"
+              + " AND t.status = :status AND t.status <> 'DELETED'"
+              + " AND (CAST(:circleId AS TEXT) IS NULL"
+              + " OR t.circle_id = CAST(CAST(:circleId AS TEXT) AS uuid))"
+              + " AND (CAST(:dueFrom AS TEXT) IS NULL"
+              + " OR t.due_date >= CAST(CAST(:dueFrom AS TEXT) AS DATE))"
+              + " AND (CAST(:dueTo AS TEXT) IS NULL"
+              + " OR t.due_date <= CAST(CAST(:dueTo AS TEXT) AS DATE))"
+              + " AND (CAST(:afterId AS TEXT) IS NULL"
+              + " OR (COALESCE(t.due_date, DATE '9999-12-31'), t.id)"
+              + " > (CAST(CAST(:afterDue AS TEXT) AS DATE), CAST(CAST(:afterId AS TEXT) AS uuid)))"
+              + " ORDER BY COALESCE(t.due_date, DATE '9999-12-31'), t.id"
+              + " LIMIT :limit",
+      nativeQuery = true)
+  List<Task> findAssignedPage(
+      @Param("userId") UUID userId,
+      @Param("status") String status,
+      @Param("circleId") String circleId,
+      @Param("dueFrom") String dueFrom,
+      @Param("dueTo") String dueTo,
+      @Param("afterDue") String afterDue,
+      @Param("afterId") String afterId,
+      @Param("limit") int limit);
+
   /**
    * Find tasks by circle ID and type.
    *
@@ -80,6 +152,98 @@ public interface TaskRepository extends JpaRepository<Task, UUID> {
    */
   List<Task> findByCircleIdAndType(UUID circleId, String type);
 
+  /**
+   * Find a task by ID unless it has the given status.
+   *
+   * @param id the task ID
+   * @param status the status to exclude
+   * @return optional task
+   */
+  Optional<Task> findByIdAndStatusNot(UUID id, String status);
+
+  /**
+   * Find the circle of each of several tasks.
+   *
+   * @param ids the task IDs
+   * @return pairs of task ID and circle ID, for the tasks that exist
+   */
+  @Query("SELECT t.id, t.circleId FROM Task t WHERE t.id IN :ids")
+  List<Object[]> findCircleIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * Check if a task exists by ID unless it has the given status.
+   *
+   * @param id the task ID
+   * @param status the status to exclude
+   * @return true if exists, false otherwise
+   */
+  boolean existsByIdAndStatusNot(UUID id, String status);
+
+  /**
+   * Soft delete a task by flipping its status to DELETED. Its completions and streaks are removed
+   * later by the purger.
+   *
+   * @param id the task ID
+   * @return the task's circle ID, or empty if it does not exist or was already deleted
+   */
+  @Query(
+      value =
+          "UPDATE tasks SET status = 'DELETED', updated_at = CURRENT_TIMESTAMP"
+              + " WHERE id = :id AND status <> 'DELETED' RETURNING circle_id",
+      nativeQuery = true)
+  Optional<UUID> markDeleted(@Param("id") UUID id);
+
+  /**
+   * Soft delete every task of a circle, e.g. after the circle was deleted.
+   *
+   * @param circleId the circle ID
+   * @return number of tasks marked deleted
+   */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE tasks SET status = 'DELETED', updated_at = CURRENT_TIMESTAMP"
+              + " WHERE circle_id = :circleId AND status <> 'DELETED'",
+      nativeQuery = true)
+  int markDeletedByCircleId(@Param("circleId") UUID circleId);
+
+  /**
+   * Remove a user from the assignees of a circle's tasks.
+   *
+   * @param circleId the circle ID
+   * @param userId the user ID
+   * @return number of tasks the user was unassigned from
+   */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE tasks SET assigned_to = array_remove(assigned_to, CAST(:userId AS uuid)),"
+              + " updated_at = CURRENT_TIMESTAMP"
+              + " WHERE circle_id = :circleId AND assigned_to @> ARRAY[CAST(:userId AS uuid)]",
+      nativeQuery = true)
+  int unassignUser(@Param("circleId") UUID circleId, @Param("userId") UUID userId);
+
+  /**
+   * Find soft-deleted tasks waiting to be purged, served by the partial index on deleted tasks.
+   *
+   * @param limit maximum number of task IDs
+   * @return task IDs
+   */
+  @Query(
+      value = "SELECT id FROM tasks WHERE status = 'DELETED' ORDER BY updated_at LIMIT :limit",
+      nativeQuery = true)
+  List<UUID> findDeletedIds(@Param("limit") int limit);
+
+  /**
+   * Remove a soft-deleted task row once its dependents are gone.
+   *
+   * @param id the task ID
+   * @return number of rows deleted
+   */
+  @Modifying
+  @Query(value = "DELETE FROM tasks WHERE id = :id AND status = 'DELETED'", nativeQuery = true)
+  int deletePurged(@Param("id") UUID id);
+
   /**
    * Check if a task exists by ID.
    *
@@ -0,0 +1,341 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.circlemodule.CircleTimeZones;
+import com.circlesync.circlesync.taskmodule.dto.LeaderboardEntryResponse;
+import com.circlesync.circlesync.taskmodule.dto.LeaderboardResponse;
+import com.circlesync.circlesync.taskmodule.repository.CircleDayPoints;
+import com.circlesync.circlesync.taskmodule.repository.CirclePointsTotal;
+import com.circlesync.circlesync.taskmodule.repository.InsertedCompletion;
+import com.circlesync.circlesync.taskmodule.repository.TaskCompletionRepository;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory points leaderboards, one ranking per circle and window. Completions update the
+ * rankings incrementally, so reading a leaderboard never touches the database. The rankings are
+ * rebuilt from task_completions joined to tasks at startup and then periodically, which also
+ * folds in completions recorded by other app nodes. Daily and weekly windows follow each circle's
+ * time zone as of the last rebuild.
+ */
+@Component
+@Slf4j
+public class CircleLeaderboards {
+
+  private static final Comparator<Score> RANKING =
+      Comparator.comparingLong(Score::points).reversed().thenComparing(Score::userId);
+
+  private final TaskCompletionRepository taskCompletionRepository;
+  private final CircleTimeZones circleTimeZones;
+  private final TransactionTemplate snapshotTransaction;
+  private final Object recordLock = new Object();
+
+  private volatile Map<UUID, CircleBoards> boards = new ConcurrentHashMap<>();
+
+  // Completions recorded while a rebuild is in flight, or null when none is; guarded by recordLock
+  private List<RecordedCompletion> recordedDuringRebuild;
+
+  public CircleLeaderboards(
+      TaskCompletionRepository taskCompletionRepository,
+      CircleTimeZones circleTimeZones,
+      @Qualifier("taskTransactionManager") PlatformTransactionManager transactionManager) {
+    this.taskCompletionRepository = taskCompletionRepository;
+    this.circleTimeZones = circleTimeZones;
+    this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    this.snapshotTransaction.setReadOnly(true);
+    this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+  }
+
+  /**
+   * Rebuild every leaderboard from the completion history. Runs at startup and then on a fixed
+   * delay. Completions recorded on this node while the rebuild runs are applied on top of the
+   * rebuilt boards unless the rebuild's snapshot already counted them.
+   */
+  @Scheduled(
+      fixedDelayString = "${circlesync.leaderboard.rebuild-interval:PT15M}",
+      initialDelay = 0)
+  public synchronized void rebuild() {
+    long start = System.nanoTime();
+    synchronized (recordLock) {
+      recordedDuringRebuild = new ArrayList<>();
+    }
+
+    Map<UUID, CircleBoards> rebuilt;
+    try {
+      // One snapshot for the sums and the check of completions recorded meanwhile
+      rebuilt = snapshotTransaction.execute(status -> loadAndSwap());
+    } finally {
+      synchronized (recordLock) {
+        recordedDuringRebuild = null;
+      }
+    }
+
+    log.info(
+        "Rebuilt leaderboards for {} circles in {} ms",
+        rebuilt.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private Map<UUID, CircleBoards> loadAndSwap() {
+    List<CirclePointsTotal> totals = taskCompletionRepository.sumPointsByCircleAndUser();
+
+    // No circle's current week starts before the week of the westernmost offset
+    LocalDate since = weekStart(LocalDate.now(ZoneOffset.MIN));
+    List<CircleDayPoints> days = taskCompletionRepository.sumPointsByCircleUserAndDaySince(since);
+
+    Set<UUID> circleIds = new HashSet<>();
+    for (CirclePointsTotal total : totals) {
+      circleIds.add(total.getCircleId());
+    }
+    Map<UUID, ZoneId> zones = circleTimeZones.zonesOf(circleIds);
+
+    Map<UUID, CircleBoards> rebuilt = new ConcurrentHashMap<>();
+    for (CirclePointsTotal total : totals) {
+      rebuilt
+          .computeIfAbsent(total.getCircleId(), id -> new CircleBoards(zones.get(id)))
+          .addAllTime(total.getUserId(), total.getAllTimePoints());
+    }
+    for (CircleDayPoints day : days) {
+      CircleBoards circleBoards = rebuilt.get(day.getCircleId());
+      if (circleBoards != null) {
+        circleBoards.addDay(day.getUserId(), day.getDate(), day.getPoints());
+      }
+    }
+
+    // Catch up until nothing new was recorded, then swap while holding the lock so no completion
+    // lands on the old boards after the last catch-up
+    while (true) {
+      List<RecordedCompletion> recorded;
+      synchronized (recordLock) {
+        if (recordedDuringRebuild.isEmpty()) {
+          boards = rebuilt;
+          return rebuilt;
+        }
+        recorded = recordedDuringRebuild;
+        recordedDuringRebuild = new ArrayList<>();
+      }
+      applyUncounted(rebuilt, recorded);
+    }
+  }
+
+  private void applyUncounted(Map<UUID, CircleBoards> rebuilt, List<RecordedCompletion> recorded) {
+    List<UUID> ids = new ArrayList<>(recorded.size());
+    for (RecordedCompletion completion : recorded) {
+      ids.add(completion.id());
+    }
+    Set<UUID> counted = new HashSet<>(taskCompletionRepository.findExistingIds(ids));
+    for (RecordedCompletion completion : recorded) {
+      if (!counted.contains(completion.id())) {
+        add(
+            rebuilt,
+            completion.circleId(),
+            completion.userId(),
+            completion.date(),
+            completion.points(),
+            null);
+      }
+    }
+  }
+
+  /**
+   * Add a completion's points once the surrounding transaction commits, or right away when there
+   * is no transaction.
+   *
+   * @param completion the inserted completion with its task's circle and points
+   */
+  public void recordCompletionAfterCommit(InsertedCompletion completion) {
+    UUID id = completion.getId();
+    UUID circleId = completion.getCircleId();
+    UUID userId = completion.getUserId();
+    LocalDate date = completion.getDate();
+    int points = completion.getPoints() != null ? completion.getPoints() : 0;
+
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      recordCompletion(id, circleId, userId, date, points);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            recordCompletion(id, circleId, userId, date, points);
+          }
+        });
+  }
+
+  /**
+   * Add a completion's points to the circle's leaderboards.
+   *
+   * @param completionId the completion ID
+   * @param circleId the circle of the completed task
+   * @param userId the user who completed it
+   * @param date the completion date
+   * @param points the task's points
+   */
+  public void recordCompletion(
+      UUID completionId, UUID circleId, UUID userId, LocalDate date, int points) {
+    if (points <= 0) {
+      return;
+    }
+    // Resolved before taking the lock; a circle without completions yet keeps this zone until
+    // the next rebuild
+    ZoneId zone = boards.containsKey(circleId) ? null : circleTimeZones.zoneOf(circleId);
+    synchronized (recordLock) {
+      if (recordedDuringRebuild != null) {
+        recordedDuringRebuild.add(
+            new RecordedCompletion(completionId, circleId, userId, date, points));
+      }
+      add(boards, circleId, userId, date, points, zone);
+    }
+  }
+
+  /**
+   * Get the top entries of a circle's leaderboard.
+   *
+   * @param circleId the circle ID
+   * @param window the leaderboard window
+   * @param limit maximum number of entries
+   * @return the leaderboard
+   */
+  public LeaderboardResponse top(UUID circleId, LeaderboardWindow window, int limit) {
+    CircleBoards circleBoards = boards.get(circleId);
+    LocalDate today =
+        LocalDate.now(
+            circleBoards != null ? circleBoards.zone : circleTimeZones.zoneOf(circleId));
+    LocalDate periodStart =
+        switch (window) {
+          case DAILY -> today;
+          case WEEKLY -> weekStart(today);
+          case ALL_TIME -> null;
+        };
+
+    List<Score> scores =
+        circleBoards == null ? List.of() : circleBoards.top(window, periodStart, limit);
+
+    List<LeaderboardEntryResponse> entries = new ArrayList<>(scores.size());
+    for (Score score : scores) {
+      entries.add(new LeaderboardEntryResponse(entries.size() + 1, score.userId(), score.points()));
+    }
+    return new LeaderboardResponse(circleId, window.name(), periodStart, entries);
+  }
+
+  private void add(
+      Map<UUID, CircleBoards> target,
+      UUID circleId,
+      UUID userId,
+      LocalDate date,
+      long points,
+      ZoneId zone) {
+    CircleBoards circleBoards =
+        target.computeIfAbsent(
+            circleId, id -> new CircleBoards(zone != null ? zone : circleTimeZones.zoneOf(id)));
+    circleBoards.addAllTime(userId, points);
+    circleBoards.addDay(userId, date, points);
+  }
+
+  private static LocalDate weekStart(LocalDate date) {
+    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+  }
+
+  private record Score(UUID userId, long points) {}
+
+  private record RecordedCompletion(
+      UUID id, UUID circleId, UUID userId, LocalDate date, int points) {}
+
+  /** Ranking of users by points; keeps a score map and an ordered set in step. */
+  private static final class ScoreBoard {
+
+    private final LocalDate periodStart;
+    private final Map<UUID, Long> totals = new HashMap<>();
+    private final TreeSet<Score> ranking = new TreeSet<>(RANKING);
+
+    ScoreBoard(LocalDate periodStart) {
+      this.periodStart = periodStart;
+    }
+
+    void add(UUID userId, long points) {
+      Long previous = totals.get(userId);
+      if (previous != null) {
+        ranking.remove(new Score(userId, previous));
+      }
+      long total = previous == null ? points : previous + points;
+      totals.put(userId, total);
+      ranking.add(new Score(userId, total));
+    }
+
+    List<Score> top(int limit) {
+      return ranking.stream().limit(limit).toList();
+    }
+  }
+
+  /** Daily, weekly and all-time boards of one circle. Period boards reset when a period ends. */
+  private static final class CircleBoards {
+
+    private final ZoneId zone;
+    private final ScoreBoard allTime = new ScoreBoard(null);
+    private ScoreBoard daily;
+    private ScoreBoard weekly;
+
+    CircleBoards(ZoneId zone) {
+      this.zone = zone;
+    }
+
+    synchronized void addAllTime(UUID userId, long points) {
+      allTime.add(userId, points);
+    }
+
+    synchronized void addDay(UUID userId, LocalDate date, long points) {
+      LocalDate today = LocalDate.now(zone);
+      LocalDate weekStart = weekStart(today);
+      if (weekStart(date).equals(weekStart)) {
+        weekly = current(weekly, weekStart);
+        weekly.add(userId, points);
+      }
+      if (date.equals(today)) {
+        daily = current(daily, today);
+        daily.add(userId, points);
+      }
+    }
+
+    synchronized List<Score> top(LeaderboardWindow window, LocalDate periodStart, int limit) {
+      ScoreBoard board =
+          switch (window) {
+            case DAILY -> daily;
+            case WEEKLY -> weekly;
+            case ALL_TIME -> allTime;
+          };
+      if (board == null || (periodStart != null && !periodStart.equals(board.periodStart))) {
+        return List.of();
+      }
+      return board.top(limit);
+    }
+
+    private static ScoreBoard current(ScoreBoard board, LocalDate periodStart) {
+      return board != null && periodStart.equals(board.periodStart)
+          ? board
+          : new ScoreBoard(periodStart);
+    }
+  }
+}
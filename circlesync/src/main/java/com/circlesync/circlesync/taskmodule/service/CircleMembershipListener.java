@@ -0,0 +1,68 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.shared.events.CircleDeleted;
+import com.circlesync.circlesync.shared.events.MemberLeft;
+import com.circlesync.circlesync.taskmodule.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Applies circle membership changes to tasks. Each listener runs asynchronously after the circle
+ * transaction commits, in a new task transaction; the publication stays incomplete in the event
+ * registry until the listener succeeds, so a failure is retried on resubmission. Both updates
+ * are idempotent.
+ *
+ * <p>{@code @ApplicationModuleListener} is not used because it always joins the primary (circle)
+ * transaction manager.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CircleMembershipListener {
+
+  private final TaskRepository taskRepository;
+  private final TodayAgendaCache todayAgendaCache;
+
+  /**
+   * Soft delete the tasks of a deleted circle; {@link TaskPurger} removes their rows later.
+   *
+   * @param event the deleted circle
+   */
+  @Async
+  @TransactionalEventListener
+  @Transactional(
+      transactionManager = "taskTransactionManager",
+      propagation = Propagation.REQUIRES_NEW)
+  public void on(CircleDeleted event) {
+    int deleted = taskRepository.markDeletedByCircleId(event.circleId());
+    todayAgendaCache.evictAfterCommit(event.circleId());
+    log.info("Marked {} tasks of deleted circle {} deleted", deleted, event.circleId());
+  }
+
+  /**
+   * Unassign a former member from the circle's tasks. Their completions and streaks are kept.
+   *
+   * @param event the circle and the user who left it
+   */
+  @Async
+  @TransactionalEventListener
+  @Transactional(
+      transactionManager = "taskTransactionManager",
+      propagation = Propagation.REQUIRES_NEW)
+  public void on(MemberLeft event) {
+    int unassigned = taskRepository.unassignUser(event.circleId(), event.userId());
+    if (unassigned > 0) {
+      todayAgendaCache.evictAfterCommit(event.circleId());
+    }
+    log.info(
+        "Unassigned user {} from {} tasks of circle {}",
+        event.userId(),
+        unassigned,
+        event.circleId());
+  }
+}
@@ -0,0 +1,185 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.entity.TaskCompletion;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cold storage for completions moved out of Postgres: immutable monthly segment files in the
+ * archive directory, memory-mapped on each node. With more than one node the directory must be a
+ * volume every node mounts, such as NFS; the segment bytes never go back into the database. A
+ * segment is published by its completion_segments row, committed in the same transaction that
+ * deletes its rows, and nodes pick up segments published by others on refresh. Archiving the same
+ * month again adds another segment.
+ */
+@Component
+@Slf4j
+public class CompletionArchive {
+
+  private static final String SUFFIX = ".seg";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Path directory;
+  private final List<CompletionSegment> segments = new CopyOnWriteArrayList<>();
+  private final Set<YearMonth> archivedMonths = ConcurrentHashMap.newKeySet();
+
+  // Guarded by this
+  private long lastSegmentId;
+
+  public CompletionArchive(
+      @Qualifier("taskJdbcTemplate") JdbcTemplate jdbcTemplate,
+      @Value("${circlesync.completions.archive.directory:data/completion-archive}")
+          String directory) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.directory = Path.of(directory);
+    try {
+      Files.createDirectories(this.directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open completion archive " + directory, e);
+    }
+  }
+
+  /**
+   * Map the segments published since the last refresh. A segment whose file is not yet visible in
+   * the directory stops the refresh, and it is retried on the next one.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${circlesync.completions.archive.refresh-interval:PT1M}")
+  public synchronized void refresh() {
+    List<StoredSegment> published =
+        jdbcTemplate.query(
+            "SELECT id, name, month, size_bytes FROM completion_segments"
+                + " WHERE id > ? ORDER BY id",
+            (resultSet, rowNum) ->
+                new StoredSegment(
+                    resultSet.getLong("id"),
+                    resultSet.getString("name"),
+                    YearMonth.from(resultSet.getObject("month", LocalDate.class)),
+                    resultSet.getLong("size_bytes")),
+            lastSegmentId);
+    for (StoredSegment stored : published) {
+      try {
+        segments.add(CompletionSegment.open(file(stored)));
+      } catch (IOException e) {
+        log.warn(
+            "Failed to load completion segment {}, retrying on the next refresh", stored.name(), e);
+        break;
+      }
+      archivedMonths.add(stored.month());
+      lastSegmentId = stored.id();
+    }
+    if (!published.isEmpty()) {
+      log.info(
+          "Loaded {} completion segments, {} in the archive", published.size(), segments.size());
+    }
+  }
+
+  /**
+   * Find a task's archived completions within a date range, reading only the segments whose
+   * month overlaps it.
+   *
+   * @param taskId the task ID
+   * @param from first day of the range
+   * @param to last day of the range, inclusive
+   * @return the archived completions in range
+   */
+  public List<TaskCompletion> findByTaskId(UUID taskId, LocalDate from, LocalDate to) {
+    YearMonth first = YearMonth.from(from);
+    YearMonth last = YearMonth.from(to);
+    List<TaskCompletion> completions = new ArrayList<>();
+    for (CompletionSegment segment : segments) {
+      if (segment.month().isBefore(first) || segment.month().isAfter(last)) {
+        continue;
+      }
+      for (TaskCompletion completion : segment.find(taskId)) {
+        if (!completion.getDate().isBefore(from) && !completion.getDate().isAfter(to)) {
+          completions.add(completion);
+        }
+      }
+    }
+    return completions;
+  }
+
+  /**
+   * Check whether anything has been archived.
+   *
+   * @return true if there is at least one segment
+   */
+  public boolean isEmpty() {
+    return segments.isEmpty();
+  }
+
+  /**
+   * Reject a completion date in an archived month. Archived months no longer accept completions,
+   * since the unique constraint cannot see the archived rows; the insert statements enforce the
+   * same rule against the stored segments.
+   *
+   * @param date the completion date
+   * @throws IllegalArgumentException if the month has been archived
+   */
+  public void requireNotArchived(LocalDate date) {
+    if (archivedMonths.contains(YearMonth.from(date))) {
+      throw new IllegalArgumentException(
+          "Completions for " + YearMonth.from(date) + " are archived and can no longer be added");
+    }
+  }
+
+  /**
+   * Start a new segment for a month in the archive directory.
+   *
+   * @param month the month the segment holds
+   * @return a writer for the segment
+   */
+  CompletionSegmentWriter newSegment(YearMonth month) throws IOException {
+    String name = "completions-" + month + "-" + System.currentTimeMillis() + SUFFIX;
+    return new CompletionSegmentWriter(directory.resolve(name), month);
+  }
+
+  /**
+   * Publish a finished segment. Must run in the transaction that deletes the archived rows, so the
+   * segment and the deletion commit together; readers see it on their next refresh.
+   *
+   * @param writer the finished writer
+   * @param month the month the segment holds
+   * @param rows number of rows in the segment
+   */
+  void store(CompletionSegmentWriter writer, YearMonth month, long rows) throws IOException {
+    Path file = writer.target();
+    jdbcTemplate.update(
+        "INSERT INTO completion_segments (name, month, row_count, size_bytes) VALUES (?, ?, ?, ?)",
+        file.getFileName().toString(),
+        month.atDay(1),
+        rows,
+        Files.size(file));
+  }
+
+  /** The file of a published segment, once it is complete in the archive directory. */
+  private Path file(StoredSegment stored) throws IOException {
+    Path file = directory.resolve(stored.name());
+    if (!Files.exists(file) || Files.size(file) != stored.size()) {
+      throw new IOException(
+          "Completion segment " + stored.name() + " is not complete in " + directory);
+    }
+    return file;
+  }
+
+  private record StoredSegment(long id, String name, YearMonth month, long size) {}
+}
@@ -0,0 +1,301 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.entity.TaskCompletion;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves completions older than the archive horizon out of Postgres into compressed segments, one
+ * month at a time. Each month is exported from its partition (attached or already detached) or
+ * from the default partition, stored as a segment, and dropped or deleted in the same
+ * transaction. A partition is locked against writers before the export; rows in the default
+ * partition are deleted by the IDs that were exported, so a completion committed meanwhile stays
+ * for the next run. Streaks and completion calendars are already materialized, so they keep their
+ * history. What later rebuilds still need from the archived rows is kept in the same transaction:
+ * the completions per task and user, which the all-time leaderboards add to the live ones, and
+ * the run of consecutive days ending on the month's last day, which a streak recompute continues
+ * when the first live island starts the day after.
+ */
+@Component
+@Slf4j
+public class CompletionArchiver {
+
+  /** Advisory lock key shared by all nodes archiving completions. */
+  static final long LOCK_KEY = 0x43530003L;
+
+  private static final int FETCH_SIZE = 1000;
+  private static final int DELETE_BATCH = 1000;
+
+  private static final String ADD_COUNTS =
+      "INSERT INTO archived_completion_counts AS a (task_id, user_id, completions)"
+          + " VALUES (?, ?, ?) ON CONFLICT (task_id, user_id)"
+          + " DO UPDATE SET completions = a.completions + EXCLUDED.completions";
+
+  // A tail continues the previous month's when that one ends the day before it starts
+  private static final String SET_TAILS =
+      "INSERT INTO archived_streak_tails AS a (task_id, user_id, last_day, length)"
+          + " VALUES (?, ?, ?, ?) ON CONFLICT (task_id, user_id) DO UPDATE SET"
+          + " length = EXCLUDED.length + CASE WHEN a.last_day = ? THEN a.length ELSE 0 END,"
+          + " last_day = EXCLUDED.last_day WHERE a.last_day < EXCLUDED.last_day";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final CompletionArchive completionArchive;
+  private final int archiveAfterMonths;
+
+  public CompletionArchiver(
+      @Qualifier("taskJdbcTemplate") JdbcTemplate jdbcTemplate,
+      @Qualifier("taskTransactionManager") PlatformTransactionManager transactionManager,
+      CompletionArchive completionArchive,
+      @Value("${circlesync.completions.archive.archive-after-months:0}") int archiveAfterMonths) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.completionArchive = completionArchive;
+    this.archiveAfterMonths = archiveAfterMonths;
+  }
+
+  /** Archive every month older than the horizon. Does nothing when archiving is disabled. */
+  @Scheduled(cron = "${circlesync.completions.archive.cron:0 30 0 * * *}")
+  public void archive() {
+    if (archiveAfterMonths <= 0) {
+      return;
+    }
+
+    YearMonth cutoff = YearMonth.now().minusMonths(archiveAfterMonths);
+    for (YearMonth month : monthsBefore(cutoff)) {
+      Boolean archived = transactionTemplate.execute(status -> archiveMonth(month));
+      if (!Boolean.TRUE.equals(archived)) {
+        log.debug("Completion archiving skipped, another node holds the lock");
+        return;
+      }
+    }
+    completionArchive.refresh();
+  }
+
+  private boolean archiveMonth(YearMonth month) {
+    Boolean locked =
+        jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY);
+    if (!Boolean.TRUE.equals(locked)) {
+      return false;
+    }
+
+    String partition = CompletionPartitionManager.partitionName(month);
+    boolean hasPartition = tableExists(partition);
+    String source = hasPartition ? partition : CompletionPartitionManager.PARENT_TABLE;
+    LocalDate from = month.atDay(1);
+    LocalDate to = month.plusMonths(1).atDay(1);
+    if (hasPartition) {
+      // Writers into the month wait until the partition is dropped, so none commits unexported
+      jdbcTemplate.execute("LOCK TABLE " + partition + " IN SHARE MODE");
+    }
+
+    List<UUID> exported = new ArrayList<>();
+    Carried carried = new Carried(month.atEndOfMonth());
+    long rows;
+    try (CompletionSegmentWriter writer = completionArchive.newSegment(month)) {
+      try {
+        rows = export(source, from, to, writer, carried, hasPartition ? null : exported);
+        if (rows > 0) {
+          writer.finish();
+          completionArchive.store(writer, month, rows);
+          jdbcTemplate.batchUpdate(ADD_COUNTS, carried.counts);
+          jdbcTemplate.batchUpdate(SET_TAILS, carried.tails);
+        }
+        if (hasPartition) {
+          jdbcTemplate.execute("DROP TABLE " + partition);
+        } else {
+          deleteExported(from, to, exported);
+        }
+      } catch (IOException | RuntimeException e) {
+        // The transaction rolls back, so the segment is never published
+        Files.deleteIfExists(writer.target());
+        throw e;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to archive completions for " + month, e);
+    }
+    log.info("Archived {} completions for {} from {}", rows, month, source);
+    return true;
+  }
+
+  /** Delete exactly the exported rows, leaving any committed after the export in place. */
+  private void deleteExported(LocalDate from, LocalDate to, List<UUID> ids) {
+    for (int start = 0; start < ids.size(); start += DELETE_BATCH) {
+      List<UUID> batch = ids.subList(start, Math.min(start + DELETE_BATCH, ids.size()));
+      jdbcTemplate.update(
+          "DELETE FROM "
+              + CompletionPartitionManager.PARENT_TABLE
+              + " WHERE date >= ? AND date < ? AND id = ANY(?)",
+          statement -> {
+            statement.setDate(1, Date.valueOf(from));
+            statement.setDate(2, Date.valueOf(to));
+            statement.setArray(3, statement.getConnection().createArrayOf("uuid", batch.toArray()));
+          });
+    }
+  }
+
+  /**
+   * Stream a month's rows in task order, writing one block per task.
+   *
+   * @param carried collects what the exported rows still contribute once archived
+   * @param ids collects the exported row IDs, or null when they are not needed
+   */
+  private long export(
+      String source,
+      LocalDate from,
+      LocalDate to,
+      CompletionSegmentWriter writer,
+      Carried carried,
+      List<UUID> ids) {
+    List<TaskCompletion> current = new ArrayList<>();
+    long[] rows = {0};
+    jdbcTemplate.query(
+        connection -> {
+          PreparedStatement statement =
+              connection.prepareStatement(
+                  "SELECT id, task_id, user_id, completed_at, notes, date FROM "
+                      + source
+                      + " WHERE date >= ? AND date < ? ORDER BY task_id, date, id");
+          statement.setFetchSize(FETCH_SIZE);
+          statement.setDate(1, Date.valueOf(from));
+          statement.setDate(2, Date.valueOf(to));
+          return statement;
+        },
+        resultSet -> {
+          UUID taskId = resultSet.getObject("task_id", UUID.class);
+          if (!current.isEmpty() && !current.getFirst().getTaskId().equals(taskId)) {
+            flush(writer, carried, current);
+          }
+          UUID id = resultSet.getObject("id", UUID.class);
+          if (ids != null) {
+            ids.add(id);
+          }
+          current.add(
+              new TaskCompletion(
+                  id,
+                  taskId,
+                  resultSet.getObject("user_id", UUID.class),
+                  resultSet.getObject("completed_at", LocalDateTime.class),
+                  resultSet.getString("notes"),
+                  resultSet.getObject("date", LocalDate.class)));
+          rows[0]++;
+        });
+    if (!current.isEmpty()) {
+      flush(writer, carried, current);
+    }
+    return rows[0];
+  }
+
+  private static void flush(
+      CompletionSegmentWriter writer, Carried carried, List<TaskCompletion> rows) {
+    carried.add(rows);
+    try {
+      writer.append(rows.getFirst().getTaskId(), rows);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    rows.clear();
+  }
+
+  /** Months before the cutoff that still have a partition table or rows in Postgres. */
+  private Set<YearMonth> monthsBefore(YearMonth cutoff) {
+    Set<YearMonth> months = new TreeSet<>();
+    List<String> tables =
+        jdbcTemplate.queryForList(
+            "SELECT relname FROM pg_class WHERE relkind = 'r' AND relname LIKE ?",
+            String.class,
+            CompletionPartitionManager.PARENT_TABLE + "\\_y%");
+    for (String table : tables) {
+      Matcher matcher = CompletionPartitionManager.PARTITION_NAME.matcher(table);
+      if (matcher.matches()) {
+        YearMonth month =
+            YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+        if (month.isBefore(cutoff)) {
+          months.add(month);
+        }
+      }
+    }
+
+    LocalDate oldest =
+        jdbcTemplate.queryForObject(
+            "SELECT MIN(date) FROM " + CompletionPartitionManager.PARENT_TABLE + " WHERE date < ?",
+            LocalDate.class,
+            Date.valueOf(cutoff.atDay(1)));
+    if (oldest != null) {
+      for (YearMonth month = YearMonth.from(oldest);
+          month.isBefore(cutoff);
+          month = month.plusMonths(1)) {
+        months.add(month);
+      }
+    }
+    return months;
+  }
+
+  private boolean tableExists(String name) {
+    Boolean exists =
+        jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_class WHERE relkind = 'r' AND relname = ?)",
+            Boolean.class,
+            name);
+    return Boolean.TRUE.equals(exists);
+  }
+
+  /** Rows for archived_completion_counts and archived_streak_tails, built one task at a time. */
+  private static final class Carried {
+
+    private final LocalDate lastDay;
+    private final List<Object[]> counts = new ArrayList<>();
+    private final List<Object[]> tails = new ArrayList<>();
+
+    Carried(LocalDate lastDay) {
+      this.lastDay = lastDay;
+    }
+
+    /** Add one task's completions, given in date order. */
+    void add(List<TaskCompletion> rows) {
+      Map<UUID, List<LocalDate>> datesByUser = new LinkedHashMap<>();
+      for (TaskCompletion row : rows) {
+        datesByUser.computeIfAbsent(row.getUserId(), user -> new ArrayList<>()).add(row.getDate());
+      }
+      UUID taskId = rows.getFirst().getTaskId();
+      datesByUser.forEach(
+          (userId, dates) -> {
+            counts.add(new Object[] {taskId, userId, dates.size()});
+            int length = 0;
+            LocalDate expected = lastDay;
+            for (int i = dates.size() - 1; i >= 0 && dates.get(i).equals(expected); i--) {
+              length++;
+              expected = expected.minusDays(1);
+            }
+            if (length > 0) {
+              tails.add(
+                  new Object[] {
+                    taskId, userId, Date.valueOf(lastDay), length, Date.valueOf(expected)
+                  });
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.repository.CompletionCalendarRepository;
+import java.time.LocalDate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Builds completion_calendars from task_completions for history recorded before the calendars
+ * existed. Each year is merged in its own transaction, and merging only ever sets bits, so it is
+ * safe to run while completions are being recorded and to run again after a failure.
+ */
+@Component
+@Slf4j
+public class CompletionCalendarBackfill {
+
+  private final CompletionCalendarRepository completionCalendarRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  public CompletionCalendarBackfill(
+      CompletionCalendarRepository completionCalendarRepository,
+      @Qualifier("taskTransactionManager") PlatformTransactionManager transactionManager) {
+    this.completionCalendarRepository = completionCalendarRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Merge every year of completion history into the calendars.
+   *
+   * @return the backfill summary
+   */
+  public Result backfill() {
+    Integer first = completionCalendarRepository.findFirstCompletionYear();
+    Integer last = completionCalendarRepository.findLastCompletionYear();
+    if (first == null || last == null) {
+      return new Result(0, 0);
+    }
+
+    int calendars = 0;
+    for (int year = first; year <= last; year++) {
+      LocalDate from = LocalDate.of(year, 1, 1);
+      int calendarYear = year;
+      Integer merged =
+          transactionTemplate.execute(
+              status ->
+                  completionCalendarRepository.backfillYear(
+                      calendarYear, from, from.plusYears(1)));
+      calendars += merged != null ? merged : 0;
+      log.info("Backfilled {} completion calendars for {}", merged, year);
+    }
+    return new Result(calendars, last - first + 1);
+  }
+
+  /** Calendars inserted or updated and the number of years merged. */
+  public record Result(int calendars, int years) {}
+}
@@ -0,0 +1,268 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local append-only journal of accepted but not yet committed completions, one line per
+ * completion. Appends are not forced one by one: a completion is acknowledged once {@link #sync}
+ * has forced its offset, and callers waiting at the same time share a single force.
+ *
+ * <p>Entries are addressed by logical offsets that keep growing across truncations. The writer
+ * reports how far it has committed, and the journal drops that prefix: it truncates when
+ * everything is committed, and otherwise rewrites the uncommitted tail into a fresh file once
+ * enough committed bytes sit in front of it, so the file stays small under sustained load.
+ */
+@Slf4j
+final class CompletionJournal implements AutoCloseable {
+
+  /** Committed bytes in front of uncommitted entries that trigger a compaction. */
+  static final long DEFAULT_COMPACT_THRESHOLD = 1 << 20;
+
+  private static final String NONE = "-";
+
+  private final Path path;
+  private final long compactThreshold;
+  private final Object syncLock = new Object();
+
+  // Guarded by this; sync and trimming take syncLock first
+  private FileChannel channel;
+  private long base;
+  private long end;
+  private long committed;
+
+  // Guarded by syncLock
+  private long synced;
+
+  CompletionJournal(Path path) throws IOException {
+    this(path, DEFAULT_COMPACT_THRESHOLD);
+  }
+
+  CompletionJournal(Path path, long compactThreshold) throws IOException {
+    this.path = path;
+    this.compactThreshold = compactThreshold;
+    Path parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    this.channel = open(path);
+    this.end = channel.size();
+  }
+
+  /**
+   * Append a completion without forcing it to disk.
+   *
+   * @param completion the accepted completion
+   * @return the logical offset just past the entry, to pass to {@link #sync}
+   */
+  synchronized long append(PendingCompletion completion) {
+    String line =
+        completion.taskId()
+            + "|"
+            + completion.userId()
+            + "|"
+            + (completion.date() != null ? completion.date() : NONE)
+            + "|"
+            + (completion.notes() != null
+                ? Base64.getEncoder()
+                    .encodeToString(completion.notes().getBytes(StandardCharsets.UTF_8))
+                : NONE)
+            + "|"
+            + completion.acceptedAt().toEpochMilli()
+            + "\n";
+    ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+    try {
+      long position = end - base;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append to completion journal " + path, e);
+    }
+    end += buffer.limit();
+    return end;
+  }
+
+  /**
+   * Force the journal to disk up to at least an offset. Returns at once if a concurrent caller
+   * already forced past it.
+   *
+   * @param offset the offset returned by {@link #append}
+   */
+  void sync(long offset) {
+    synchronized (syncLock) {
+      if (synced >= offset) {
+        return;
+      }
+      long target;
+      FileChannel current;
+      synchronized (this) {
+        target = end;
+        current = channel;
+      }
+      try {
+        current.force(false);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to sync completion journal " + path, e);
+      }
+      synced = target;
+    }
+  }
+
+  /**
+   * Read every completion in the journal and cut a torn last line left by a crash, so the next
+   * append starts on a fresh line. Malformed lines are skipped but keep their place.
+   *
+   * @return the journaled completions in append order
+   */
+  synchronized List<Entry> recover() throws IOException {
+    byte[] content = Files.readAllBytes(path);
+    List<Entry> entries = new ArrayList<>();
+    int lineStart = 0;
+    for (int index = 0; index < content.length; index++) {
+      if (content[index] != '\n') {
+        continue;
+      }
+      String line = new String(content, lineStart, index - lineStart, StandardCharsets.UTF_8);
+      lineStart = index + 1;
+      PendingCompletion completion = parse(line);
+      if (completion == null) {
+        log.warn("Skipping malformed completion journal line: {}", line);
+        continue;
+      }
+      entries.add(new Entry(completion, base + lineStart));
+    }
+
+    if (lineStart < content.length) {
+      log.warn(
+          "Cutting torn tail of {} bytes from completion journal {}",
+          content.length - lineStart,
+          path);
+      channel.truncate(lineStart);
+      channel.force(true);
+    }
+    end = base + lineStart;
+    return entries;
+  }
+
+  /**
+   * Drop every entry up to an offset once it has been committed.
+   *
+   * @param offset the offset just past the last committed entry
+   */
+  void commitUpTo(long offset) {
+    synchronized (syncLock) {
+      synchronized (this) {
+        committed = Math.max(committed, offset);
+        try {
+          if (committed >= end) {
+            channel.truncate(0);
+            channel.force(true);
+            base = end;
+          } else if (committed - base >= compactThreshold) {
+            compact();
+            synced = Math.max(synced, end);
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to trim completion journal " + path, e);
+        }
+      }
+    }
+  }
+
+  /** Size of the journal file, for monitoring and tests. */
+  synchronized long size() {
+    return end - base;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  // Copies the uncommitted tail into a new file and swaps it in. A crash before the rename
+  // leaves the old file, whose committed prefix replays harmlessly as duplicates.
+  private void compact() throws IOException {
+    Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+    long from = committed - base;
+    long length = end - committed;
+    try (FileChannel target =
+        FileChannel.open(
+            compacted,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      long copied = 0;
+      while (copied < length) {
+        copied += channel.transferTo(from + copied, length - copied, target);
+      }
+      target.force(true);
+    }
+    Files.move(
+        compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    channel.close();
+    channel = open(path);
+    base = committed;
+    log.debug("Compacted completion journal {} to {} bytes", path, length);
+  }
+
+  private static FileChannel open(Path path) throws IOException {
+    return FileChannel.open(
+        path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  private static PendingCompletion parse(String line) {
+    String[] fields = line.split("\\|");
+    if (fields.length != 5) {
+      return null;
+    }
+    try {
+      return new PendingCompletion(
+          UUID.fromString(fields[0]),
+          UUID.fromString(fields[1]),
+          NONE.equals(fields[3])
+              ? null
+              : new String(Base64.getDecoder().decode(fields[3]), StandardCharsets.UTF_8),
+          NONE.equals(fields[2]) ? null : LocalDate.parse(fields[2]),
+          Instant.ofEpochMilli(Long.parseLong(fields[4])));
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * A completion accepted by the write-behind queue.
+   *
+   * @param date the requested date, or null to use the acceptance day in the circle's time zone
+   * @param acceptedAt when the completion was accepted
+   */
+  record PendingCompletion(
+      UUID taskId, UUID userId, String notes, LocalDate date, Instant acceptedAt) {
+
+    PendingCompletion withDate(LocalDate date) {
+      return new PendingCompletion(taskId, userId, notes, date, acceptedAt);
+    }
+  }
+
+  /**
+   * A journaled completion and the logical offset just past its line.
+   *
+   * @param completion the completion
+   * @param offset the offset to commit once the completion is in the database
+   */
+  record Entry(PendingCompletion completion, long offset) {}
+}
@@ -0,0 +1,263 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the monthly range partitions of task_completions. Creates the current UTC month and
+ * the next few ahead of time so new completions never land in the default partition, and detaches
+ * months older than the retention window so they can be archived or dropped without touching the
+ * live table. Detached months no longer accept completions, so nothing for them reaches the
+ * default partition either. Runs at startup and daily; only the node holding the advisory lock
+ * does the work.
+ *
+ * <p>Rows that did land in the default partition, such as far backdated completions or months
+ * that existed before partitioning, are drained afterwards in a transaction per month, apart from
+ * the maintenance above. Draining detaches the default partition while the month's rows are
+ * copied, so it takes locks that block every completion write: it gives up after the lock timeout
+ * and leaves months with more than drain-limit rows to be moved offline.
+ */
+@Component
+@Slf4j
+public class CompletionPartitionManager {
+
+  /** Advisory lock key shared by all nodes managing partitions. */
+  static final long LOCK_KEY = 0x43530002L;
+
+  static final String PARENT_TABLE = "task_completions";
+  static final String DEFAULT_PARTITION = "task_completions_default";
+  static final Pattern PARTITION_NAME = Pattern.compile("task_completions_y(\\d{4})m(\\d{2})");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int monthsAhead;
+  private final int detachAfterMonths;
+  private final int drainLimit;
+  private final Duration drainLockTimeout;
+
+  public CompletionPartitionManager(
+      @Qualifier("taskJdbcTemplate") JdbcTemplate jdbcTemplate,
+      @Qualifier("taskTransactionManager") PlatformTransactionManager transactionManager,
+      @Value("${circlesync.completions.partitions.months-ahead:3}") int monthsAhead,
+      @Value("${circlesync.completions.partitions.detach-after-months:0}") int detachAfterMonths,
+      @Value("${circlesync.completions.partitions.drain-limit:10000}") int drainLimit,
+      @Value("${circlesync.completions.partitions.drain-lock-timeout:PT2S}")
+          Duration drainLockTimeout) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.monthsAhead = monthsAhead;
+    this.detachAfterMonths = detachAfterMonths;
+    this.drainLimit = drainLimit;
+    this.drainLockTimeout = drainLockTimeout;
+  }
+
+  /** Create upcoming partitions, detach expired ones, then drain the default partition. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${circlesync.completions.partitions.cron:0 15 0 * * *}")
+  public void maintain() {
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    Boolean maintained =
+        transactionTemplate.execute(
+            status -> {
+              if (!tryLock()) {
+                return false;
+              }
+              for (int offset = 0; offset <= monthsAhead; offset++) {
+                createPartition(current.plusMonths(offset));
+              }
+              if (detachAfterMonths > 0) {
+                detachBefore(current.minusMonths(detachAfterMonths));
+              }
+              return true;
+            });
+    if (!Boolean.TRUE.equals(maintained)) {
+      log.debug("Partition maintenance skipped, another node holds the lock");
+      return;
+    }
+
+    for (YearMonth month : monthsInDefault()) {
+      try {
+        transactionTemplate.executeWithoutResult(status -> drain(month));
+      } catch (DataAccessException e) {
+        // Most likely the lock timeout; the next run tries again
+        log.warn("Could not drain {} from the default partition: {}", month, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Reject a completion date in a detached month. Rows for a detached month would land in the
+   * default partition, which could then never be drained into the month's table; the insert
+   * statements enforce the same rule against the tables that exist.
+   *
+   * @param date the completion date
+   * @throws IllegalArgumentException if the month is older than the detach horizon
+   */
+  public void requireAttached(LocalDate date) {
+    YearMonth month = YearMonth.from(date);
+    if (detachAfterMonths > 0
+        && month.isBefore(YearMonth.now(ZoneOffset.UTC).minusMonths(detachAfterMonths))) {
+      throw new IllegalArgumentException(
+          "Completions for " + month + " are detached and can no longer be added");
+    }
+  }
+
+  /**
+   * List the months that currently have an attached partition.
+   *
+   * @return attached partition months in ascending order
+   */
+  public List<YearMonth> attachedMonths() {
+    List<YearMonth> months = new ArrayList<>();
+    for (String name : partitionNames()) {
+      Matcher matcher = PARTITION_NAME.matcher(name);
+      if (matcher.matches()) {
+        months.add(
+            YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+      }
+    }
+    months.sort(null);
+    return months;
+  }
+
+  /**
+   * Name of the partition holding a month.
+   *
+   * @param month the month
+   * @return the partition table name
+   */
+  static String partitionName(YearMonth month) {
+    return String.format("%s_y%04dm%02d", PARENT_TABLE, month.getYear(), month.getMonthValue());
+  }
+
+  private boolean tryLock() {
+    Boolean locked =
+        jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY);
+    return Boolean.TRUE.equals(locked);
+  }
+
+  private void createPartition(YearMonth month) {
+    String name = partitionName(month);
+    try {
+      jdbcTemplate.execute("SAVEPOINT create_partition");
+      jdbcTemplate.execute(
+          "CREATE TABLE IF NOT EXISTS "
+              + name
+              + " PARTITION OF "
+              + PARENT_TABLE
+              + " FOR VALUES "
+              + bounds(month));
+      jdbcTemplate.execute("RELEASE SAVEPOINT create_partition");
+    } catch (DataAccessException e) {
+      // Rows for the month are in the default partition; draining it creates the partition
+      jdbcTemplate.execute("ROLLBACK TO SAVEPOINT create_partition");
+      log.warn("Could not create completion partition {}: {}", name, e.getMessage());
+    }
+  }
+
+  private List<YearMonth> monthsInDefault() {
+    List<LocalDate> firstDays =
+        jdbcTemplate.queryForList(
+            "SELECT DISTINCT CAST(date_trunc('month', date) AS DATE) FROM "
+                + DEFAULT_PARTITION
+                + " ORDER BY 1",
+            LocalDate.class);
+    List<YearMonth> months = new ArrayList<>(firstDays.size());
+    for (LocalDate firstDay : firstDays) {
+      months.add(YearMonth.from(firstDay));
+    }
+    return months;
+  }
+
+  /**
+   * Move one month's rows out of the default partition into a new partition of their own. The
+   * default partition is detached meanwhile, so creating the partition does not trip over the
+   * rows still in it. Rows of a month whose table was detached are left for the archiver.
+   */
+  private void drain(YearMonth month) {
+    if (!tryLock()) {
+      return;
+    }
+    String name = partitionName(month);
+    Boolean detached =
+        jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+    if (Boolean.TRUE.equals(detached)) {
+      log.warn("Default partition has rows for detached month {}, leaving them", month);
+      return;
+    }
+    Integer rows =
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM " + DEFAULT_PARTITION + inMonth(month), Integer.class);
+    if (rows == null || rows == 0) {
+      return;
+    }
+    if (rows > drainLimit) {
+      log.warn(
+          "Default partition has {} rows for {}, more than the drain limit; move them offline",
+          rows,
+          month);
+      return;
+    }
+
+    jdbcTemplate.execute("SET LOCAL lock_timeout = " + drainLockTimeout.toMillis());
+    jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + DEFAULT_PARTITION);
+    jdbcTemplate.execute(
+        "CREATE TABLE " + name + " PARTITION OF " + PARENT_TABLE + " FOR VALUES " + bounds(month));
+    jdbcTemplate.execute(
+        "INSERT INTO " + PARENT_TABLE + " SELECT * FROM " + DEFAULT_PARTITION + inMonth(month));
+    int moved = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + inMonth(month));
+    jdbcTemplate.execute(
+        "ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+    log.info("Moved {} completions from the default partition to {}", moved, name);
+  }
+
+  private static String inMonth(YearMonth month) {
+    return " WHERE date >= '"
+        + month.atDay(1)
+        + "' AND date < '"
+        + month.plusMonths(1).atDay(1)
+        + "'";
+  }
+
+  private static String bounds(YearMonth month) {
+    return "FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+  }
+
+  private void detachBefore(YearMonth cutoff) {
+    for (YearMonth month : attachedMonths()) {
+      if (!month.isBefore(cutoff)) {
+        break;
+      }
+      String name = partitionName(month);
+      jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + name);
+      log.info("Detached completion partition {}", name);
+    }
+  }
+
+  private List<String> partitionNames() {
+    return jdbcTemplate.queryForList(
+        "SELECT c.relname FROM pg_inherits i"
+            + " JOIN pg_class c ON c.oid = i.inhrelid"
+            + " JOIN pg_class p ON p.oid = i.inhparent"
+            + " WHERE p.relname = ?",
+        String.class,
+        PARENT_TABLE);
+  }
+}
@@ -0,0 +1,275 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.entity.TaskCompletion;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only, memory-mapped archive segment holding one month of completions.
+ *
+ * <p>Layout: one deflate-compressed block per task, then an index of fixed-size entries sorted by
+ * task ID (task ID, block offset, block length, row count), then a footer (magic, year, month,
+ * task count, index offset). Inside a block rows are stored column by column: IDs, user IDs, epoch
+ * days, completed-at epoch micros, then length-prefixed notes.
+ *
+ * <p>Offsets are longs. A single mapping cannot exceed 2 GB, so the file is mapped as a series of
+ * regions that overlap by a few bytes: every fixed-size field lies within one region, and blocks
+ * are copied across region boundaries.
+ */
+final class CompletionSegment {
+
+  static final int MAGIC = 0x43534731; // "CSG1"
+  static final int INDEX_ENTRY_BYTES = 32;
+  static final int FOOTER_BYTES = 24;
+  static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+  /** Bytes each mapped region starts apart. */
+  static final long REGION_BYTES = 1L << 30;
+
+  // Longer than any fixed-size field, so none of them straddles two regions
+  private static final int REGION_OVERLAP = 64;
+
+  private final Path path;
+  private final MappedByteBuffer[] regions;
+  private final long regionBytes;
+  private final YearMonth month;
+  private final int taskCount;
+  private final long indexOffset;
+
+  private CompletionSegment(Path path, MappedByteBuffer[] regions, long regionBytes, long size)
+      throws IOException {
+    this.path = path;
+    this.regions = regions;
+    this.regionBytes = regionBytes;
+    long footer = size - FOOTER_BYTES;
+    if (footer < 0 || getInt(footer) != MAGIC) {
+      throw new IOException("Not a completion segment: " + path);
+    }
+    this.month = YearMonth.of(getInt(footer + 4), getInt(footer + 8));
+    this.taskCount = getInt(footer + 12);
+    this.indexOffset = getLong(footer + 16);
+    if (taskCount < 0
+        || indexOffset < 0
+        || indexOffset + (long) taskCount * INDEX_ENTRY_BYTES != footer) {
+      throw new IOException("Corrupt index in completion segment: " + path);
+    }
+  }
+
+  /**
+   * Map a segment file.
+   *
+   * @param path the segment file
+   * @return the mapped segment
+   */
+  static CompletionSegment open(Path path) throws IOException {
+    return open(path, REGION_BYTES);
+  }
+
+  /**
+   * Map a segment file in regions of a given size.
+   *
+   * @param path the segment file
+   * @param regionBytes bytes each region starts apart
+   * @return the mapped segment
+   */
+  static CompletionSegment open(Path path, long regionBytes) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      int count = (int) Math.max(1, (size + regionBytes - 1) / regionBytes);
+      MappedByteBuffer[] regions = new MappedByteBuffer[count];
+      for (int i = 0; i < count; i++) {
+        long start = i * regionBytes;
+        long length = Math.min(regionBytes + REGION_OVERLAP, size - start);
+        regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+      }
+      return new CompletionSegment(path, regions, regionBytes, size);
+    }
+  }
+
+  Path path() {
+    return path;
+  }
+
+  YearMonth month() {
+    return month;
+  }
+
+  /**
+   * Find the archived completions of a task with a binary search over the index.
+   *
+   * @param taskId the task ID
+   * @return the task's completions in this segment, oldest first
+   */
+  List<TaskCompletion> find(UUID taskId) {
+    int low = 0;
+    int high = taskCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long entry = indexOffset + (long) mid * INDEX_ENTRY_BYTES;
+      int cmp = compare(getLong(entry), getLong(entry + 8), taskId);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return decode(taskId, getLong(entry + 16), getInt(entry + 24), getInt(entry + 28));
+      }
+    }
+    return List.of();
+  }
+
+  private List<TaskCompletion> decode(UUID taskId, long offset, int length, int rows) {
+    byte[] compressed = new byte[length];
+    int copied = 0;
+    while (copied < length) {
+      long position = offset + copied;
+      MappedByteBuffer region = region(position);
+      int at = offsetIn(position);
+      int n = Math.min(length - copied, region.limit() - at);
+      region.get(at, compressed, copied, n);
+      copied += n;
+    }
+
+    Inflater inflater = new Inflater();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+    try {
+      inflater.setInput(compressed);
+      byte[] chunk = new byte[8192];
+      while (!inflater.finished()) {
+        int n = inflater.inflate(chunk);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IllegalStateException("Truncated block in segment " + path);
+        }
+        out.write(chunk, 0, n);
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Corrupt block in segment " + path, e);
+    } finally {
+      inflater.end();
+    }
+
+    ByteBuffer block = ByteBuffer.wrap(out.toByteArray());
+    UUID[] ids = new UUID[rows];
+    for (int i = 0; i < rows; i++) {
+      ids[i] = new UUID(block.getLong(), block.getLong());
+    }
+    UUID[] userIds = new UUID[rows];
+    for (int i = 0; i < rows; i++) {
+      userIds[i] = new UUID(block.getLong(), block.getLong());
+    }
+    LocalDate[] dates = new LocalDate[rows];
+    for (int i = 0; i < rows; i++) {
+      dates[i] = LocalDate.ofEpochDay(block.getInt());
+    }
+    LocalDateTime[] completedAt = new LocalDateTime[rows];
+    for (int i = 0; i < rows; i++) {
+      completedAt[i] = EPOCH.plus(block.getLong(), ChronoUnit.MICROS);
+    }
+
+    List<TaskCompletion> completions = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      int noteLength = block.getInt();
+      String notes = null;
+      if (noteLength >= 0) {
+        notes = new String(block.array(), block.position(), noteLength, StandardCharsets.UTF_8);
+        block.position(block.position() + noteLength);
+      }
+      completions.add(
+          new TaskCompletion(ids[i], taskId, userIds[i], completedAt[i], notes, dates[i]));
+    }
+    return completions;
+  }
+
+  /**
+   * Compress one task's rows into a block.
+   *
+   * @param rows the task's completions
+   * @return the compressed block
+   */
+  static byte[] encode(List<TaskCompletion> rows) {
+    List<byte[]> notes = new ArrayList<>(rows.size());
+    int size = rows.size() * (16 + 16 + 4 + 8 + 4);
+    for (TaskCompletion row : rows) {
+      String text = row.getNotes();
+      byte[] bytes = text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+      notes.add(bytes);
+      size += bytes == null ? 0 : bytes.length;
+    }
+
+    ByteBuffer block = ByteBuffer.allocate(size);
+    for (TaskCompletion row : rows) {
+      block
+          .putLong(row.getId().getMostSignificantBits())
+          .putLong(row.getId().getLeastSignificantBits());
+    }
+    for (TaskCompletion row : rows) {
+      block
+          .putLong(row.getUserId().getMostSignificantBits())
+          .putLong(row.getUserId().getLeastSignificantBits());
+    }
+    for (TaskCompletion row : rows) {
+      block.putInt((int) row.getDate().toEpochDay());
+    }
+    for (TaskCompletion row : rows) {
+      block.putLong(ChronoUnit.MICROS.between(EPOCH, row.getCompletedAt()));
+    }
+    for (byte[] bytes : notes) {
+      block.putInt(bytes == null ? -1 : bytes.length);
+      if (bytes != null) {
+        block.put(bytes);
+      }
+    }
+
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(size / 2 + 64);
+    try {
+      deflater.setInput(block.array());
+      deflater.finish();
+      byte[] chunk = new byte[8192];
+      while (!deflater.finished()) {
+        out.write(chunk, 0, deflater.deflate(chunk));
+      }
+    } finally {
+      deflater.end();
+    }
+    return out.toByteArray();
+  }
+
+  private MappedByteBuffer region(long position) {
+    return regions[(int) (position / regionBytes)];
+  }
+
+  private int offsetIn(long position) {
+    return (int) (position % regionBytes);
+  }
+
+  private int getInt(long position) {
+    return region(position).getInt(offsetIn(position));
+  }
+
+  private long getLong(long position) {
+    return region(position).getLong(offsetIn(position));
+  }
+
+  /** Order task IDs the way the index is sorted: unsigned, most significant bits first. */
+  static int compare(long msb, long lsb, UUID taskId) {
+    int cmp = Long.compareUnsigned(msb, taskId.getMostSignificantBits());
+    return cmp != 0 ? cmp : Long.compareUnsigned(lsb, taskId.getLeastSignificantBits());
+  }
+}
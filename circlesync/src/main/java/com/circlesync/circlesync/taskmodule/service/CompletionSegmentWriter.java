@@ -0,0 +1,115 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.entity.TaskCompletion;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams one month of completions into a new segment file. Tasks must be appended in ascending
+ * task ID order; the file only becomes visible under its final name once {@link #finish} has
+ * written the index and forced everything to disk.
+ */
+final class CompletionSegmentWriter implements AutoCloseable {
+
+  private final Path target;
+  private final Path temp;
+  private final YearMonth month;
+  private final FileChannel channel;
+
+  private ByteBuffer entries = ByteBuffer.allocate(1024 * CompletionSegment.INDEX_ENTRY_BYTES);
+  private int taskCount;
+  private long rowCount;
+  private boolean finished;
+
+  CompletionSegmentWriter(Path target, YearMonth month) throws IOException {
+    this.target = target;
+    this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+    this.month = month;
+    this.channel =
+        FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Append one task's completions as a compressed block.
+   *
+   * @param taskId the task ID, greater than any appended before
+   * @param rows the task's completions
+   */
+  void append(UUID taskId, List<TaskCompletion> rows) throws IOException {
+    byte[] block = CompletionSegment.encode(rows);
+    long offset = channel.position();
+    write(ByteBuffer.wrap(block));
+
+    if (entries.remaining() < CompletionSegment.INDEX_ENTRY_BYTES) {
+      ByteBuffer grown = ByteBuffer.allocate(entries.capacity() * 2);
+      entries.flip();
+      grown.put(entries);
+      entries = grown;
+    }
+    entries
+        .putLong(taskId.getMostSignificantBits())
+        .putLong(taskId.getLeastSignificantBits())
+        .putLong(offset)
+        .putInt(block.length)
+        .putInt(rows.size());
+    taskCount++;
+    rowCount += rows.size();
+  }
+
+  /**
+   * Write the index and footer, sync and move the segment into place.
+   *
+   * @return number of rows written
+   */
+  long finish() throws IOException {
+    long indexOffset = channel.position();
+    entries.flip();
+    write(entries);
+
+    ByteBuffer footer = ByteBuffer.allocate(CompletionSegment.FOOTER_BYTES);
+    footer
+        .putInt(CompletionSegment.MAGIC)
+        .putInt(month.getYear())
+        .putInt(month.getMonthValue())
+        .putInt(taskCount)
+        .putLong(indexOffset)
+        .flip();
+    write(footer);
+
+    channel.force(true);
+    channel.close();
+    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    finished = true;
+    return rowCount;
+  }
+
+  Path target() {
+    return target;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!finished) {
+      channel.close();
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private void write(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,442 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.circlemodule.CircleTimeZones;
+import com.circlesync.circlesync.shared.events.AfterCommitEvents;
+import com.circlesync.circlesync.shared.events.TaskCompleted;
+import com.circlesync.circlesync.shared.outbox.Outbox;
+import com.circlesync.circlesync.taskmodule.dto.CompleteTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.TaskCompletionResponse;
+import com.circlesync.circlesync.taskmodule.exception.CompletionBacklogFullException;
+import com.circlesync.circlesync.taskmodule.repository.CompletionCalendarRepository;
+import com.circlesync.circlesync.taskmodule.repository.InsertedCompletion;
+import com.circlesync.circlesync.taskmodule.repository.TaskCompletionRepository;
+import com.circlesync.circlesync.taskmodule.repository.TaskRepository;
+import com.circlesync.circlesync.taskmodule.service.CompletionJournal.Entry;
+import com.circlesync.circlesync.taskmodule.service.CompletionJournal.PendingCompletion;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional write-behind ingestion for completions. Completions are journaled to local disk, queued
+ * in memory and acknowledged once the journal is forced; a single writer drains the queue and
+ * group-commits whatever arrived within the flush interval in one transaction, so evening spikes
+ * hold one task database connection instead of one per request. A full queue rejects new
+ * completions so callers back off, and the writer replays the journal before anything newer so
+ * acknowledged completions survive a crash. Startup only reads the journal, so it does not wait
+ * for the task database.
+ *
+ * <p>The journal is only trimmed up to the last committed completion. While the task database is
+ * unreachable the writer retries with backoff and the queue fills up; a completion that fails on
+ * its own is moved to a dead-letter journal next to the main one instead of being dropped. Any
+ * other failure leaves the batch pending and the writer retries it with backoff: completions
+ * already committed are skipped by the insert, so a batch in an unknown state is safe to repeat.
+ */
+@Component
+@ConditionalOnProperty(prefix = "circlesync.completions.write-behind", name = "enabled")
+@Slf4j
+public class CompletionWriteBehind implements SmartLifecycle {
+
+  private static final long INITIAL_RETRY_BACKOFF_MS = 100;
+  private static final long MAX_RETRY_BACKOFF_MS = 5_000;
+  private static final Comparator<UserDay> USER_DAY_ORDER =
+      Comparator.comparing(UserDay::userId).thenComparing(UserDay::date);
+
+  private final TaskRepository taskRepository;
+  private final TaskCompletionRepository taskCompletionRepository;
+  private final CompletionCalendarRepository completionCalendarRepository;
+  private final StreakEngine streakEngine;
+  private final CircleLeaderboards circleLeaderboards;
+  private final CircleTimeZones circleTimeZones;
+  private final CompletionArchive completionArchive;
+  private final CompletionPartitionManager partitionManager;
+  private final AfterCommitEvents events;
+  private final Outbox outbox;
+  private final TransactionTemplate transactionTemplate;
+  private final BlockingQueue<Entry> queue;
+  private final Path journalPath;
+  private final Path deadLetterPath;
+  private final int batchSize;
+  private final long flushIntervalNanos;
+  private final Object acceptLock = new Object();
+
+  private CompletionJournal journal;
+  private CompletionJournal deadLetters;
+  private Thread writer;
+  private volatile boolean running;
+  private volatile boolean stopping;
+
+  public CompletionWriteBehind(
+      TaskRepository taskRepository,
+      TaskCompletionRepository taskCompletionRepository,
+      CompletionCalendarRepository completionCalendarRepository,
+      StreakEngine streakEngine,
+      CircleLeaderboards circleLeaderboards,
+      CircleTimeZones circleTimeZones,
+      CompletionArchive completionArchive,
+      CompletionPartitionManager partitionManager,
+      AfterCommitEvents events,
+      @Qualifier("taskOutbox") Outbox outbox,
+      @Qualifier("taskTransactionManager") PlatformTransactionManager transactionManager,
+      @Value("${circlesync.completions.write-behind.queue-capacity:10000}") int queueCapacity,
+      @Value("${circlesync.completions.write-behind.batch-size:256}") int batchSize,
+      @Value("${circlesync.completions.write-behind.flush-interval-ms:5}") long flushIntervalMs,
+      @Value("${circlesync.completions.write-behind.journal:data/completion-journal.log}")
+          String journalPath) {
+    this.taskRepository = taskRepository;
+    this.taskCompletionRepository = taskCompletionRepository;
+    this.completionCalendarRepository = completionCalendarRepository;
+    this.streakEngine = streakEngine;
+    this.circleLeaderboards = circleLeaderboards;
+    this.circleTimeZones = circleTimeZones;
+    this.completionArchive = completionArchive;
+    this.partitionManager = partitionManager;
+    this.events = events;
+    this.outbox = outbox;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.journalPath = Path.of(journalPath);
+    this.deadLetterPath = this.journalPath.resolveSibling(this.journalPath.getFileName() + ".dead");
+    this.batchSize = batchSize;
+    this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+  }
+
+  /**
+   * Accept a completion for asynchronous commit. Returns once the completion is on disk.
+   *
+   * @param taskId the task ID
+   * @param request the complete task request
+   * @return a provisional completion response without an ID, and without a date unless the
+   *     request has one; the default date is the acceptance day in the circle's time zone
+   * @throws CompletionBacklogFullException if the queue is full
+   * @throws IllegalArgumentException if the requested date is in an archived or detached month
+   */
+  public TaskCompletionResponse accept(UUID taskId, CompleteTaskRequest request) {
+    if (request.getDate() != null) {
+      completionArchive.requireNotArchived(request.getDate());
+      partitionManager.requireAttached(request.getDate());
+    }
+    PendingCompletion completion =
+        new PendingCompletion(
+            taskId, request.getUserId(), request.getNotes(), request.getDate(), Instant.now());
+
+    long offset;
+    synchronized (acceptLock) {
+      if (!running || queue.remainingCapacity() == 0) {
+        throw new CompletionBacklogFullException(
+            "Completion queue is full or shutting down, please retry shortly");
+      }
+      offset = journal.append(completion);
+      queue.add(new Entry(completion, offset));
+    }
+    // Outside the lock, so completions accepted meanwhile share this force
+    journal.sync(offset);
+
+    return new TaskCompletionResponse(
+        null,
+        taskId,
+        request.getUserId(),
+        LocalDateTime.now(),
+        request.getNotes(),
+        request.getDate());
+  }
+
+  @Override
+  public void start() {
+    try {
+      journal = new CompletionJournal(journalPath);
+      deadLetters = new CompletionJournal(deadLetterPath);
+      int deadLettered = deadLetters.recover().size();
+      if (deadLettered > 0) {
+        log.warn(
+            "{} completions that could not be committed are in {}", deadLettered, deadLetterPath);
+      }
+
+      Deque<Entry> replay = new ArrayDeque<>(journal.recover());
+      if (!replay.isEmpty()) {
+        log.info("Replaying {} journaled completions", replay.size());
+      }
+      running = true;
+      writer = Thread.ofPlatform().name("completion-write-behind").start(() -> drain(replay));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open completion journal " + journalPath, e);
+    }
+    log.info("Write-behind completion ingestion started, journal: {}", journalPath);
+  }
+
+  @Override
+  public void stop() {
+    stopping = true;
+    running = false;
+    try {
+      writer.join();
+      journal.close();
+      deadLetters.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      log.warn("Failed to close completion journal", e);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /** Commit the journaled completions to replay, then whatever is queued, until stopped. */
+  private void drain(Deque<Entry> replay) {
+    List<Entry> pending = null;
+    long backoffMs = INITIAL_RETRY_BACKOFF_MS;
+    while (running || pending != null || !replay.isEmpty() || !queue.isEmpty()) {
+      try {
+        if (pending == null) {
+          pending = replay.isEmpty() ? nextBatch() : replayBatch(replay);
+          if (pending == null) {
+            continue;
+          }
+        }
+
+        if (!commit(pending)) {
+          log.warn(
+              "Stopped with {} completions uncommitted; they stay journaled for the next start",
+              pending.size() + replay.size() + queue.size());
+          return;
+        }
+        // Replay and queue order are journal order, so everything up to here is committed
+        journal.commitUpTo(pending.getLast().offset());
+        pending = null;
+        backoffMs = INITIAL_RETRY_BACKOFF_MS;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        if (stopping) {
+          log.error("Write-behind completion batch failed while stopping; it stays journaled", e);
+          return;
+        }
+        log.error("Write-behind completion batch failed, retrying in {} ms", backoffMs, e);
+        try {
+          Thread.sleep(backoffMs);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+      }
+    }
+  }
+
+  private List<Entry> replayBatch(Deque<Entry> replay) {
+    List<Entry> batch = new ArrayList<>(Math.min(batchSize, replay.size()));
+    while (batch.size() < batchSize && !replay.isEmpty()) {
+      batch.add(replay.poll());
+    }
+    return batch;
+  }
+
+  /** Wait for the next queued completion and group it with those arriving within the interval. */
+  private List<Entry> nextBatch() throws InterruptedException {
+    Entry first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+    if (first == null) {
+      return null;
+    }
+
+    List<Entry> batch = new ArrayList<>(batchSize);
+    batch.add(first);
+    long deadline = System.nanoTime() + flushIntervalNanos;
+    while (batch.size() < batchSize) {
+      queue.drainTo(batch, batchSize - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= batchSize || remaining <= 0) {
+        break;
+      }
+      Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        break;
+      }
+      batch.add(next);
+    }
+    return batch;
+  }
+
+  /**
+   * Commit a batch, falling back to one completion at a time so one bad completion cannot sink
+   * the rest of the group. Completions that still fail are dead-lettered.
+   *
+   * @return false if stopping cut the retries short and the batch may be partly uncommitted
+   */
+  private boolean commit(List<Entry> batch) {
+    Outcome outcome = attempt(batch);
+    if (outcome != Outcome.FAILED) {
+      return outcome == Outcome.COMMITTED;
+    }
+
+    log.warn("Group commit of {} completions failed, retrying one by one", batch.size());
+    for (Entry entry : batch) {
+      Outcome single = attempt(List.of(entry));
+      if (single == Outcome.ABANDONED) {
+        return false;
+      }
+      if (single == Outcome.FAILED) {
+        deadLetters.sync(deadLetters.append(entry.completion()));
+        log.error(
+            "Moved completion {} that cannot be committed to {}",
+            entry.completion(),
+            deadLetterPath);
+      }
+    }
+    return true;
+  }
+
+  /** Run one transaction, retrying with backoff for as long as the database is unreachable. */
+  private Outcome attempt(List<Entry> entries) {
+    long backoffMs = INITIAL_RETRY_BACKOFF_MS;
+    while (true) {
+      try {
+        transactionTemplate.executeWithoutResult(status -> apply(resolveDates(entries)));
+        log.debug("Group-committed {} completions", entries.size());
+        return Outcome.COMMITTED;
+      } catch (RuntimeException e) {
+        if (!isTransient(e)) {
+          log.warn("Committing {} completions failed", entries.size(), e);
+          return Outcome.FAILED;
+        }
+        if (stopping) {
+          return Outcome.ABANDONED;
+        }
+        log.warn(
+            "Task database unavailable, retrying {} completions in {} ms",
+            entries.size(),
+            backoffMs,
+            e);
+      }
+      try {
+        Thread.sleep(backoffMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return Outcome.ABANDONED;
+      }
+      backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+    }
+  }
+
+  private static boolean isTransient(RuntimeException e) {
+    return e instanceof TransientDataAccessException
+        || e instanceof RecoverableDataAccessException
+        || e instanceof DataAccessResourceFailureException
+        || e instanceof CannotCreateTransactionException;
+  }
+
+  /** Give completions without a date the day they were accepted in their circle's time zone. */
+  private List<PendingCompletion> resolveDates(List<Entry> entries) {
+    Set<UUID> undated = new HashSet<>();
+    for (Entry entry : entries) {
+      if (entry.completion().date() == null) {
+        undated.add(entry.completion().taskId());
+      }
+    }
+
+    Map<UUID, UUID> circleByTask = new HashMap<>();
+    Map<UUID, ZoneId> zones = Map.of();
+    if (!undated.isEmpty()) {
+      for (Object[] row : taskRepository.findCircleIdsByIdIn(undated)) {
+        circleByTask.put((UUID) row[0], (UUID) row[1]);
+      }
+      zones = circleTimeZones.zonesOf(circleByTask.values());
+    }
+
+    List<PendingCompletion> resolved = new ArrayList<>(entries.size());
+    for (Entry entry : entries) {
+      PendingCompletion completion = entry.completion();
+      if (completion.date() == null) {
+        UUID circleId = circleByTask.get(completion.taskId());
+        // Unknown tasks are skipped by the insert, so any zone will do for them
+        ZoneId zone = circleId != null ? zones.get(circleId) : ZoneOffset.UTC;
+        completion = completion.withDate(LocalDate.ofInstant(completion.acceptedAt(), zone));
+      }
+      resolved.add(completion);
+    }
+    return resolved;
+  }
+
+  private void apply(List<PendingCompletion> batch) {
+    // In user order, so concurrent batches take the outbox's per-user locks in the same order
+    Map<UserDay, List<InsertedCompletion>> insertedByUserDay = new TreeMap<>(USER_DAY_ORDER);
+    for (PendingCompletion completion : batch) {
+      InsertedCompletion inserted =
+          taskCompletionRepository
+              .insertIfAbsent(
+                  completion.taskId(), completion.userId(), completion.notes(), completion.date())
+              .orElse(null);
+      if (inserted == null) {
+        log.debug("Skipping duplicate, unknown or archived completion {}", completion);
+        continue;
+      }
+      insertedByUserDay
+          .computeIfAbsent(
+              new UserDay(completion.userId(), completion.date()), key -> new ArrayList<>())
+          .add(inserted);
+      circleLeaderboards.recordCompletionAfterCommit(inserted);
+    }
+
+    // Streaks, calendars and the completion event are handled once per user and day for the group
+    insertedByUserDay.forEach(
+        (userDay, inserted) -> {
+          Set<UUID> taskIds = new LinkedHashSet<>();
+          Set<UUID> circleIds = new HashSet<>();
+          for (InsertedCompletion completion : inserted) {
+            taskIds.add(completion.getTaskId());
+            circleIds.add(completion.getCircleId());
+          }
+          streakEngine.applyCompletions(taskIds, userDay.userId(), userDay.date());
+          LocalDate date = userDay.date();
+          completionCalendarRepository.markDayForAll(
+              taskIds, userDay.userId(), date.getYear(), date.getDayOfYear() - 1);
+          TaskCompleted completed = new TaskCompleted(userDay.userId(), date, taskIds, circleIds);
+          events.publishAfterCommit(completed);
+          outbox.append(
+              TaskServiceImpl.COMPLETIONS_TOPIC, userDay.userId(), "TaskCompleted", completed);
+        });
+  }
+
+  private record UserDay(UUID userId, LocalDate date) {}
+
+  private enum Outcome {
+    COMMITTED,
+    FAILED,
+    ABANDONED
+  }
+}
@@ -0,0 +1,39 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import java.util.List;
+
+/**
+ * Bit operations on the day bitmaps stored in completion_calendars. Bit n lives in byte n / 8 at
+ * position n % 8 counted from the least significant bit, matching PostgreSQL's set_bit.
+ */
+final class DayBitmap {
+
+  /** Bytes per yearly bitmap; 46 bytes hold 368 bits, enough for a leap year. */
+  static final int BYTES = 46;
+
+  private DayBitmap() {}
+
+  /**
+   * Sum several bitmaps into per-day counts.
+   *
+   * @param bitmaps the bitmaps to add up
+   * @param length number of days in the year
+   * @return how many bitmaps have each day set
+   */
+  static int[] sum(List<byte[]> bitmaps, int length) {
+    int[] counts = new int[length];
+    for (byte[] days : bitmaps) {
+      for (int index = 0; index < days.length; index++) {
+        int bits = days[index] & 0xFF;
+        while (bits != 0) {
+          int day = (index << 3) + Integer.numberOfTrailingZeros(bits);
+          if (day < length) {
+            counts[day]++;
+          }
+          bits &= bits - 1;
+        }
+      }
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,33 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import java.util.Locale;
+
+/**
+ * Time windows a circle leaderboard can be ranked over.
+ */
+public enum LeaderboardWindow {
+  DAILY,
+  WEEKLY,
+  ALL_TIME;
+
+  /**
+   * Parse a window name such as {@code daily}, {@code weekly} or {@code all-time}.
+   *
+   * @param value the window name, or null for the default weekly window
+   * @return the window
+   */
+  public static LeaderboardWindow from(String value) {
+    if (value == null || value.isBlank()) {
+      return WEEKLY;
+    }
+
+    String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+    for (LeaderboardWindow window : values()) {
+      if (window.name().equals(normalized)) {
+        return window;
+      }
+    }
+    throw new IllegalArgumentException(
+        "Invalid leaderboard window: " + value + ". Must be one of: daily, weekly, all-time");
+  }
+}
@@ -0,0 +1,158 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Compiled form of a task frequency: a repeat unit, an interval and an optional weekday bitmask
+ * (bit 0 = Monday). Occurrences are counted from a start date, so the same compiled rule serves
+ * every task that shares a frequency string.
+ *
+ * <p>Supported frequencies (case-insensitive): {@code DAILY}, {@code WEEKDAYS}, {@code WEEKENDS},
+ * {@code WEEKLY}, {@code BIWEEKLY}, {@code MONTHLY}, a weekday list such as {@code MON,WED,FRI} or
+ * {@code WEEKLY:MON,WED,FRI}, and {@code EVERY n DAYS|WEEKS|MONTHS}.
+ *
+ * @param unit the repeat unit
+ * @param interval repeat every this many units
+ * @param weekdays weekday bitmask, or 0 to use the start date's weekday for weekly rules and every
+ *     day for daily rules
+ */
+record Recurrence(Unit unit, int interval, int weekdays) {
+
+  /** Repeat units. */
+  enum Unit {
+    DAY,
+    WEEK,
+    MONTH
+  }
+
+  private static final int MONDAY_TO_FRIDAY = 0b0011111;
+  private static final int SATURDAY_AND_SUNDAY = 0b1100000;
+  private static final Pattern EVERY =
+      Pattern.compile("EVERY\\s+(\\d{1,3})\\s+(DAY|WEEK|MONTH)S?");
+  private static final Pattern WEEKDAY_LIST =
+      Pattern.compile("(?:WEEKLY\\s*:\\s*)?((?:MON|TUE|WED|THU|FRI|SAT|SUN)(?:\\s*,\\s*\\w+)*)");
+
+  /**
+   * Compile a frequency string.
+   *
+   * @param frequency the task frequency
+   * @return the recurrence, or null if the frequency is blank or not a recognised rule
+   */
+  static Recurrence parse(String frequency) {
+    if (frequency == null || frequency.isBlank()) {
+      return null;
+    }
+
+    String normalized = frequency.trim().toUpperCase(Locale.ROOT);
+    switch (normalized) {
+      case "DAILY":
+        return new Recurrence(Unit.DAY, 1, 0);
+      case "WEEKDAYS":
+        return new Recurrence(Unit.DAY, 1, MONDAY_TO_FRIDAY);
+      case "WEEKENDS":
+        return new Recurrence(Unit.DAY, 1, SATURDAY_AND_SUNDAY);
+      case "WEEKLY":
+        return new Recurrence(Unit.WEEK, 1, 0);
+      case "BIWEEKLY":
+        return new Recurrence(Unit.WEEK, 2, 0);
+      case "MONTHLY":
+        return new Recurrence(Unit.MONTH, 1, 0);
+      default:
+        break;
+    }
+
+    Matcher every = EVERY.matcher(normalized);
+    if (every.matches()) {
+      int interval = Integer.parseInt(every.group(1));
+      return interval < 1 ? null : new Recurrence(Unit.valueOf(every.group(2)), interval, 0);
+    }
+
+    Matcher list = WEEKDAY_LIST.matcher(normalized);
+    if (list.matches()) {
+      int mask = 0;
+      for (String day : list.group(1).split("\\s*,\\s*")) {
+        DayOfWeek dayOfWeek = weekday(day);
+        if (dayOfWeek == null) {
+          return null;
+        }
+        mask |= bit(dayOfWeek);
+      }
+      return new Recurrence(Unit.WEEK, 1, mask);
+    }
+    return null;
+  }
+
+  /**
+   * Check whether the rule has an occurrence on a date.
+   *
+   * @param start the first day the rule applies
+   * @param date the date to check
+   * @return true if the task is due on the date
+   */
+  boolean occursOn(LocalDate start, LocalDate date) {
+    if (date.isBefore(start)) {
+      return false;
+    }
+
+    return switch (unit) {
+      case DAY ->
+          ChronoUnit.DAYS.between(start, date) % interval == 0
+              && (weekdays == 0 || (weekdays & bit(date.getDayOfWeek())) != 0);
+      case WEEK -> {
+        int mask = weekdays != 0 ? weekdays : bit(start.getDayOfWeek());
+        long weeks = ChronoUnit.WEEKS.between(monday(start), monday(date));
+        yield weeks % interval == 0 && (mask & bit(date.getDayOfWeek())) != 0;
+      }
+      case MONTH -> {
+        long months =
+            ChronoUnit.MONTHS.between(start.withDayOfMonth(1), date.withDayOfMonth(1));
+        int day = Math.min(start.getDayOfMonth(), date.lengthOfMonth());
+        yield months % interval == 0 && date.getDayOfMonth() == day;
+      }
+    };
+  }
+
+  /**
+   * Lazily expand the occurrences in a date range.
+   *
+   * @param start the first day the rule applies
+   * @param from first day of the range
+   * @param to last day of the range, inclusive
+   * @return the due dates in ascending order
+   */
+  Stream<LocalDate> occurrences(LocalDate start, LocalDate from, LocalDate to) {
+    LocalDate first = from.isBefore(start) ? start : from;
+    if (unit == Unit.DAY && weekdays == 0) {
+      // Plain day intervals can step straight from one occurrence to the next
+      long offset = Math.floorMod(ChronoUnit.DAYS.between(start, first), (long) interval);
+      LocalDate aligned = offset == 0 ? first : first.plusDays(interval - offset);
+      return Stream.iterate(aligned, d -> !d.isAfter(to), d -> d.plusDays(interval));
+    }
+    return Stream.iterate(first, d -> !d.isAfter(to), d -> d.plusDays(1))
+        .filter(d -> occursOn(start, d));
+  }
+
+  private static LocalDate monday(LocalDate date) {
+    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+  }
+
+  private static int bit(DayOfWeek dayOfWeek) {
+    return 1 << (dayOfWeek.getValue() - 1);
+  }
+
+  private static DayOfWeek weekday(String abbreviation) {
+    for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+      if (dayOfWeek.name().startsWith(abbreviation) && abbreviation.length() == 3) {
+        return dayOfWeek;
+      }
+    }
+    return null;
+  }
+}
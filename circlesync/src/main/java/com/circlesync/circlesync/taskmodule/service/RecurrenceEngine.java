@@ -0,0 +1,91 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.entity.Task;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Works out when tasks are due. Recurring tasks follow their compiled frequency from their due
+ * date, or from their creation date when they have none; other tasks are due on their due date
+ * only. Nothing is persisted per occurrence.
+ */
+@Component
+public class RecurrenceEngine {
+
+  /** Upper bound on distinct frequency strings kept compiled; beyond it rules are recompiled. */
+  private static final int MAX_COMPILED = 1024;
+
+  private final Map<String, Optional<Recurrence>> compiled = new ConcurrentHashMap<>();
+
+  /**
+   * Check whether a task is due on a date.
+   *
+   * @param task the task
+   * @param date the date
+   * @return true if the task is due on the date
+   */
+  public boolean isDueOn(Task task, LocalDate date) {
+    Optional<Recurrence> recurrence = recurrence(task.getFrequency());
+    if (recurrence.isEmpty()) {
+      return date.equals(task.getDueDate());
+    }
+    LocalDate start = start(task);
+    return start != null && recurrence.get().occursOn(start, date);
+  }
+
+  /**
+   * Lazily expand a task's due dates in a date range.
+   *
+   * @param task the task
+   * @param from first day of the range
+   * @param to last day of the range, inclusive
+   * @return the due dates in ascending order
+   */
+  public Stream<LocalDate> occurrences(Task task, LocalDate from, LocalDate to) {
+    Optional<Recurrence> recurrence = recurrence(task.getFrequency());
+    if (recurrence.isEmpty()) {
+      LocalDate dueDate = task.getDueDate();
+      return dueDate != null && !dueDate.isBefore(from) && !dueDate.isAfter(to)
+          ? Stream.of(dueDate)
+          : Stream.empty();
+    }
+    LocalDate start = start(task);
+    return start == null ? Stream.empty() : recurrence.get().occurrences(start, from, to);
+  }
+
+  /**
+   * Check whether a task repeats.
+   *
+   * @param task the task
+   * @return true if the task's frequency is a recognised recurrence rule
+   */
+  public boolean isRecurring(Task task) {
+    return recurrence(task.getFrequency()).isPresent();
+  }
+
+  private Optional<Recurrence> recurrence(String frequency) {
+    if (frequency == null) {
+      return Optional.empty();
+    }
+    Optional<Recurrence> cached = compiled.get(frequency);
+    if (cached != null) {
+      return cached;
+    }
+    Optional<Recurrence> recurrence = Optional.ofNullable(Recurrence.parse(frequency));
+    if (compiled.size() < MAX_COMPILED) {
+      compiled.put(frequency, recurrence);
+    }
+    return recurrence;
+  }
+
+  private static LocalDate start(Task task) {
+    if (task.getDueDate() != null) {
+      return task.getDueDate();
+    }
+    return task.getCreatedAt() != null ? task.getCreatedAt().toLocalDate() : null;
+  }
+}
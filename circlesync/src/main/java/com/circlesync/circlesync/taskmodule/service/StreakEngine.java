@@ -0,0 +1,109 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.repository.StreakRepository;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Computes streaks from completion history. Single completions recompute only the island around
+ * the completion date; the bulk mode rebuilds every streak from scratch, split into hash
+ * partitions that run in parallel, each in its own transaction.
+ */
+@Component
+@Slf4j
+public class StreakEngine {
+
+  private final StreakRepository streakRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int partitions;
+
+  public StreakEngine(
+      StreakRepository streakRepository,
+      @Qualifier("taskTransactionManager") PlatformTransactionManager transactionManager,
+      @Value("${circlesync.streaks.recompute-partitions:4}") int partitions) {
+    this.streakRepository = streakRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.partitions = partitions;
+  }
+
+  /**
+   * Bring a user's streak up to date after a completion, including backdated ones. Must run in the
+   * transaction that inserted the completion.
+   *
+   * @param taskId the task ID
+   * @param userId the user ID
+   * @param completionDate the completion date
+   */
+  public void applyCompletion(UUID taskId, UUID userId, LocalDate completionDate) {
+    streakRepository.recomputeAround(taskId, userId, completionDate);
+    log.debug(
+        "Streak recomputed for task: {} and user: {} around {}", taskId, userId, completionDate);
+  }
+
+  /**
+   * Bring a user's streaks on several tasks up to date after completing them all on one date, in
+   * a single statement. Must run in the transaction that inserted the completions.
+   *
+   * @param taskIds the task IDs
+   * @param userId the user ID
+   * @param completionDate the completion date
+   */
+  public void applyCompletions(Collection<UUID> taskIds, UUID userId, LocalDate completionDate) {
+    streakRepository.recomputeAroundAll(taskIds, userId, completionDate);
+    log.debug(
+        "Streaks recomputed for {} tasks and user: {} around {}",
+        taskIds.size(),
+        userId,
+        completionDate);
+  }
+
+  /**
+   * Recompute every streak from the full completion history.
+   *
+   * @return number of streak rows inserted or updated
+   */
+  public int recomputeAll() {
+    log.info("Recomputing all streaks in {} partitions", partitions);
+    long start = System.nanoTime();
+
+    int updated;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<CompletableFuture<Integer>> results =
+          IntStream.range(0, partitions)
+              .mapToObj(
+                  partition ->
+                      CompletableFuture.supplyAsync(
+                          () ->
+                              transactionTemplate.execute(
+                                  status ->
+                                      streakRepository.recomputePartition(partition, partitions)),
+                          executor))
+              .toList();
+      updated = results.stream().mapToInt(CompletableFuture::join).sum();
+    }
+
+    log.info("Recomputed {} streaks in {} ms", updated, (System.nanoTime() - start) / 1_000_000);
+    return updated;
+  }
+
+  /**
+   * Number of partitions the bulk mode splits the work into.
+   *
+   * @return the partition count
+   */
+  public int getPartitions() {
+    return partitions;
+  }
+}
@@ -0,0 +1,151 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.circlemodule.CircleTimeZones;
+import com.circlesync.circlesync.taskmodule.repository.StreakRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Hourly job that resets lapsed streaks so stored current streaks stay truthful. A streak lapses
+ * at midnight in its circle's time zone, the same zone the streak read paths use, so each run
+ * resets the circles whose day has moved on since the last run. Every app node schedules it, but
+ * only the node that claims the hour in scheduled_runs runs the update.
+ *
+ * <p>Circle time zones live in circles_db, so candidate circles are read in pages of
+ * {@link #PAGE_SIZE}; each page's zones are resolved with one lookup and its streaks reset with
+ * one UPDATE that binds the circles and their cutoffs as two arrays, keeping the statement size
+ * independent of the number of circles.
+ */
+@Component
+@Slf4j
+public class StreakExpirySweeper {
+
+  /** Job name in scheduled_runs, shared by all nodes running the sweep. */
+  static final String JOB = "streak-expiry";
+
+  /** Circles handled per zone lookup and UPDATE. */
+  static final int PAGE_SIZE = 1000;
+
+  private static final UUID FIRST_PAGE = new UUID(0, 0);
+
+  private static final String EXPIRE_BEFORE =
+      "UPDATE streaks s SET current_streak = 0, updated_at = CURRENT_TIMESTAMP"
+          + " FROM tasks t, unnest(CAST(? AS uuid[]), CAST(? AS date[])) AS c(circle_id, cutoff)"
+          + " WHERE t.id = s.task_id AND t.circle_id = c.circle_id"
+          + " AND s.current_streak > 0 AND s.last_completed_date < c.cutoff";
+
+  private final StreakRepository streakRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final CircleTimeZones circleTimeZones;
+  private final Timer sweepTimer;
+  private final Timer skippedTimer;
+  private final Counter rowsCounter;
+
+  public StreakExpirySweeper(
+      StreakRepository streakRepository,
+      @Qualifier("taskJdbcTemplate") JdbcTemplate jdbcTemplate,
+      CircleTimeZones circleTimeZones,
+      MeterRegistry meterRegistry) {
+    this.streakRepository = streakRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.circleTimeZones = circleTimeZones;
+    this.sweepTimer =
+        Timer.builder("circlesync.streaks.expiry")
+            .description("Duration of the streak expiry sweep")
+            .tag("result", "swept")
+            .register(meterRegistry);
+    this.skippedTimer =
+        Timer.builder("circlesync.streaks.expiry")
+            .description("Duration of the streak expiry sweep")
+            .tag("result", "skipped")
+            .register(meterRegistry);
+    this.rowsCounter =
+        Counter.builder("circlesync.streaks.expiry.rows")
+            .description("Streaks reset by the expiry sweep")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Reset every streak not completed yesterday or today in its circle's time zone.
+   *
+   * @return number of streaks reset, or -1 if another node already ran this hour
+   */
+  @Scheduled(cron = "${circlesync.streaks.expiry-cron:0 5 * * * *}")
+  @Transactional("taskTransactionManager")
+  public int sweep() {
+    long start = System.nanoTime();
+
+    LocalDateTime slot = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+    if (streakRepository.claimScheduledRun(JOB, slot) == 0) {
+      log.debug("Streak expiry sweep skipped, another node already ran it for {}", slot);
+      skippedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return -1;
+    }
+
+    // No circle's yesterday is later than yesterday in the easternmost offset, so this finds
+    // every candidate; each circle is then held to its own cutoff
+    LocalDate widestCutoff = LocalDate.now(ZoneOffset.MAX).minusDays(1);
+    int reset = 0;
+    int circles = 0;
+    UUID after = FIRST_PAGE;
+    while (true) {
+      List<UUID> page =
+          streakRepository.findCircleIdsWithStreaksBefore(widestCutoff, after, PAGE_SIZE);
+      if (page.isEmpty()) {
+        break;
+      }
+      reset += expirePage(circleTimeZones.zonesOf(page));
+      circles += page.size();
+      if (page.size() < PAGE_SIZE) {
+        break;
+      }
+      after = page.getLast();
+    }
+
+    long elapsed = System.nanoTime() - start;
+    sweepTimer.record(elapsed, TimeUnit.NANOSECONDS);
+    rowsCounter.increment(reset);
+
+    log.info(
+        "Streak expiry sweep reset {} streaks in {} circles in {} ms",
+        reset,
+        circles,
+        elapsed / 1_000_000);
+    return reset;
+  }
+
+  /** Reset the lapsed streaks of a page of circles, each held to its own local cutoff. */
+  private int expirePage(Map<UUID, ZoneId> zones) {
+    UUID[] circleIds = new UUID[zones.size()];
+    Date[] cutoffs = new Date[zones.size()];
+    int i = 0;
+    for (Map.Entry<UUID, ZoneId> zone : zones.entrySet()) {
+      circleIds[i] = zone.getKey();
+      cutoffs[i] = Date.valueOf(LocalDate.now(zone.getValue()).minusDays(1));
+      i++;
+    }
+    return jdbcTemplate.update(
+        EXPIRE_BEFORE,
+        statement -> {
+          statement.setArray(1, statement.getConnection().createArrayOf("uuid", circleIds));
+          statement.setArray(2, statement.getConnection().createArrayOf("date", cutoffs));
+        });
+  }
+}
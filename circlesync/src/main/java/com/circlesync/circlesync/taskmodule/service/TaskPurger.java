@@ -0,0 +1,96 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.taskmodule.repository.CompletionCalendarRepository;
+import com.circlesync.circlesync.taskmodule.repository.StreakRepository;
+import com.circlesync.circlesync.taskmodule.repository.TaskCompletionRepository;
+import com.circlesync.circlesync.taskmodule.repository.TaskRepository;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Background removal of soft-deleted tasks. Deleting a task only flips its status; this job later
+ * drains the task's completions, streaks and calendars in bounded batches, each in its own short
+ * transaction, and finally removes the task row. Purging is idempotent, so overlapping runs on
+ * several nodes only repeat work.
+ */
+@Component
+@Slf4j
+public class TaskPurger {
+
+  private final TaskRepository taskRepository;
+  private final TaskCompletionRepository taskCompletionRepository;
+  private final StreakRepository streakRepository;
+  private final CompletionCalendarRepository completionCalendarRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final int tasksPerRun;
+
+  public TaskPurger(
+      TaskRepository taskRepository,
+      TaskCompletionRepository taskCompletionRepository,
+      StreakRepository streakRepository,
+      CompletionCalendarRepository completionCalendarRepository,
+      @Qualifier("taskTransactionManager") PlatformTransactionManager transactionManager,
+      @Value("${circlesync.tasks.purge.batch-size:1000}") int batchSize,
+      @Value("${circlesync.tasks.purge.tasks-per-run:50}") int tasksPerRun) {
+    this.taskRepository = taskRepository;
+    this.taskCompletionRepository = taskCompletionRepository;
+    this.streakRepository = streakRepository;
+    this.completionCalendarRepository = completionCalendarRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.tasksPerRun = tasksPerRun;
+  }
+
+  /**
+   * Purge up to {@code tasks-per-run} soft-deleted tasks, oldest deletion first.
+   *
+   * @return number of task rows removed
+   */
+  @Scheduled(fixedDelayString = "${circlesync.tasks.purge.interval:PT1M}")
+  public int purge() {
+    List<UUID> taskIds =
+        transactionTemplate.execute(status -> taskRepository.findDeletedIds(tasksPerRun));
+    if (taskIds == null || taskIds.isEmpty()) {
+      return 0;
+    }
+
+    long start = System.nanoTime();
+    int purged = 0;
+    long rows = 0;
+    for (UUID taskId : taskIds) {
+      rows += drain(() -> taskCompletionRepository.deleteBatchByTaskId(taskId, batchSize));
+      rows += drain(() -> streakRepository.deleteBatchByTaskId(taskId, batchSize));
+      rows += drain(() -> completionCalendarRepository.deleteBatchByTaskId(taskId, batchSize));
+      Integer deleted = transactionTemplate.execute(status -> taskRepository.deletePurged(taskId));
+      purged += deleted == null ? 0 : deleted;
+    }
+
+    log.info(
+        "Purged {} deleted tasks and {} dependent rows in {} ms",
+        purged,
+        rows,
+        (System.nanoTime() - start) / 1_000_000);
+    return purged;
+  }
+
+  /** Run a batch delete in fresh transactions until it comes back short. */
+  private long drain(IntSupplier batch) {
+    long total = 0;
+    int deleted;
+    do {
+      Integer result = transactionTemplate.execute(status -> batch.getAsInt());
+      deleted = result == null ? 0 : result;
+      total += deleted;
+    } while (deleted >= batchSize);
+    return total;
+  }
+}
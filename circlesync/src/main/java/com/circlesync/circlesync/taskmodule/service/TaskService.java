@@ -1,13 +1,26 @@
 package com.circlesync.circlesync.taskmodule.service;
 
+import com.circlesync.circlesync.taskmodule.dto.AgendaResponse;
+import com.circlesync.circlesync.taskmodule.dto.BulkCompleteTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.BulkCompleteTaskResponse;
+import com.circlesync.circlesync.taskmodule.dto.CalendarBackfillResponse;
 import com.circlesync.circlesync.taskmodule.dto.CompleteTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.CompletionPageResponse;
 import com.circlesync.circlesync.taskmodule.dto.CreateTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.HeatmapResponse;
+import com.circlesync.circlesync.taskmodule.dto.LeaderboardResponse;
+import com.circlesync.circlesync.taskmodule.dto.StreakRecomputeResponse;
 import com.circlesync.circlesync.taskmodule.dto.StreakResponse;
 import com.circlesync.circlesync.taskmodule.dto.TaskCompletionResponse;
+import com.circlesync.circlesync.taskmodule.dto.TaskPageResponse;
 import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
 import com.circlesync.circlesync.taskmodule.dto.UpdateTaskRequest;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Service interface for task operations.
@@ -40,7 +53,8 @@ public interface TaskService {
   TaskResponse updateTask(String id, UpdateTaskRequest request);
 
   /**
-   * Delete a task by ID.
+   * Delete a task by ID. The task is soft-deleted right away; its completions and streaks are
+   * purged in the background.
    *
    * @param id the task ID
    */
@@ -54,6 +68,14 @@ public interface TaskService {
    */
   List<TaskResponse> getCircleTasks(String circleId);
 
+  /**
+   * Pass the tasks of a circle to a consumer as they are read, within one read-only transaction.
+   *
+   * @param circleId the circle ID
+   * @param consumer receives each task response
+   */
+  void streamCircleTasks(String circleId, Consumer<TaskResponse> consumer);
+
   /**
    * Get today's tasks for a circle.
    *
@@ -62,6 +84,37 @@ public interface TaskService {
    */
   List<TaskResponse> getCircleTodayTasks(String circleId);
 
+  /**
+   * Get a circle's agenda: the tasks due on each day of a date range, recurring habits included.
+   *
+   * @param circleId the circle ID
+   * @param from first day of the range, or null for the start of the current week
+   * @param to last day of the range, or null for the end of the week starting at from
+   * @return the agenda response
+   */
+  AgendaResponse getCircleAgenda(String circleId, LocalDate from, LocalDate to);
+
+  /**
+   * Get one page of the tasks assigned to a user across all circles.
+   *
+   * @param userId the user ID
+   * @param status the task status
+   * @param circleId optional circle ID filter
+   * @param dueFrom optional earliest due date
+   * @param dueTo optional latest due date
+   * @param cursor cursor from the previous page, or null for the first page
+   * @param limit page size, or null for the default
+   * @return the task page response
+   */
+  TaskPageResponse getAssignedTasks(
+      String userId,
+      String status,
+      String circleId,
+      LocalDate dueFrom,
+      LocalDate dueTo,
+      String cursor,
+      Integer limit);
+
   /**
    * Complete a task.
    *
@@ -72,12 +125,26 @@ public interface TaskService {
   TaskCompletionResponse completeTask(String id, CompleteTaskRequest request);
 
   /**
-   * Get completion history for a task.
+   * Complete several tasks for one user in a single transaction.
+   *
+   * @param request the bulk complete request
+   * @return one result per requested task
+   */
+  BulkCompleteTaskResponse completeTasks(BulkCompleteTaskRequest request);
+
+  /**
+   * Get one page of a task's completion history, newest first.
    *
    * @param id the task ID
-   * @return list of task completion responses
+   * @param from optional first day of the range
+   * @param to optional last day of the range
+   * @param userId optional user ID filter
+   * @param cursor cursor from the previous page, or null for the first page
+   * @param limit page size, or null for the default
+   * @return the completion page response
    */
-  List<TaskCompletionResponse> getTaskCompletions(String id);
+  CompletionPageResponse getTaskCompletions(
+      String id, LocalDate from, LocalDate to, String userId, String cursor, Integer limit);
 
   /**
    * Get a user's streak for a task.
@@ -87,4 +154,73 @@ public interface TaskService {
    * @return the streak response
    */
   StreakResponse getUserStreak(String taskId, String userId);
+
+  /**
+   * Get all of a user's streaks.
+   *
+   * @param userId the user ID
+   * @return the user's streaks
+   */
+  List<StreakResponse> getUserStreaks(String userId);
+
+  /**
+   * Get the tasks due today in several circles. Circles with a cached agenda for that day are
+   * served from the cache; the others are read with a single task query.
+   *
+   * @param todayByCircle each circle ID mapped to its local date
+   * @return each circle ID mapped to its tasks due that day
+   */
+  Map<UUID, List<TaskResponse>> getTodayTasksForCircles(Map<UUID, LocalDate> todayByCircle);
+
+  /**
+   * Get the active tasks of several circles with a single task query.
+   *
+   * @param circleIds the circle IDs
+   * @return each circle ID mapped to its active tasks
+   */
+  Map<UUID, List<TaskResponse>> getActiveTasksForCircles(Collection<UUID> circleIds);
+
+  /**
+   * Get a user's yearly completion heatmap for a task.
+   *
+   * @param taskId the task ID
+   * @param userId the user ID
+   * @param year the calendar year, or null for the current year
+   * @return the heatmap response
+   */
+  HeatmapResponse getUserHeatmap(String taskId, String userId, Integer year);
+
+  /**
+   * Get a user's yearly completion heatmap rolled up over every task in a circle.
+   *
+   * @param circleId the circle ID
+   * @param userId the user ID
+   * @param year the calendar year, or null for the current year
+   * @return the heatmap response
+   */
+  HeatmapResponse getCircleHeatmap(String circleId, String userId, Integer year);
+
+  /**
+   * Recompute all streaks from the full completion history.
+   *
+   * @return the recomputation summary
+   */
+  StreakRecomputeResponse recomputeAllStreaks();
+
+  /**
+   * Fill the completion calendars from the completion history, keeping days already marked.
+   *
+   * @return the backfill summary
+   */
+  CalendarBackfillResponse backfillCompletionCalendars();
+
+  /**
+   * Get a circle's points leaderboard.
+   *
+   * @param circleId the circle ID
+   * @param window the leaderboard window (daily, weekly or all-time)
+   * @param limit maximum number of entries, or null for the default
+   * @return the leaderboard response
+   */
+  LeaderboardResponse getCircleLeaderboard(String circleId, String window, Integer limit);
 }
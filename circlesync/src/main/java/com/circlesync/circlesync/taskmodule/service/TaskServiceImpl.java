@@ -1,11 +1,27 @@
 package com.circlesync.circlesync.taskmodule.service;
 
+import com.circlesync.circlesync.circlemodule.CircleTimeZones;
+import com.circlesync.circlesync.shared.events.AfterCommitEvents;
+import com.circlesync.circlesync.shared.events.TaskCompleted;
+import com.circlesync.circlesync.shared.outbox.Outbox;
+import com.circlesync.circlesync.taskmodule.dto.AgendaDayResponse;
+import com.circlesync.circlesync.taskmodule.dto.AgendaResponse;
+import com.circlesync.circlesync.taskmodule.dto.BulkCompleteTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.BulkCompleteTaskResponse;
+import com.circlesync.circlesync.taskmodule.dto.BulkCompletionResult;
+import com.circlesync.circlesync.taskmodule.dto.CalendarBackfillResponse;
 import com.circlesync.circlesync.taskmodule.dto.CompleteTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.CompletionPageResponse;
 import com.circlesync.circlesync.taskmodule.dto.CreateTaskRequest;
+import com.circlesync.circlesync.taskmodule.dto.HeatmapResponse;
+import com.circlesync.circlesync.taskmodule.dto.LeaderboardResponse;
+import com.circlesync.circlesync.taskmodule.dto.StreakRecomputeResponse;
 import com.circlesync.circlesync.taskmodule.dto.StreakResponse;
 import com.circlesync.circlesync.taskmodule.dto.TaskCompletionResponse;
+import com.circlesync.circlesync.taskmodule.dto.TaskPageResponse;
 import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
 import com.circlesync.circlesync.taskmodule.dto.UpdateTaskRequest;
+import com.circlesync.circlesync.taskmodule.entity.CompletionCalendar;
 import com.circlesync.circlesync.taskmodule.entity.Streak;
 import com.circlesync.circlesync.taskmodule.entity.Task;
 import com.circlesync.circlesync.taskmodule.entity.TaskCompletion;
@@ -13,17 +29,42 @@ import com.circlesync.circlesync.taskmodule.exception.TaskNotFoundException;
 import com.circlesync.circlesync.taskmodule.mapper.StreakMapper;
 import com.circlesync.circlesync.taskmodule.mapper.TaskCompletionMapper;
 import com.circlesync.circlesync.taskmodule.mapper.TaskMapper;
+import com.circlesync.circlesync.taskmodule.repository.CompletionCalendarRepository;
+import com.circlesync.circlesync.taskmodule.repository.InsertedCompletion;
 import com.circlesync.circlesync.taskmodule.repository.StreakRepository;
 import com.circlesync.circlesync.taskmodule.repository.TaskCompletionRepository;
 import com.circlesync.circlesync.taskmodule.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -32,15 +73,47 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional
+@Transactional("taskTransactionManager")
 public class TaskServiceImpl implements TaskService {
 
+  private static final String DELETED = "DELETED";
+  // Outbox topics; task messages are keyed by circle ID and completions by user ID
+  static final String TASKS_TOPIC = "circlesync.tasks";
+  static final String COMPLETIONS_TOPIC = "circlesync.task-completions";
+  private static final int DEFAULT_LEADERBOARD_SIZE = 10;
+  private static final int MAX_LEADERBOARD_SIZE = 100;
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final LocalDate MIN_DATE = LocalDate.of(1970, 1, 1);
+  private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+  private static final int MAX_AGENDA_DAYS = 92;
+  private static final Comparator<TaskCompletion> NEWEST_FIRST =
+      Comparator.comparing(TaskCompletion::getDate)
+          .thenComparing(TaskCompletion::getId, TaskServiceImpl::compareIds)
+          .reversed();
+
   private final TaskRepository taskRepository;
   private final TaskCompletionRepository taskCompletionRepository;
   private final StreakRepository streakRepository;
+  private final CompletionCalendarRepository completionCalendarRepository;
   private final TaskMapper taskMapper;
   private final TaskCompletionMapper taskCompletionMapper;
   private final StreakMapper streakMapper;
+  private final StreakEngine streakEngine;
+  private final CircleLeaderboards circleLeaderboards;
+  private final RecurrenceEngine recurrenceEngine;
+  private final CompletionArchive completionArchive;
+  private final CompletionPartitionManager partitionManager;
+  private final CompletionCalendarBackfill completionCalendarBackfill;
+  private final TodayAgendaCache todayAgendaCache;
+  private final CircleTimeZones circleTimeZones;
+  private final AfterCommitEvents events;
+
+  @Qualifier("taskOutbox")
+  private final Outbox outbox;
+
+  @PersistenceContext(unitName = "task")
+  private EntityManager entityManager;
 
   @Override
   public TaskResponse createTask(CreateTaskRequest request) {
@@ -54,20 +127,23 @@ public class TaskServiceImpl implements TaskService {
     }
 
     Task savedTask = taskRepository.save(task);
+    todayAgendaCache.evictAfterCommit(savedTask.getCircleId());
+    TaskResponse response = taskMapper.toResponse(savedTask);
+    outbox.append(TASKS_TOPIC, savedTask.getCircleId(), "TaskCreated", response);
     log.info("Task created successfully with ID: {}", savedTask.getId());
 
-    return taskMapper.toResponse(savedTask);
+    return response;
   }
 
   @Override
-  @Transactional(readOnly = true)
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
   public TaskResponse getTaskById(String id) {
     log.info("Fetching task with ID: {}", id);
 
     UUID taskId = UUID.fromString(id);
     Task task =
         taskRepository
-            .findById(taskId)
+            .findByIdAndStatusNot(taskId, DELETED)
             .orElseThrow(() -> new TaskNotFoundException("Task not found with ID: " + id));
 
     return taskMapper.toResponse(task);
@@ -80,31 +156,41 @@ public class TaskServiceImpl implements TaskService {
     UUID taskId = UUID.fromString(id);
     Task task =
         taskRepository
-            .findById(taskId)
+            .findByIdAndStatusNot(taskId, DELETED)
             .orElseThrow(() -> new TaskNotFoundException("Task not found with ID: " + id));
+    if (DELETED.equalsIgnoreCase(request.getStatus())) {
+      throw new IllegalArgumentException("Tasks are deleted through DELETE, not by status update");
+    }
 
     taskMapper.patchEntityFromRequest(request, task);
     Task updatedTask = taskRepository.save(task);
+    todayAgendaCache.evictAfterCommit(updatedTask.getCircleId());
+    TaskResponse response = taskMapper.toResponse(updatedTask);
+    outbox.append(TASKS_TOPIC, updatedTask.getCircleId(), "TaskUpdated", response);
 
     log.info("Task updated successfully: {}", id);
-    return taskMapper.toResponse(updatedTask);
+    return response;
   }
 
   @Override
   public void deleteTask(String id) {
     log.info("Deleting task with ID: {}", id);
 
+    // Soft delete only; TaskPurger removes completions, streaks and calendars in batches
     UUID taskId = UUID.fromString(id);
-    if (!taskRepository.existsById(taskId)) {
-      throw new TaskNotFoundException("Task not found with ID: " + id);
-    }
+    UUID circleId =
+        taskRepository
+            .markDeleted(taskId)
+            .orElseThrow(() -> new TaskNotFoundException("Task not found with ID: " + id));
+    todayAgendaCache.evictAfterCommit(circleId);
+    outbox.append(
+        TASKS_TOPIC, circleId, "TaskDeleted", Map.of("taskId", taskId, "circleId", circleId));
 
-    taskRepository.deleteById(taskId);
-    log.info("Task deleted successfully: {}", id);
+    log.info("Task marked deleted: {}", id);
   }
 
   @Override
-  @Transactional(readOnly = true)
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
   public List<TaskResponse> getCircleTasks(String circleId) {
     log.info("Fetching tasks for circle: {}", circleId);
 
@@ -115,15 +201,123 @@ public class TaskServiceImpl implements TaskService {
   }
 
   @Override
-  @Transactional(readOnly = true)
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
+  public void streamCircleTasks(String circleId, Consumer<TaskResponse> consumer) {
+    log.info("Streaming tasks for circle: {}", circleId);
+
+    UUID uuid = UUID.fromString(circleId);
+    try (Stream<Task> tasks = taskRepository.streamByCircleIdAndStatus(uuid, "ACTIVE")) {
+      tasks.forEach(
+          task -> {
+            consumer.accept(taskMapper.toResponse(task));
+            // Keep the persistence context from growing with the circle
+            entityManager.detach(task);
+          });
+    }
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public List<TaskResponse> getCircleTodayTasks(String circleId) {
     log.info("Fetching today's tasks for circle: {}", circleId);
 
     UUID uuid = UUID.fromString(circleId);
-    LocalDate today = LocalDate.now();
-    List<Task> tasks = taskRepository.findByCircleIdAndDueDateToday(uuid, today);
 
-    return tasks.stream().map(taskMapper::toResponse).collect(Collectors.toList());
+    // Recurring habits have no per-day rows, so a miss expands the circle's active tasks in memory
+    return todayAgendaCache.get(
+        uuid,
+        today ->
+            taskRepository.findByCircleIdAndStatus(uuid, "ACTIVE").stream()
+                .filter(task -> recurrenceEngine.isDueOn(task, today))
+                .map(taskMapper::toResponse)
+                .toList());
+  }
+
+  @Override
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
+  public AgendaResponse getCircleAgenda(String circleId, LocalDate from, LocalDate to) {
+    UUID uuid = UUID.fromString(circleId);
+    LocalDate start =
+        from != null
+            ? from
+            : LocalDate.now(circleTimeZones.zoneOf(uuid))
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    LocalDate end = to != null ? to : start.plusDays(6);
+    if (end.isBefore(start) || ChronoUnit.DAYS.between(start, end) >= MAX_AGENDA_DAYS) {
+      throw new IllegalArgumentException(
+          "Agenda range must end on or after its start and span at most "
+              + MAX_AGENDA_DAYS
+              + " days");
+    }
+    log.info("Fetching agenda for circle: {} from {} to {}", circleId, start, end);
+
+    Map<LocalDate, List<TaskResponse>> byDate = new TreeMap<>();
+    for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+      byDate.put(date, new ArrayList<>());
+    }
+    for (Task task : taskRepository.findByCircleIdAndStatus(uuid, "ACTIVE")) {
+      TaskResponse response = taskMapper.toResponse(task);
+      recurrenceEngine
+          .occurrences(task, start, end)
+          .forEach(date -> byDate.get(date).add(response));
+    }
+
+    List<AgendaDayResponse> days =
+        byDate.entrySet().stream()
+            .map(entry -> new AgendaDayResponse(entry.getKey(), entry.getValue()))
+            .toList();
+    return new AgendaResponse(uuid, start, end, days);
+  }
+
+  @Override
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
+  public TaskPageResponse getAssignedTasks(
+      String userId,
+      String status,
+      String circleId,
+      LocalDate dueFrom,
+      LocalDate dueTo,
+      String cursor,
+      Integer limit) {
+    log.info("Fetching {} tasks assigned to user: {}", status, userId);
+
+    UUID userUuid = UUID.fromString(userId);
+    String circleFilter = circleId != null ? UUID.fromString(circleId).toString() : null;
+    int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    String afterDue = null;
+    String afterId = null;
+    if (cursor != null) {
+      String[] position = decodeCursor(cursor);
+      afterDue = position[0];
+      afterId = position[1];
+    }
+
+    // Fetch one extra row to learn whether another page follows
+    List<Task> tasks =
+        taskRepository.findAssignedPage(
+            userUuid,
+            status.toUpperCase(),
+            circleFilter,
+            dueFrom != null ? dueFrom.toString() : null,
+            dueTo != null ? dueTo.toString() : null,
+            afterDue,
+            afterId,
+            size + 1);
+
+    String nextCursor = null;
+    if (tasks.size() > size) {
+      tasks = tasks.subList(0, size);
+      Task last = tasks.get(size - 1);
+      LocalDate sortDue = last.getDueDate() != null ? last.getDueDate() : MAX_DATE;
+      nextCursor = encodeCursor(sortDue.toString(), last.getId().toString());
+    }
+
+    List<TaskResponse> items = tasks.stream().map(taskMapper::toResponse).toList();
+    return new TaskPageResponse(items, nextCursor);
   }
 
   @Override
@@ -131,67 +325,227 @@ public class TaskServiceImpl implements TaskService {
     log.info("Completing task: {} by user: {}", id, request.getUserId());
 
     UUID taskId = UUID.fromString(id);
-    Task task =
-        taskRepository
-            .findById(taskId)
-            .orElseThrow(() -> new TaskNotFoundException("Task not found with ID: " + id));
-
-    // Set default date if not provided
-    LocalDate completionDate = request.getDate() != null ? request.getDate() : LocalDate.now();
-    request.setDate(completionDate);
+    UUID userId = request.getUserId();
+
+    // Default to today in the task's circle
+    LocalDate completionDate = request.getDate();
+    if (completionDate == null) {
+      completionDate = todayByTask(Set.of(taskId)).get(taskId);
+      if (completionDate == null) {
+        throw new TaskNotFoundException("Task not found with ID: " + id);
+      }
+    }
+    completionArchive.requireNotArchived(completionDate);
+    partitionManager.requireAttached(completionDate);
 
-    // Check if already completed today
-    boolean alreadyCompleted =
-        taskCompletionRepository.existsByTaskIdAndUserIdAndDate(
-            taskId, request.getUserId(), completionDate);
+    // Insert the completion; the unique (task_id, user_id, date) constraint absorbs double-taps
+    Optional<InsertedCompletion> inserted =
+        taskCompletionRepository.insertIfAbsent(
+            taskId, userId, request.getNotes(), completionDate);
 
-    if (alreadyCompleted) {
-      log.warn("Task already completed on this date");
-      // Return existing completion
+    if (inserted.isEmpty()) {
+      // Nothing inserted: either already completed on this date or the task does not exist
       TaskCompletion existing =
           taskCompletionRepository
-              .findByTaskIdAndUserIdAndDate(taskId, request.getUserId(), completionDate)
-              .orElseThrow();
+              .findByTaskIdAndUserIdAndDate(taskId, userId, completionDate)
+              .orElseThrow(() -> new TaskNotFoundException("Task not found with ID: " + id));
+      log.warn("Task already completed on this date");
       return taskCompletionMapper.toResponse(existing);
     }
 
-    // Create completion record
-    TaskCompletion completion = taskCompletionMapper.toEntity(request, taskId);
-    TaskCompletion savedCompletion = taskCompletionRepository.save(completion);
+    // Update or create streak, recomputing around the date so backdated completions are handled
+    streakEngine.applyCompletion(taskId, userId, completionDate);
+
+    // Mark the day on the user's yearly completion calendar
+    completionCalendarRepository.markDay(
+        taskId, userId, completionDate.getYear(), completionDate.getDayOfYear() - 1);
 
-    // Update or create streak
-    updateStreak(taskId, request.getUserId(), completionDate);
+    // Award points on the circle leaderboards once the completion is committed
+    InsertedCompletion completion = inserted.get();
+    circleLeaderboards.recordCompletionAfterCommit(completion);
+    TaskCompleted completed =
+        new TaskCompleted(userId, completionDate, Set.of(taskId), Set.of(completion.getCircleId()));
+    events.publishAfterCommit(completed);
+    outbox.append(COMPLETIONS_TOPIC, userId, "TaskCompleted", completed);
 
     log.info("Task completed successfully: {}", id);
-    return taskCompletionMapper.toResponse(savedCompletion);
+    return taskCompletionMapper.toResponse(completion);
   }
 
   @Override
-  @Transactional(readOnly = true)
-  public List<TaskCompletionResponse> getTaskCompletions(String id) {
+  public BulkCompleteTaskResponse completeTasks(BulkCompleteTaskRequest request) {
+    UUID userId = request.getUserId();
+    Set<UUID> taskIds = new LinkedHashSet<>(request.getTaskIds());
+
+    // Without a date each task is completed today in its own circle, which for tasks of circles
+    // in different time zones can be different days; unknown tasks only need some date
+    Map<LocalDate, Set<UUID>> tasksByDate = new TreeMap<>();
+    if (request.getDate() != null) {
+      tasksByDate.put(request.getDate(), taskIds);
+    } else {
+      Map<UUID, LocalDate> today = todayByTask(taskIds);
+      LocalDate fallback = LocalDate.now(ZoneOffset.UTC);
+      for (UUID taskId : taskIds) {
+        tasksByDate
+            .computeIfAbsent(today.getOrDefault(taskId, fallback), date -> new LinkedHashSet<>())
+            .add(taskId);
+      }
+    }
+    for (LocalDate date : tasksByDate.keySet()) {
+      completionArchive.requireNotArchived(date);
+      partitionManager.requireAttached(date);
+    }
+    log.info("Completing {} tasks by user: {}", taskIds.size(), userId);
+
+    Map<UUID, TaskCompletionResponse> created = new HashMap<>();
+    Map<UUID, TaskCompletionResponse> existing = new HashMap<>();
+    tasksByDate.forEach(
+        (date, ids) -> completeOnDate(userId, ids, request.getNotes(), date, created, existing));
+
+    List<BulkCompletionResult> results = new ArrayList<>(taskIds.size());
+    for (UUID taskId : taskIds) {
+      if (created.containsKey(taskId)) {
+        results.add(new BulkCompletionResult(taskId, "COMPLETED", created.get(taskId)));
+      } else if (existing.containsKey(taskId)) {
+        results.add(new BulkCompletionResult(taskId, "ALREADY_COMPLETED", existing.get(taskId)));
+      } else {
+        results.add(new BulkCompletionResult(taskId, "NOT_FOUND", null));
+      }
+    }
+
+    log.info("Completed {} of {} tasks for user: {}", created.size(), taskIds.size(), userId);
+    LocalDate date = tasksByDate.size() == 1 ? tasksByDate.keySet().iterator().next() : null;
+    return new BulkCompleteTaskResponse(userId, date, created.size(), results);
+  }
+
+  /** Complete tasks on one date, collecting what was inserted and what already existed. */
+  private void completeOnDate(
+      UUID userId,
+      Set<UUID> taskIds,
+      String notes,
+      LocalDate completionDate,
+      Map<UUID, TaskCompletionResponse> created,
+      Map<UUID, TaskCompletionResponse> existing) {
+    // One insert for every task; conflicts and unknown task IDs are skipped by the statement
+    List<InsertedCompletion> inserted =
+        taskCompletionRepository.insertAllIfAbsent(taskIds, userId, notes, completionDate);
+
+    Set<UUID> createdIds = new LinkedHashSet<>();
+    for (InsertedCompletion completion : inserted) {
+      created.put(completion.getTaskId(), taskCompletionMapper.toResponse(completion));
+      createdIds.add(completion.getTaskId());
+    }
+
+    if (!createdIds.isEmpty()) {
+      streakEngine.applyCompletions(createdIds, userId, completionDate);
+      completionCalendarRepository.markDayForAll(
+          createdIds, userId, completionDate.getYear(), completionDate.getDayOfYear() - 1);
+      Set<UUID> circleIds = new HashSet<>();
+      for (InsertedCompletion completion : inserted) {
+        circleLeaderboards.recordCompletionAfterCommit(completion);
+        circleIds.add(completion.getCircleId());
+      }
+      TaskCompleted completed =
+          new TaskCompleted(userId, completionDate, Set.copyOf(createdIds), circleIds);
+      events.publishAfterCommit(completed);
+      outbox.append(COMPLETIONS_TOPIC, userId, "TaskCompleted", completed);
+    }
+
+    // Tell apart duplicates from unknown tasks among whatever was not inserted
+    if (createdIds.size() < taskIds.size()) {
+      List<UUID> remaining = taskIds.stream().filter(id -> !createdIds.contains(id)).toList();
+      for (TaskCompletion completion :
+          taskCompletionRepository.findByTaskIdInAndUserIdAndDate(
+              remaining, userId, completionDate)) {
+        existing.put(completion.getTaskId(), taskCompletionMapper.toResponse(completion));
+      }
+    }
+  }
+
+  /**
+   * Today in the circle of each task.
+   *
+   * @param taskIds the task IDs
+   * @return each existing task's ID mapped to the current date in its circle's time zone
+   */
+  private Map<UUID, LocalDate> todayByTask(Collection<UUID> taskIds) {
+    Map<UUID, UUID> circleByTask = new HashMap<>();
+    for (Object[] row : taskRepository.findCircleIdsByIdIn(taskIds)) {
+      circleByTask.put((UUID) row[0], (UUID) row[1]);
+    }
+    Map<UUID, ZoneId> zones = circleTimeZones.zonesOf(Set.copyOf(circleByTask.values()));
+    Map<UUID, LocalDate> today = new HashMap<>();
+    circleByTask.forEach(
+        (taskId, circleId) -> today.put(taskId, LocalDate.now(zones.get(circleId))));
+    return today;
+  }
+
+  @Override
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
+  public CompletionPageResponse getTaskCompletions(
+      String id, LocalDate from, LocalDate to, String userId, String cursor, Integer limit) {
     log.info("Fetching completions for task: {}", id);
 
     UUID taskId = UUID.fromString(id);
-    if (!taskRepository.existsById(taskId)) {
+    if (!taskRepository.existsByIdAndStatusNot(taskId, DELETED)) {
       throw new TaskNotFoundException("Task not found with ID: " + id);
     }
 
-    List<TaskCompletion> completions = taskCompletionRepository.findByTaskId(taskId);
+    UUID userUuid = userId != null ? UUID.fromString(userId) : null;
+    LocalDate start = from != null ? from : MIN_DATE;
+    LocalDate end = to != null ? to : MAX_DATE;
+    int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    LocalDate beforeDate = null;
+    UUID beforeId = null;
+    if (cursor != null) {
+      String[] position = decodeCursor(cursor);
+      beforeDate = LocalDate.parse(position[0]);
+      beforeId = UUID.fromString(position[1]);
+    }
+
+    // Fetch one extra row to learn whether another page follows
+    List<TaskCompletion> page =
+        taskCompletionRepository.findPageByTaskIdAndDateBetween(
+            taskId,
+            userUuid != null ? userUuid.toString() : null,
+            start,
+            end,
+            beforeDate != null ? beforeDate.toString() : null,
+            beforeId != null ? beforeId.toString() : null,
+            size + 1);
+
+    if (!completionArchive.isEmpty()) {
+      page = mergeArchived(taskId, userUuid, start, end, beforeDate, beforeId, page, size);
+    }
+
+    String nextCursor = null;
+    if (page.size() > size) {
+      page = page.subList(0, size);
+      TaskCompletion last = page.get(size - 1);
+      nextCursor = encodeCursor(last.getDate().toString(), last.getId().toString());
+    }
 
-    return completions.stream().map(taskCompletionMapper::toResponse).collect(Collectors.toList());
+    List<TaskCompletionResponse> items =
+        page.stream().map(taskCompletionMapper::toResponse).toList();
+    return new CompletionPageResponse(items, nextCursor);
   }
 
   @Override
-  @Transactional(readOnly = true)
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
   public StreakResponse getUserStreak(String taskId, String userId) {
     log.info("Fetching streak for task: {} and user: {}", taskId, userId);
 
     UUID taskUuid = UUID.fromString(taskId);
     UUID userUuid = UUID.fromString(userId);
 
-    if (!taskRepository.existsById(taskUuid)) {
-      throw new TaskNotFoundException("Task not found with ID: " + taskId);
-    }
+    Task task =
+        taskRepository
+            .findByIdAndStatusNot(taskUuid, DELETED)
+            .orElseThrow(() -> new TaskNotFoundException("Task not found with ID: " + taskId));
 
     Streak streak =
         streakRepository
@@ -208,61 +562,289 @@ public class TaskServiceImpl implements TaskService {
                   return newStreak;
                 });
 
-    return streakMapper.toResponse(streak);
+    return toCurrentResponse(streak, LocalDate.now(circleTimeZones.zoneOf(task.getCircleId())));
+  }
+
+  @Override
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
+  public List<StreakResponse> getUserStreaks(String userId) {
+    log.info("Fetching streaks for user: {}", userId);
+
+    UUID userUuid = UUID.fromString(userId);
+    List<Object[]> streaks = streakRepository.findWithCircleIdByUserId(userUuid);
+
+    // Each streak lapses at midnight in its own circle's time zone
+    Set<UUID> circleIds = new HashSet<>();
+    streaks.forEach(row -> circleIds.add((UUID) row[1]));
+    Map<UUID, ZoneId> zones = circleTimeZones.zonesOf(circleIds);
+
+    List<StreakResponse> responses = new ArrayList<>(streaks.size());
+    for (Object[] row : streaks) {
+      responses.add(toCurrentResponse((Streak) row[0], LocalDate.now(zones.get((UUID) row[1]))));
+    }
+    return responses;
+  }
+
+  @Override
+  @Transactional(
+      transactionManager = "taskTransactionManager",
+      propagation = Propagation.SUPPORTS,
+      readOnly = true)
+  public Map<UUID, List<TaskResponse>> getTodayTasksForCircles(
+      Map<UUID, LocalDate> todayByCircle) {
+    log.info("Fetching today's tasks for {} circles", todayByCircle.size());
+
+    // Cached circles are served from the agenda cache; the others share one task query
+    return todayAgendaCache.getAll(
+        todayByCircle,
+        missing -> {
+          Map<UUID, List<TaskResponse>> byCircle = new HashMap<>();
+          missing.keySet().forEach(circleId -> byCircle.put(circleId, new ArrayList<>()));
+          for (Task task : taskRepository.findActiveByCircleIdIn(missing.keySet())) {
+            if (recurrenceEngine.isDueOn(task, missing.get(task.getCircleId()))) {
+              byCircle.get(task.getCircleId()).add(taskMapper.toResponse(task));
+            }
+          }
+          return byCircle;
+        });
+  }
+
+  @Override
+  @Transactional(
+      transactionManager = "taskTransactionManager",
+      propagation = Propagation.SUPPORTS,
+      readOnly = true)
+  public Map<UUID, List<TaskResponse>> getActiveTasksForCircles(Collection<UUID> circleIds) {
+    log.info("Fetching active tasks for {} circles", circleIds.size());
+
+    Map<UUID, List<TaskResponse>> byCircle = new HashMap<>();
+    circleIds.forEach(circleId -> byCircle.put(circleId, new ArrayList<>()));
+    if (circleIds.isEmpty()) {
+      return byCircle;
+    }
+    for (Task task : taskRepository.findActiveByCircleIdIn(circleIds)) {
+      byCircle.get(task.getCircleId()).add(taskMapper.toResponse(task));
+    }
+    return byCircle;
+  }
+
+  @Override
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
+  public HeatmapResponse getUserHeatmap(String taskId, String userId, Integer year) {
+    log.info("Fetching heatmap for task: {} and user: {}", taskId, userId);
+
+    UUID taskUuid = UUID.fromString(taskId);
+    UUID userUuid = UUID.fromString(userId);
+
+    Task task =
+        taskRepository
+            .findByIdAndStatusNot(taskUuid, DELETED)
+            .orElseThrow(() -> new TaskNotFoundException("Task not found with ID: " + taskId));
+    LocalDate today = LocalDate.now(circleTimeZones.zoneOf(task.getCircleId()));
+    int calendarYear = calendarYear(year, today);
+
+    List<byte[]> bitmaps =
+        completionCalendarRepository
+            .findByTaskIdAndUserIdAndYear(taskUuid, userUuid, calendarYear)
+            .map(CompletionCalendar::getDays)
+            .map(List::of)
+            .orElseGet(List::of);
+
+    LocalDate createdOn = task.getCreatedAt() != null ? task.getCreatedAt().toLocalDate() : null;
+    HeatmapResponse response = buildHeatmap(bitmaps, calendarYear, createdOn, today);
+    response.setTaskId(taskUuid);
+    response.setUserId(userUuid);
+    return response;
+  }
+
+  @Override
+  @Transactional(transactionManager = "taskTransactionManager", readOnly = true)
+  public HeatmapResponse getCircleHeatmap(String circleId, String userId, Integer year) {
+    log.info("Fetching heatmap for circle: {} and user: {}", circleId, userId);
+
+    UUID circleUuid = UUID.fromString(circleId);
+    UUID userUuid = UUID.fromString(userId);
+    LocalDate today = LocalDate.now(circleTimeZones.zoneOf(circleUuid));
+    int calendarYear = calendarYear(year, today);
+
+    List<byte[]> bitmaps =
+        completionCalendarRepository.findDaysByCircleIdAndUserIdAndYear(
+            circleUuid, userUuid, calendarYear);
+
+    HeatmapResponse response = buildHeatmap(bitmaps, calendarYear, null, today);
+    response.setCircleId(circleUuid);
+    response.setUserId(userUuid);
+    return response;
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public StreakRecomputeResponse recomputeAllStreaks() {
+    log.info("Recomputing all streaks");
+
+    long start = System.nanoTime();
+    int updated = streakEngine.recomputeAll();
+    long durationMs = (System.nanoTime() - start) / 1_000_000;
+
+    return new StreakRecomputeResponse(updated, streakEngine.getPartitions(), durationMs);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public LeaderboardResponse getCircleLeaderboard(String circleId, String window, Integer limit) {
+    log.info("Fetching {} leaderboard for circle: {}", window, circleId);
+
+    UUID uuid = UUID.fromString(circleId);
+    int size = limit == null ? DEFAULT_LEADERBOARD_SIZE : limit;
+    if (size < 1 || size > MAX_LEADERBOARD_SIZE) {
+      throw new IllegalArgumentException(
+          "Leaderboard limit must be between 1 and " + MAX_LEADERBOARD_SIZE);
+    }
+
+    return circleLeaderboards.top(uuid, LeaderboardWindow.from(window), size);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public CalendarBackfillResponse backfillCompletionCalendars() {
+    log.info("Backfilling completion calendars");
+
+    long start = System.nanoTime();
+    CompletionCalendarBackfill.Result result = completionCalendarBackfill.backfill();
+    long durationMs = (System.nanoTime() - start) / 1_000_000;
+
+    return new CalendarBackfillResponse(result.calendars(), result.years(), durationMs);
+  }
+
+  private static int calendarYear(Integer year, LocalDate today) {
+    if (year == null) {
+      return today.getYear();
+    }
+    if (year < MIN_DATE.getYear() || year > MAX_DATE.getYear()) {
+      throw new IllegalArgumentException(
+          "Year must be between " + MIN_DATE.getYear() + " and " + MAX_DATE.getYear());
+    }
+    return year;
   }
 
   /**
-   * Update or create streak for a user's task completion.
-   *
-   * @param taskId the task ID
-   * @param userId the user ID
-   * @param completionDate the completion date
+   * Add up day bitmaps into a heatmap. The completion rate counts active days against the days of
+   * the year that have passed by {@code today}, starting no earlier than the task's creation.
    */
-  private void updateStreak(UUID taskId, UUID userId, LocalDate completionDate) {
-    Streak streak =
-        streakRepository
-            .findByTaskIdAndUserId(taskId, userId)
-            .orElseGet(
-                () -> {
-                  Streak newStreak = new Streak();
-                  newStreak.setTaskId(taskId);
-                  newStreak.setUserId(userId);
-                  newStreak.setCurrentStreak(0);
-                  newStreak.setLongestStreak(0);
-                  return newStreak;
-                });
+  private HeatmapResponse buildHeatmap(
+      List<byte[]> bitmaps, int year, LocalDate trackedFrom, LocalDate today) {
+    int[] counts = DayBitmap.sum(bitmaps, Year.of(year).length());
+
+    List<Integer> days = new ArrayList<>(counts.length);
+    int activeDays = 0;
+    int totalCompletions = 0;
+    int longestRun = 0;
+    int run = 0;
+    for (int count : counts) {
+      days.add(count);
+      totalCompletions += count;
+      if (count > 0) {
+        activeDays++;
+        run++;
+        longestRun = Math.max(longestRun, run);
+      } else {
+        run = 0;
+      }
+    }
 
+    LocalDate first = LocalDate.ofYearDay(year, 1);
+    LocalDate last = LocalDate.ofYearDay(year, counts.length);
+    if (trackedFrom != null && trackedFrom.isAfter(first)) {
+      first = trackedFrom;
+    }
+    if (today.isBefore(last)) {
+      last = today;
+    }
+    long trackedDays = ChronoUnit.DAYS.between(first, last) + 1;
+    double completionRate =
+        trackedDays > 0 ? Math.min(1.0, (double) activeDays / trackedDays) : 0.0;
+
+    return new HeatmapResponse(
+        null, null, null, year, days, activeDays, totalCompletions, longestRun, completionRate);
+  }
+
+  private StreakResponse toCurrentResponse(Streak streak, LocalDate today) {
+    StreakResponse response = streakMapper.toResponse(streak);
+
+    // A streak not completed yesterday or today has lapsed, even if the expiry sweep hasn't run
     LocalDate lastCompleted = streak.getLastCompletedDate();
+    if (lastCompleted != null && lastCompleted.isBefore(today.minusDays(1))) {
+      response.setCurrentStreak(0);
+    }
+    return response;
+  }
 
-    if (lastCompleted == null) {
-      // First completion
-      streak.setCurrentStreak(1);
-      streak.setLongestStreak(1);
-    } else {
-      long daysBetween = ChronoUnit.DAYS.between(lastCompleted, completionDate);
-
-      if (daysBetween == 1) {
-        // Consecutive day - increment streak
-        streak.setCurrentStreak(streak.getCurrentStreak() + 1);
-        if (streak.getCurrentStreak() > streak.getLongestStreak()) {
-          streak.setLongestStreak(streak.getCurrentStreak());
-        }
-      } else if (daysBetween > 1) {
-        // Streak broken - reset to 1
-        streak.setCurrentStreak(1);
+  /** Encode a keyset position as an opaque, URL-safe cursor. */
+  static String encodeCursor(String sortKey, String id) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString((sortKey + "|" + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Decode and validate a cursor produced by {@link #encodeCursor}. */
+  static String[] decodeCursor(String cursor) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] position = decoded.split("\\|", 2);
+      LocalDate.parse(position[0]);
+      UUID.fromString(position[1]);
+      return position;
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+  }
+
+  /**
+   * Merge archived completions into a page of hot rows. Archived rows older than the last hot row
+   * fetched cannot make the page, so only the segments between it and the cursor are read. Rows
+   * caught mid-archive may exist in both places and are de-duplicated by ID.
+   */
+  private List<TaskCompletion> mergeArchived(
+      UUID taskId,
+      UUID userId,
+      LocalDate start,
+      LocalDate end,
+      LocalDate beforeDate,
+      UUID beforeId,
+      List<TaskCompletion> hot,
+      int size) {
+    LocalDate archiveFrom = hot.size() > size ? hot.get(size).getDate() : start;
+    LocalDate archiveTo = beforeDate != null && beforeDate.isBefore(end) ? beforeDate : end;
+    if (archiveFrom.isAfter(archiveTo)) {
+      return hot;
+    }
+
+    Map<UUID, TaskCompletion> merged = new HashMap<>();
+    for (TaskCompletion completion :
+        completionArchive.findByTaskId(taskId, archiveFrom, archiveTo)) {
+      if (userId != null && !userId.equals(completion.getUserId())) {
+        continue;
+      }
+      if (beforeId != null
+          && (completion.getDate().isAfter(beforeDate)
+              || (completion.getDate().equals(beforeDate)
+                  && compareIds(completion.getId(), beforeId) >= 0))) {
+        continue;
       }
-      // If daysBetween == 0, it means same day completion (already handled by duplicate check)
-      // If daysBetween < 0, it means backdated completion - we still update the streak but don't
-      // increment
-    }
-
-    streak.setLastCompletedDate(completionDate);
-    streakRepository.save(streak);
-    log.info(
-        "Streak updated for task: {} and user: {}. Current: {}, Longest: {}",
-        taskId,
-        userId,
-        streak.getCurrentStreak(),
-        streak.getLongestStreak());
+      merged.put(completion.getId(), completion);
+    }
+    if (merged.isEmpty()) {
+      return hot;
+    }
+    for (TaskCompletion completion : hot) {
+      merged.put(completion.getId(), completion);
+    }
+    return merged.values().stream().sorted(NEWEST_FIRST).limit(size + 1L).toList();
+  }
+
+  /** Compare UUIDs the way Postgres orders them: unsigned, byte by byte. */
+  private static int compareIds(UUID left, UUID right) {
+    return CompletionSegment.compare(
+        left.getMostSignificantBits(), left.getLeastSignificantBits(), right);
   }
 }
@@ -0,0 +1,224 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import com.circlesync.circlesync.circlemodule.CircleTimeZones;
+import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Per-circle cache of the tasks due today, where today is the local date in the circle's time
+ * zone. The task write paths (create, update, delete, and the circle deletion and member removal
+ * listeners) evict the circle's entry once their transaction commits; otherwise an entry lives
+ * until a task scheduled for the circle's next local midnight removes it. A circle's zone is
+ * resolved again on every miss, so a changed zone applies from the next eviction or rollover.
+ */
+@Component
+@Slf4j
+public class TodayAgendaCache {
+
+  private final CircleTimeZones circleTimeZones;
+  private final TaskScheduler taskScheduler;
+  private final TransactionTemplate readOnlyTransaction;
+  private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+  // Bumped on every eviction so a load that raced with a task write is not cached
+  private final AtomicLong generation = new AtomicLong();
+  private final Counter hits;
+  private final Counter misses;
+
+  public TodayAgendaCache(
+      CircleTimeZones circleTimeZones,
+      TaskScheduler taskScheduler,
+      @Qualifier("taskTransactionManager") PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.circleTimeZones = circleTimeZones;
+    this.taskScheduler = taskScheduler;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.hits =
+        Counter.builder("circlesync.agenda.today.requests")
+            .description("Lookups of the cached today agenda")
+            .tag("result", "hit")
+            .register(meterRegistry);
+    this.misses =
+        Counter.builder("circlesync.agenda.today.requests")
+            .description("Lookups of the cached today agenda")
+            .tag("result", "miss")
+            .register(meterRegistry);
+    Gauge.builder("circlesync.agenda.today.hit.ratio", this, TodayAgendaCache::hitRatio)
+        .description("Share of today agenda lookups served from the cache")
+        .register(meterRegistry);
+    Gauge.builder("circlesync.agenda.today.size", entries, Map::size)
+        .description("Circles with a cached today agenda")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Get the tasks due today in a circle, loading them on a miss.
+   *
+   * @param circleId the circle ID
+   * @param loader loads the tasks due on the given date; runs in a read-only task transaction
+   * @return the tasks due today in the circle's time zone
+   */
+  public List<TaskResponse> get(UUID circleId, Function<LocalDate, List<TaskResponse>> loader) {
+    Entry cached = entries.get(circleId);
+    // The date check covers the moments between midnight and the rollover task running
+    if (cached != null && isFresh(cached, LocalDate.now(cached.zone()))) {
+      hits.increment();
+      return cached.tasks();
+    }
+    misses.increment();
+
+    long seen = generation.get();
+    ZoneId zone = circleTimeZones.zoneOf(circleId);
+    LocalDate today = LocalDate.now(zone);
+    List<TaskResponse> tasks =
+        List.copyOf(readOnlyTransaction.execute(status -> loader.apply(today)));
+    store(circleId, zone, today, tasks, seen);
+    return tasks;
+  }
+
+  /**
+   * Get the tasks due in several circles on the given dates, serving cached circles and loading
+   * all the others with one call. Only results for a circle's current local date are cached.
+   *
+   * @param todayByCircle each circle ID mapped to its local date
+   * @param loader loads the tasks due in the given circles on their dates; runs in a read-only
+   *     task transaction
+   * @return each circle ID mapped to its tasks due that day
+   */
+  public Map<UUID, List<TaskResponse>> getAll(
+      Map<UUID, LocalDate> todayByCircle,
+      Function<Map<UUID, LocalDate>, Map<UUID, List<TaskResponse>>> loader) {
+    Map<UUID, List<TaskResponse>> byCircle = new HashMap<>();
+    Map<UUID, LocalDate> missing = new HashMap<>();
+    todayByCircle.forEach(
+        (circleId, date) -> {
+          Entry cached = entries.get(circleId);
+          if (cached != null && isFresh(cached, date)) {
+            hits.increment();
+            byCircle.put(circleId, cached.tasks());
+          } else {
+            misses.increment();
+            missing.put(circleId, date);
+          }
+        });
+    if (missing.isEmpty()) {
+      return byCircle;
+    }
+
+    long seen = generation.get();
+    Map<UUID, ZoneId> zones = circleTimeZones.zonesOf(missing.keySet());
+    Map<UUID, List<TaskResponse>> loaded =
+        readOnlyTransaction.execute(status -> loader.apply(missing));
+    missing.forEach(
+        (circleId, date) -> {
+          List<TaskResponse> tasks = List.copyOf(loaded.getOrDefault(circleId, List.of()));
+          byCircle.put(circleId, tasks);
+          ZoneId zone = zones.get(circleId);
+          if (zone != null && date.equals(LocalDate.now(zone))) {
+            store(circleId, zone, date, tasks, seen);
+          }
+        });
+    return byCircle;
+  }
+
+  /**
+   * Evict a circle's entry once the surrounding transaction commits, or right away when there is
+   * no transaction.
+   *
+   * @param circleId the circle ID
+   */
+  public void evictAfterCommit(UUID circleId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evict(circleId);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            evict(circleId);
+          }
+        });
+  }
+
+  /**
+   * Evict a circle's entry.
+   *
+   * @param circleId the circle ID
+   */
+  public void evict(UUID circleId) {
+    entries.compute(
+        circleId,
+        (id, previous) -> {
+          generation.incrementAndGet();
+          cancel(previous);
+          return null;
+        });
+  }
+
+  private static boolean isFresh(Entry entry, LocalDate date) {
+    return entry.date().equals(date);
+  }
+
+  // Skipped when an eviction happened since the load started, as the load may predate the write
+  private void store(
+      UUID circleId, ZoneId zone, LocalDate date, List<TaskResponse> tasks, long seen) {
+    entries.compute(
+        circleId,
+        (id, previous) -> {
+          if (generation.get() != seen) {
+            return previous;
+          }
+          cancel(previous);
+          return new Entry(zone, date, tasks, scheduleRollover(id, zone, date));
+        });
+  }
+
+  private ScheduledFuture<?> scheduleRollover(UUID circleId, ZoneId zone, LocalDate date) {
+    return taskScheduler.schedule(
+        () -> rollover(circleId, date), date.plusDays(1).atStartOfDay(zone).toInstant());
+  }
+
+  private void rollover(UUID circleId, LocalDate date) {
+    Entry removed =
+        entries.computeIfPresent(circleId, (id, entry) -> entry.date().equals(date) ? null : entry);
+    if (removed == null) {
+      log.debug("Today agenda for circle: {} rolled over after {}", circleId, date);
+    }
+  }
+
+  private static void cancel(Entry entry) {
+    if (entry != null) {
+      entry.rollover().cancel(false);
+    }
+  }
+
+  private double hitRatio() {
+    double total = hits.count() + misses.count();
+    return total == 0 ? 0 : hits.count() / total;
+  }
+
+  private record Entry(
+      ZoneId zone, LocalDate date, List<TaskResponse> tasks, ScheduledFuture<?> rollover) {}
+}
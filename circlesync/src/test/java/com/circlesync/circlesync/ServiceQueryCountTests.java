@@ -0,0 +1,241 @@
+package com.circlesync.circlesync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.circlesync.circlesync.circlemodule.dto.MemberResponse;
+import com.circlesync.circlesync.circlemodule.entity.Circle;
+import com.circlesync.circlesync.circlemodule.entity.CircleMember;
+import com.circlesync.circlesync.circlemodule.repository.CircleMemberRepository;
+import com.circlesync.circlesync.circlemodule.repository.CircleRepository;
+import com.circlesync.circlesync.circlemodule.service.CircleService;
+import com.circlesync.circlesync.support.QueryCounter;
+import com.circlesync.circlesync.support.QueryCounter.QueryCount;
+import com.circlesync.circlesync.support.QueryCountingConfig;
+import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
+import com.circlesync.circlesync.taskmodule.entity.Streak;
+import com.circlesync.circlesync.taskmodule.entity.Task;
+import com.circlesync.circlesync.taskmodule.repository.StreakRepository;
+import com.circlesync.circlesync.taskmodule.repository.TaskRepository;
+import com.circlesync.circlesync.taskmodule.service.TaskService;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Pins the number of statements each read path issues, independent of how many rows it returns.
+ * A failing count usually means a query moved into a loop.
+ */
+@SpringBootTest
+@Import(QueryCountingConfig.class)
+class ServiceQueryCountTests {
+
+	@Autowired
+	private QueryCounter queryCounter;
+
+	@Autowired
+	private CircleService circleService;
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private CircleRepository circleRepository;
+
+	@Autowired
+	private CircleMemberRepository circleMemberRepository;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private StreakRepository streakRepository;
+
+	private final UUID userId = UUID.randomUUID();
+	private final String prefix = "qc-" + UUID.randomUUID().toString().substring(0, 8);
+	private final List<UUID> circleIds = new ArrayList<>();
+	private final List<UUID> taskIds = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		// Streaks and circle members go with their task or circle through ON DELETE CASCADE
+		taskRepository.deleteAllById(taskIds);
+		circleRepository.deleteAllById(circleIds);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10})
+	void getUserCirclesIssuesConstantQueries(int circles) {
+		seedCircles(circles);
+
+		QueryCount count = queryCounter.count(() -> circleService.getUserCircles(userId.toString(), null));
+
+		assertThat(count).isEqualTo(new QueryCount(3, 0));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10})
+	void searchCirclesIssuesConstantQueries(int circles) {
+		seedCircles(circles);
+
+		QueryCount count = queryCounter.count(() -> circleService.searchCircles(prefix, null, null));
+
+		assertThat(count).isEqualTo(new QueryCount(3, 0));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10})
+	void getCircleTasksIssuesOneQuery(int tasks) {
+		UUID circleId = seedCircles(1).get(0);
+		seedTasks(circleId, tasks);
+
+		QueryCount count = queryCounter.count(() -> taskService.getCircleTasks(circleId.toString()));
+
+		assertThat(count).isEqualTo(new QueryCount(0, 1));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10})
+	void streamCircleTasksIssuesOneQuery(int tasks) {
+		UUID circleId = seedCircles(1).get(0);
+		seedTasks(circleId, tasks);
+		List<TaskResponse> streamed = new ArrayList<>();
+
+		QueryCount count = queryCounter.count(() -> taskService.streamCircleTasks(circleId.toString(), streamed::add));
+
+		assertThat(count).isEqualTo(new QueryCount(0, 1));
+		assertThat(streamed).hasSize(tasks);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"", "MEMBER"})
+	void streamCircleMembersIssuesTwoQueries(String role) {
+		UUID circleId = seedCircles(1).get(0);
+		List<MemberResponse> streamed = new ArrayList<>();
+
+		QueryCount count = queryCounter.count(
+				() -> circleService.streamCircleMembers(circleId.toString(), role, streamed::add));
+
+		assertThat(count).isEqualTo(new QueryCount(2, 0));
+		assertThat(streamed).hasSize(role.isEmpty() ? 3 : 1);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10})
+	void getCircleTodayTasksIsServedFromCacheAfterFirstCall(int tasks) {
+		UUID circleId = seedCircles(1).get(0);
+		seedTasks(circleId, tasks);
+
+		QueryCount miss = queryCounter.count(() -> taskService.getCircleTodayTasks(circleId.toString()));
+		QueryCount hit = queryCounter.count(() -> taskService.getCircleTodayTasks(circleId.toString()));
+
+		assertThat(miss).isEqualTo(new QueryCount(1, 1));
+		assertThat(hit).isEqualTo(new QueryCount(0, 0));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10})
+	void getTodayTasksForCirclesIsServedFromCacheAfterFirstCall(int circles) {
+		Map<UUID, LocalDate> todayByCircle = new HashMap<>();
+		for (UUID circleId : seedCircles(circles)) {
+			seedTasks(circleId, 2);
+			// Seeded circles have no time zone setting, so they use the default UTC
+			todayByCircle.put(circleId, LocalDate.now(ZoneOffset.UTC));
+		}
+
+		QueryCount miss = queryCounter.count(() -> taskService.getTodayTasksForCircles(todayByCircle));
+		QueryCount hit = queryCounter.count(() -> taskService.getTodayTasksForCircles(todayByCircle));
+
+		// One read of the missed circles' time zones, one of their tasks
+		assertThat(miss).isEqualTo(new QueryCount(1, 1));
+		assertThat(hit).isEqualTo(new QueryCount(0, 0));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10})
+	void getUserStreaksIssuesConstantQueries(int tasks) {
+		UUID circleId = seedCircles(1).get(0);
+		for (Task task : seedTasks(circleId, tasks)) {
+			Streak streak = new Streak();
+			streak.setTaskId(task.getId());
+			streak.setUserId(userId);
+			streak.setCurrentStreak(1);
+			streak.setLongestStreak(1);
+			streak.setLastCompletedDate(LocalDate.now());
+			streakRepository.save(streak);
+		}
+
+		QueryCount count = queryCounter.count(() -> taskService.getUserStreaks(userId.toString()));
+
+		// One read of the streaks with their circles, one of those circles' time zones
+		assertThat(count).isEqualTo(new QueryCount(1, 1));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10})
+	void getAssignedTasksIssuesOneQuery(int tasks) {
+		UUID circleId = seedCircles(1).get(0);
+		seedTasks(circleId, tasks);
+
+		QueryCount count = queryCounter.count(() -> taskService.getAssignedTasks(
+				userId.toString(), "ACTIVE", null, null, null, null, null));
+
+		assertThat(count).isEqualTo(new QueryCount(0, 1));
+	}
+
+	private List<UUID> seedCircles(int count) {
+		List<UUID> seeded = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Circle circle = circleRepository.save(Circle.builder()
+					.name(prefix + "-" + i)
+					.circleType("FRIENDS")
+					.privacy("PRIVATE")
+					.createdBy(userId)
+					.build());
+			circleMemberRepository.save(member(circle.getId(), userId, "ADMIN"));
+			circleMemberRepository.save(member(circle.getId(), UUID.randomUUID(), "MEMBER"));
+			circleMemberRepository.save(member(circle.getId(), UUID.randomUUID(), "VIEWER"));
+			circleIds.add(circle.getId());
+			seeded.add(circle.getId());
+		}
+		return seeded;
+	}
+
+	private List<Task> seedTasks(UUID circleId, int count) {
+		List<Task> seeded = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Task task = new Task();
+			task.setCircleId(circleId);
+			task.setCreatedBy(userId);
+			task.setAssignedTo(new UUID[] {userId});
+			task.setTitle(prefix + "-task-" + i);
+			task.setType("HABIT");
+			task.setFrequency("DAILY");
+			task.setVisibility("CIRCLE");
+			task.setStatus("ACTIVE");
+			task.setDueDate(LocalDate.now());
+			Task saved = taskRepository.save(task);
+			taskIds.add(saved.getId());
+			seeded.add(saved);
+		}
+		return seeded;
+	}
+
+	private static CircleMember member(UUID circleId, UUID userId, String role) {
+		return CircleMember.builder()
+				.circleId(circleId)
+				.userId(userId)
+				.userName("user-" + userId.toString().substring(0, 8))
+				.role(role)
+				.build();
+	}
+}
@@ -0,0 +1,153 @@
+package com.circlesync.circlesync.shared.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Claiming an outbox through the relay lock and delivery in ID order across batches and failed
+ * sends.
+ */
+@SpringBootTest(properties = "circlesync.outbox.relay.enabled=false")
+class OutboxRelayTests {
+
+	// The relays under test use their own key while the application key stays held below
+	private static final long TEST_LOCK_KEY = OutboxRelay.LOCK_KEY + 1;
+
+	@Autowired
+	@Qualifier("taskDataSource")
+	private DataSource dataSource;
+
+	@Autowired
+	@Qualifier("taskTransactionManager")
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	@Qualifier("taskJdbcTemplate")
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	@Qualifier("taskOutbox")
+	private Outbox outbox;
+
+	private final List<String> attempts = new ArrayList<>();
+	private final Set<String> failing = new HashSet<>();
+
+	private Connection otherNode;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		// Stands in for a relay on another node; it also keeps the relays of other test
+		// contexts away from the rows these tests write
+		otherNode = dataSource.getConnection();
+		assertThat(advisoryLock(otherNode, "pg_try_advisory_lock")).isTrue();
+		jdbcTemplate.update("DELETE FROM outbox");
+	}
+
+	@AfterEach
+	void tearDown() throws SQLException {
+		jdbcTemplate.update("DELETE FROM outbox");
+		// The pool keeps the session, so the lock must be released before the connection returns
+		advisoryLock(otherNode, "pg_advisory_unlock");
+		otherNode.close();
+	}
+
+	@Test
+	void skipsTheRunWhileAnotherNodeHoldsTheLock() {
+		append("first", "second");
+
+		relay(OutboxRelay.LOCK_KEY, 10).relay();
+
+		assertThat(attempts).isEmpty();
+		assertThat(remaining()).containsExactly("first", "second");
+	}
+
+	@Test
+	void drainsFullBatchesInIdOrder() {
+		append("e0", "e1", "e2", "e3", "e4");
+
+		relay(TEST_LOCK_KEY, 2).relay();
+
+		assertThat(attempts).containsExactly("e0", "e1", "e2", "e3", "e4");
+		assertThat(remaining()).isEmpty();
+	}
+
+	@Test
+	void keepsEverythingFromTheFirstFailedSendForTheNextRun() {
+		append("e0", "e1", "e2", "e3", "e4");
+		failing.add("e2");
+		OutboxRelay relay = relay(TEST_LOCK_KEY, 10);
+
+		relay.relay();
+
+		assertThat(remaining()).containsExactly("e2", "e3", "e4");
+
+		attempts.clear();
+		relay.relay();
+
+		// Messages after the failure are sent again, in their original order
+		assertThat(attempts).containsExactly("e2", "e3", "e4");
+		assertThat(remaining()).isEmpty();
+	}
+
+	private void append(String... types) {
+		for (int i = 0; i < types.length; i++) {
+			outbox.append("tasks", "circle-1", types[i], Map.of("seq", i));
+		}
+	}
+
+	private List<String> remaining() {
+		return jdbcTemplate.queryForList("SELECT event_type FROM outbox ORDER BY id", String.class);
+	}
+
+	private OutboxRelay relay(long lockKey, int batchSize) {
+		OutboxTransport transport = message -> {
+			attempts.add(message.type());
+			return failing.remove(message.type())
+					? CompletableFuture.failedFuture(new IOException("broker unavailable"))
+					: CompletableFuture.completedFuture(null);
+		};
+		return new OutboxRelay(
+				"task",
+				new NamedParameterJdbcTemplate(dataSource),
+				new TransactionTemplate(transactionManager),
+				transport,
+				batchSize,
+				20,
+				Duration.ofSeconds(5),
+				lockKey);
+	}
+
+	private static boolean advisoryLock(Connection connection, String function)
+			throws SQLException {
+		try (PreparedStatement statement =
+				connection.prepareStatement("SELECT " + function + "(?)")) {
+			statement.setLong(1, OutboxRelay.LOCK_KEY);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				return resultSet.next() && resultSet.getBoolean(1);
+			}
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.circlesync.circlesync.support;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Counts the JDBC statements a piece of code prepares, per persistence unit. Only statements
+ * prepared on the calling thread are counted, so scheduled jobs running in the background do not
+ * disturb the numbers.
+ */
+public class QueryCounter {
+
+	public static final String CIRCLE = "circle";
+	public static final String TASK = "task";
+
+	private static final Set<String> STATEMENT_METHODS =
+			Set.of("prepareStatement", "prepareCall", "createStatement");
+
+	private final ThreadLocal<Map<String, Integer>> counts = new ThreadLocal<>();
+
+	/**
+	 * Run an action and count the statements it issues.
+	 *
+	 * @param action the code under test
+	 * @return statements issued per persistence unit
+	 */
+	public QueryCount count(Runnable action) {
+		Map<String, Integer> current = new HashMap<>();
+		counts.set(current);
+		try {
+			action.run();
+		} finally {
+			counts.remove();
+		}
+		return new QueryCount(current.getOrDefault(CIRCLE, 0), current.getOrDefault(TASK, 0));
+	}
+
+	/**
+	 * Wrap a DataSource so the statements prepared on its connections are counted.
+	 *
+	 * @param target the pool to wrap
+	 * @param unit the persistence unit the pool belongs to
+	 * @return the counting DataSource
+	 */
+	DataSource wrap(DataSource target, String unit) {
+		return new DelegatingDataSource(target) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				return counting(super.getConnection(), unit);
+			}
+
+			@Override
+			public Connection getConnection(String username, String password) throws SQLException {
+				return counting(super.getConnection(username, password), unit);
+			}
+		};
+	}
+
+	private Connection counting(Connection target, String unit) {
+		return (Connection) Proxy.newProxyInstance(
+				Connection.class.getClassLoader(),
+				new Class<?>[] {Connection.class},
+				(proxy, method, args) -> {
+					if (STATEMENT_METHODS.contains(method.getName())) {
+						Map<String, Integer> current = counts.get();
+						if (current != null) {
+							current.merge(unit, 1, Integer::sum);
+						}
+					}
+					try {
+						return method.invoke(target, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+				});
+	}
+
+	/**
+	 * Statements issued against each database.
+	 *
+	 * @param circle statements against circles_db
+	 * @param task statements against tasks_db
+	 */
+	public record QueryCount(int circle, int task) {
+	}
+}
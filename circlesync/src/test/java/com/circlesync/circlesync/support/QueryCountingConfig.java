@@ -0,0 +1,36 @@
+package com.circlesync.circlesync.support;
+
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Wraps both module DataSources so tests can count statements with {@link QueryCounter}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountingConfig {
+
+	private static final Map<String, String> UNITS = Map.of(
+			"circleDataSource", QueryCounter.CIRCLE,
+			"taskDataSource", QueryCounter.TASK);
+
+	@Bean
+	static QueryCounter queryCounter() {
+		return new QueryCounter();
+	}
+
+	@Bean
+	static BeanPostProcessor queryCountingPostProcessor(QueryCounter queryCounter) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				String unit = UNITS.get(beanName);
+				return unit != null && bean instanceof DataSource dataSource
+						? queryCounter.wrap(dataSource, unit)
+						: bean;
+			}
+		};
+	}
+}
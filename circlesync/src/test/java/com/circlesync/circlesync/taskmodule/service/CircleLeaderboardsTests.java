@@ -0,0 +1,142 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.circlesync.circlesync.circlemodule.CircleTimeZones;
+import com.circlesync.circlesync.taskmodule.dto.LeaderboardEntryResponse;
+import com.circlesync.circlesync.taskmodule.repository.CircleDayPoints;
+import com.circlesync.circlesync.taskmodule.repository.CirclePointsTotal;
+import com.circlesync.circlesync.taskmodule.repository.InsertedCompletion;
+import com.circlesync.circlesync.taskmodule.repository.TaskCompletionRepository;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Rebuilds of the in-memory leaderboards against a mocked repository, including completions
+ * recorded while a rebuild is in flight.
+ */
+class CircleLeaderboardsTests {
+
+	private static final ZoneId EAST = ZoneId.of("Pacific/Kiritimati");
+	private static final ZoneId WEST = ZoneId.of("Pacific/Pago_Pago");
+
+	private final UUID eastCircle = UUID.randomUUID();
+	private final UUID westCircle = UUID.randomUUID();
+	private final UUID user = UUID.randomUUID();
+
+	private TaskCompletionRepository repository;
+	private CircleLeaderboards leaderboards;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(TaskCompletionRepository.class);
+		CircleTimeZones circleTimeZones = mock(CircleTimeZones.class);
+		when(circleTimeZones.zonesOf(anyCollection()))
+				.thenReturn(Map.of(eastCircle, EAST, westCircle, WEST));
+		when(circleTimeZones.zoneOf(eastCircle)).thenReturn(EAST);
+		when(circleTimeZones.zoneOf(westCircle)).thenReturn(WEST);
+		leaderboards =
+				new CircleLeaderboards(
+						repository, circleTimeZones, mock(PlatformTransactionManager.class));
+	}
+
+	@Test
+	void rebuildUsesEachCirclesOwnDay() {
+		// Kiritimati and Pago Pago are 25 hours apart, so they never share a date
+		LocalDate eastToday = LocalDate.now(EAST);
+		when(repository.sumPointsByCircleAndUser())
+				.thenReturn(List.of(total(eastCircle, 10), total(westCircle, 10)));
+		when(repository.sumPointsByCircleUserAndDaySince(any()))
+				.thenReturn(List.of(day(eastCircle, eastToday, 10), day(westCircle, eastToday, 10)));
+
+		leaderboards.rebuild();
+
+		assertThat(points(eastCircle, LeaderboardWindow.DAILY)).containsExactly(10L);
+		assertThat(points(westCircle, LeaderboardWindow.DAILY)).isEmpty();
+		assertThat(points(westCircle, LeaderboardWindow.ALL_TIME)).containsExactly(10L);
+	}
+
+	@Test
+	void completionRecordedDuringRebuildIsAppliedOnTop() {
+		UUID completionId = UUID.randomUUID();
+		when(repository.sumPointsByCircleAndUser())
+				.thenAnswer(
+						invocation -> {
+							leaderboards.recordCompletion(
+									completionId, eastCircle, user, LocalDate.now(EAST), 5);
+							return List.of(total(eastCircle, 10));
+						});
+		when(repository.sumPointsByCircleUserAndDaySince(any())).thenReturn(List.of());
+		when(repository.findExistingIds(anyCollection())).thenReturn(List.of());
+
+		leaderboards.rebuild();
+
+		assertThat(points(eastCircle, LeaderboardWindow.ALL_TIME)).containsExactly(15L);
+		assertThat(points(eastCircle, LeaderboardWindow.DAILY)).containsExactly(5L);
+	}
+
+	@Test
+	void completionAlreadyInSnapshotIsNotCountedTwice() {
+		UUID completionId = UUID.randomUUID();
+		when(repository.sumPointsByCircleAndUser())
+				.thenAnswer(
+						invocation -> {
+							leaderboards.recordCompletion(
+									completionId, eastCircle, user, LocalDate.now(EAST), 5);
+							return List.of(total(eastCircle, 15));
+						});
+		when(repository.sumPointsByCircleUserAndDaySince(any())).thenReturn(List.of());
+		when(repository.findExistingIds(anyCollection())).thenReturn(List.of(completionId));
+
+		leaderboards.rebuild();
+
+		assertThat(points(eastCircle, LeaderboardWindow.ALL_TIME)).containsExactly(15L);
+	}
+
+	@Test
+	void completionWithoutPointsIsIgnored() {
+		InsertedCompletion completion = mock(InsertedCompletion.class);
+		when(completion.getId()).thenReturn(UUID.randomUUID());
+		when(completion.getCircleId()).thenReturn(eastCircle);
+		when(completion.getUserId()).thenReturn(user);
+		when(completion.getDate()).thenReturn(LocalDate.now(EAST));
+		when(completion.getPoints()).thenReturn(null);
+
+		leaderboards.recordCompletionAfterCommit(completion);
+
+		assertThat(points(eastCircle, LeaderboardWindow.ALL_TIME)).isEmpty();
+	}
+
+	private List<Long> points(UUID circleId, LeaderboardWindow window) {
+		return leaderboards.top(circleId, window, 10).getEntries().stream()
+				.map(LeaderboardEntryResponse::getPoints)
+				.toList();
+	}
+
+	private CirclePointsTotal total(UUID circleId, long points) {
+		CirclePointsTotal total = mock(CirclePointsTotal.class);
+		when(total.getCircleId()).thenReturn(circleId);
+		when(total.getUserId()).thenReturn(user);
+		when(total.getAllTimePoints()).thenReturn(points);
+		return total;
+	}
+
+	private CircleDayPoints day(UUID circleId, LocalDate date, long points) {
+		CircleDayPoints day = mock(CircleDayPoints.class);
+		when(day.getCircleId()).thenReturn(circleId);
+		when(day.getUserId()).thenReturn(user);
+		when(day.getDate()).thenReturn(date);
+		when(day.getPoints()).thenReturn(points);
+		return day;
+	}
+}
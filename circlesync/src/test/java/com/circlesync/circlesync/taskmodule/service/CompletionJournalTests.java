@@ -0,0 +1,140 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.circlesync.circlesync.taskmodule.service.CompletionJournal.Entry;
+import com.circlesync.circlesync.taskmodule.service.CompletionJournal.PendingCompletion;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Replay, torn-tail recovery and committed-offset trimming of the write-behind journal.
+ */
+class CompletionJournalTests {
+
+	@TempDir
+	private Path dir;
+
+	@Test
+	void recoversAppendedCompletionsWithTheirOffsets() throws IOException {
+		Path path = dir.resolve("journal.log");
+		// Separators, line breaks and non-ASCII text in notes must survive the round trip
+		String notes = "notes with | and\nnewline, \u00fcn\u00efc\u00f6d\u00e9";
+		PendingCompletion dated = completion(notes, LocalDate.of(2026, 3, 1));
+		PendingCompletion undated = completion(null, null);
+
+		long first;
+		long second;
+		try (CompletionJournal journal = new CompletionJournal(path)) {
+			first = journal.append(dated);
+			second = journal.append(undated);
+			journal.sync(second);
+		}
+
+		try (CompletionJournal journal = new CompletionJournal(path)) {
+			assertThat(journal.recover())
+					.containsExactly(new Entry(dated, first), new Entry(undated, second));
+		}
+	}
+
+	@Test
+	void cutsTornTailSoTheNextAppendStartsOnAFreshLine() throws IOException {
+		Path path = dir.resolve("journal.log");
+		PendingCompletion before = completion(null, LocalDate.of(2026, 3, 1));
+		PendingCompletion after = completion(null, LocalDate.of(2026, 3, 2));
+		try (CompletionJournal journal = new CompletionJournal(path)) {
+			journal.append(before);
+		}
+		Files.writeString(path, "0000-torn", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		try (CompletionJournal journal = new CompletionJournal(path)) {
+			assertThat(journal.recover()).extracting(Entry::completion).containsExactly(before);
+			journal.append(after);
+		}
+
+		try (CompletionJournal journal = new CompletionJournal(path)) {
+			assertThat(journal.recover())
+					.extracting(Entry::completion)
+					.containsExactly(before, after);
+		}
+	}
+
+	@Test
+	void skipsMalformedLines() throws IOException {
+		Path path = dir.resolve("journal.log");
+		PendingCompletion valid = completion("ok", LocalDate.of(2026, 3, 1));
+		Files.writeString(path, "not|a|completion\n", StandardCharsets.UTF_8);
+
+		try (CompletionJournal journal = new CompletionJournal(path)) {
+			journal.recover();
+			journal.append(valid);
+		}
+
+		try (CompletionJournal journal = new CompletionJournal(path)) {
+			assertThat(journal.recover()).extracting(Entry::completion).containsExactly(valid);
+		}
+	}
+
+	@Test
+	void truncatesOnlyOnceEverythingIsCommitted() throws IOException {
+		Path path = dir.resolve("journal.log");
+		try (CompletionJournal journal = new CompletionJournal(path)) {
+			long first = journal.append(completion(null, null));
+			long second = journal.append(completion(null, null));
+
+			journal.commitUpTo(first);
+			assertThat(journal.size()).isEqualTo(second);
+
+			journal.commitUpTo(second);
+			assertThat(journal.size()).isZero();
+			assertThat(Files.size(path)).isZero();
+
+			// Offsets keep growing after a truncation
+			assertThat(journal.append(completion(null, null))).isGreaterThan(second);
+		}
+	}
+
+	@Test
+	void compactsTheCommittedPrefixUnderSustainedLoad() throws IOException {
+		Path path = dir.resolve("journal.log");
+		PendingCompletion third = completion("third", null);
+		PendingCompletion fourth = completion("fourth", null);
+		try (CompletionJournal journal = new CompletionJournal(path, 1)) {
+			long first = journal.append(completion("first", null));
+			long second = journal.append(completion("second", null));
+			long thirdOffset = journal.append(third);
+
+			// The queue never empties, so only the committed prefix may go
+			journal.commitUpTo(first);
+			assertThat(journal.size()).isEqualTo(thirdOffset - first);
+			assertThat(Files.size(path)).isEqualTo(thirdOffset - first);
+
+			// Appends and syncs carry on against the compacted file
+			journal.sync(journal.append(fourth));
+			journal.commitUpTo(second);
+		}
+
+		try (CompletionJournal journal = new CompletionJournal(path)) {
+			assertThat(journal.recover())
+					.extracting(Entry::completion)
+					.containsExactly(third, fourth);
+		}
+	}
+
+	private static PendingCompletion completion(String notes, LocalDate date) {
+		return new PendingCompletion(
+				UUID.randomUUID(),
+				UUID.randomUUID(),
+				notes,
+				date,
+				Instant.ofEpochMilli(1_767_225_600_000L));
+	}
+}
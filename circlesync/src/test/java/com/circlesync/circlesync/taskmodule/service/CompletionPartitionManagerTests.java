@@ -0,0 +1,133 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.circlesync.circlesync.taskmodule.entity.Task;
+import com.circlesync.circlesync.taskmodule.repository.TaskCompletionRepository;
+import com.circlesync.circlesync.taskmodule.repository.TaskRepository;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Partition pruning of completion reads, migration of rows out of the default partition and
+ * rejection of completions for detached months.
+ */
+@SpringBootTest
+class CompletionPartitionManagerTests {
+
+	@Autowired
+	private CompletionPartitionManager partitionManager;
+
+	@Autowired
+	private TaskRepository taskRepository;
+
+	@Autowired
+	private TaskCompletionRepository taskCompletionRepository;
+
+	@Autowired
+	@Qualifier("taskJdbcTemplate")
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	@Qualifier("taskTransactionManager")
+	private PlatformTransactionManager transactionManager;
+
+	// Far enough ahead that maintenance never creates it on its own
+	private final YearMonth strayMonth = YearMonth.now().plusYears(2);
+	private UUID taskId;
+
+	@BeforeEach
+	void setUp() {
+		partitionManager.maintain();
+		Task task = new Task();
+		task.setCircleId(UUID.randomUUID());
+		task.setCreatedBy(UUID.randomUUID());
+		task.setTitle("partition-" + UUID.randomUUID().toString().substring(0, 8));
+		task.setType("HABIT");
+		task.setFrequency("DAILY");
+		task.setVisibility("CIRCLE");
+		task.setStatus("ACTIVE");
+		taskId = taskRepository.save(task).getId();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		// Completions go with their task through ON DELETE CASCADE
+		taskRepository.deleteById(taskId);
+		jdbcTemplate.execute(
+				"DROP TABLE IF EXISTS " + CompletionPartitionManager.partitionName(strayMonth));
+	}
+
+	@Test
+	void readOfOneMonthScansOnlyItsPartition() {
+		YearMonth current = YearMonth.now();
+
+		String plan = explainMonth(current);
+
+		assertThat(plan)
+				.contains(CompletionPartitionManager.partitionName(current))
+				.doesNotContain(CompletionPartitionManager.partitionName(current.plusMonths(1)))
+				.doesNotContain(CompletionPartitionManager.DEFAULT_PARTITION);
+	}
+
+	@Test
+	void maintenanceMovesRowsOutOfTheDefaultPartition() {
+		LocalDate date = strayMonth.atDay(15);
+		jdbcTemplate.update(
+				"INSERT INTO task_completions (task_id, user_id, date) VALUES (?, ?, ?)",
+				taskId,
+				UUID.randomUUID(),
+				date);
+		assertThat(countIn(CompletionPartitionManager.DEFAULT_PARTITION)).isEqualTo(1);
+
+		partitionManager.maintain();
+
+		assertThat(countIn(CompletionPartitionManager.DEFAULT_PARTITION)).isZero();
+		assertThat(countIn(CompletionPartitionManager.partitionName(strayMonth))).isEqualTo(1);
+		assertThat(partitionManager.attachedMonths()).contains(strayMonth);
+		assertThat(explainMonth(strayMonth))
+				.contains(CompletionPartitionManager.partitionName(strayMonth))
+				.doesNotContain(CompletionPartitionManager.DEFAULT_PARTITION);
+	}
+
+	@Test
+	void insertSkipsMonthsWhosePartitionIsDetached() {
+		// A month table that is not attached is what detaching leaves behind
+		jdbcTemplate.execute("CREATE TABLE "
+				+ CompletionPartitionManager.partitionName(strayMonth)
+				+ " (LIKE task_completions INCLUDING DEFAULTS)");
+
+		assertThat(new TransactionTemplate(transactionManager).execute(status ->
+				taskCompletionRepository.insertIfAbsent(
+						taskId, UUID.randomUUID(), null, strayMonth.atDay(15)))).isEmpty();
+		assertThat(countIn(CompletionPartitionManager.DEFAULT_PARTITION)).isZero();
+	}
+
+	private int countIn(String table) {
+		return jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM " + table + " WHERE task_id = ?", Integer.class, taskId);
+	}
+
+	// Literal bounds so the planner prunes at plan time rather than at execution
+	private String explainMonth(YearMonth month) {
+		List<String> lines = jdbcTemplate.queryForList(
+				"EXPLAIN SELECT * FROM task_completions WHERE date >= DATE '"
+						+ month.atDay(1)
+						+ "' AND date < DATE '"
+						+ month.plusMonths(1).atDay(1)
+						+ "'",
+				String.class);
+		return String.join("\n", lines);
+	}
+}
@@ -0,0 +1,118 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.circlesync.circlesync.taskmodule.entity.TaskCompletion;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Encoding of archive segments and lookups through their index, including offsets that cross
+ * mapped region boundaries.
+ */
+class CompletionSegmentTests {
+
+	private static final YearMonth MONTH = YearMonth.of(2025, 3);
+
+	// Ascending in the index's unsigned order; the last one has the sign bit set
+	private static final UUID FIRST_TASK = new UUID(1, 1);
+	private static final UUID SECOND_TASK = new UUID(2, 0);
+	private static final UUID LAST_TASK = new UUID(-1, 0);
+
+	@TempDir
+	private Path dir;
+
+	@Test
+	void findsEachTasksRowsThroughTheIndex() throws IOException {
+		List<TaskCompletion> first = completions(FIRST_TASK, 3);
+		List<TaskCompletion> second = completions(SECOND_TASK, 1);
+		List<TaskCompletion> last = completions(LAST_TASK, 40);
+		Path path = write(first, second, last);
+
+		CompletionSegment segment = CompletionSegment.open(path);
+
+		assertThat(segment.month()).isEqualTo(MONTH);
+		assertThat(segment.find(FIRST_TASK)).containsExactlyElementsOf(first);
+		assertThat(segment.find(SECOND_TASK)).containsExactlyElementsOf(second);
+		assertThat(segment.find(LAST_TASK)).containsExactlyElementsOf(last);
+		assertThat(segment.find(new UUID(3, 0))).isEmpty();
+	}
+
+	@Test
+	void readsBlocksAndIndexAcrossRegionBoundaries() throws IOException {
+		List<TaskCompletion> first = completions(FIRST_TASK, 5);
+		List<TaskCompletion> second = completions(SECOND_TASK, 2);
+		List<TaskCompletion> last = completions(LAST_TASK, 40);
+		Path path = write(first, second, last);
+
+		// Regions far smaller than a block stand in for offsets past 2 GB
+		CompletionSegment segment = CompletionSegment.open(path, 48);
+
+		assertThat(segment.find(FIRST_TASK)).containsExactlyElementsOf(first);
+		assertThat(segment.find(SECOND_TASK)).containsExactlyElementsOf(second);
+		assertThat(segment.find(LAST_TASK)).containsExactlyElementsOf(last);
+	}
+
+	@Test
+	void rejectsFilesThatAreNotSegments() throws IOException {
+		Path path = dir.resolve("garbage.seg");
+		Files.write(path, new byte[100]);
+
+		assertThatThrownBy(() -> CompletionSegment.open(path)).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	void unfinishedSegmentLeavesNothingBehind() throws IOException {
+		Path path = dir.resolve("unfinished.seg");
+		try (CompletionSegmentWriter writer = new CompletionSegmentWriter(path, MONTH)) {
+			writer.append(FIRST_TASK, completions(FIRST_TASK, 2));
+		}
+
+		try (var files = Files.list(dir)) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@SafeVarargs
+	private Path write(List<TaskCompletion>... tasks) throws IOException {
+		Path path = dir.resolve("segment.seg");
+		long rowCount = 0;
+		try (CompletionSegmentWriter writer = new CompletionSegmentWriter(path, MONTH)) {
+			for (List<TaskCompletion> rows : tasks) {
+				writer.append(rows.getFirst().getTaskId(), rows);
+				rowCount += rows.size();
+			}
+			assertThat(writer.finish()).isEqualTo(rowCount);
+		}
+		return path;
+	}
+
+	private static List<TaskCompletion> completions(UUID taskId, int count) {
+		List<TaskCompletion> rows = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			LocalDate date = MONTH.atDay(1 + i % MONTH.lengthOfMonth());
+			rows.add(new TaskCompletion(
+					UUID.randomUUID(),
+					taskId,
+					UUID.randomUUID(),
+					date.atTime(8, 30).plusNanos(123_456_000L * (i + 1) % 1_000_000_000L),
+					// Absent, empty and non-ASCII notes must all survive
+					switch (i % 3) {
+						case 0 -> null;
+						case 1 -> "";
+						default -> "note " + i + " \u00e9t\u00e9 \u2713";
+					},
+					date));
+		}
+		return rows;
+	}
+}
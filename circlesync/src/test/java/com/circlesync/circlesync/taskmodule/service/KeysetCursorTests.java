@@ -0,0 +1,64 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Round trips and rejection of the opaque keyset cursors used by the paginated task and
+ * completion endpoints.
+ */
+class KeysetCursorTests {
+
+	@Test
+	void decodesWhatWasEncoded() {
+		String id = UUID.randomUUID().toString();
+
+		String cursor = TaskServiceImpl.encodeCursor("2026-03-01", id);
+
+		assertThat(TaskServiceImpl.decodeCursor(cursor)).containsExactly("2026-03-01", id);
+	}
+
+	@Test
+	void cursorIsUrlSafe() {
+		// Enough bytes that standard Base64 would produce '+', '/' or padding somewhere
+		for (int i = 0; i < 100; i++) {
+			String cursor =
+					TaskServiceImpl.encodeCursor("9999-12-31", UUID.randomUUID().toString());
+
+			assertThat(cursor).doesNotContain("+", "/", "=");
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(
+			strings = {
+				"not base64!",
+				"MjAyNi0wMy0wMQ", // "2026-03-01" without an ID
+				"bm90LWEtZGF0ZXwxMjM", // "not-a-date|123"
+				"MjAyNi0wMy0wMXxub3QtYS11dWlk" // "2026-03-01|not-a-uuid"
+			})
+	void rejectsMalformedCursors(String cursor) {
+		assertThatThrownBy(() -> TaskServiceImpl.decodeCursor(cursor))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Invalid cursor");
+	}
+
+	@Test
+	void rejectsCursorWithValidPartsInWrongOrder() {
+		String swapped =
+				Base64.getUrlEncoder()
+						.withoutPadding()
+						.encodeToString(
+								(UUID.randomUUID() + "|2026-03-01").getBytes(StandardCharsets.UTF_8));
+
+		assertThatThrownBy(() -> TaskServiceImpl.decodeCursor(swapped))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,102 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.circlesync.circlesync.taskmodule.service.Recurrence.Unit;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Parsing of task frequency strings and expansion of the compiled rules into due dates.
+ */
+class RecurrenceTests {
+
+	@ParameterizedTest
+	@CsvSource(
+			delimiter = ';',
+			value = {
+				"DAILY; DAY; 1; 0",
+				"weekdays; DAY; 1; 31",
+				"WEEKENDS; DAY; 1; 96",
+				"' Weekly '; WEEK; 1; 0",
+				"BIWEEKLY; WEEK; 2; 0",
+				"MONTHLY; MONTH; 1; 0",
+				"every 3 days; DAY; 3; 0",
+				"EVERY 2 WEEKS; WEEK; 2; 0",
+				"EVERY 1 MONTH; MONTH; 1; 0",
+				"MON,WED,FRI; WEEK; 1; 21",
+				"'WEEKLY: mon, sun'; WEEK; 1; 65"
+			})
+	void parsesSupportedFrequencies(String frequency, Unit unit, int interval, int weekdays) {
+		assertThat(Recurrence.parse(frequency)).isEqualTo(new Recurrence(unit, interval, weekdays));
+	}
+
+	@ParameterizedTest
+	@NullAndEmptySource
+	@ValueSource(
+			strings = {"   ", "HOURLY", "EVERY 0 DAYS", "EVERY 1000 DAYS", "MON,FOO", "EVERY DAY"})
+	void rejectsBlankAndUnknownFrequencies(String frequency) {
+		assertThat(Recurrence.parse(frequency)).isNull();
+	}
+
+	@Test
+	void dayIntervalsAlignToTheStartDate() {
+		Recurrence everyThreeDays = Recurrence.parse("EVERY 3 DAYS");
+
+		assertThat(
+						everyThreeDays.occurrences(
+								LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 12)))
+				.containsExactly(LocalDate.of(2026, 1, 7), LocalDate.of(2026, 1, 10));
+	}
+
+	@Test
+	void weekdaysSkipTheWeekend() {
+		Recurrence weekdays = Recurrence.parse("WEEKDAYS");
+
+		// 2026-01-01 is a Thursday
+		assertThat(
+						weekdays.occurrences(
+								LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 6)))
+				.containsExactly(
+						LocalDate.of(2026, 1, 1),
+						LocalDate.of(2026, 1, 2),
+						LocalDate.of(2026, 1, 5),
+						LocalDate.of(2026, 1, 6));
+	}
+
+	@Test
+	void biweeklyRepeatsOnTheStartWeekday() {
+		Recurrence biweekly = Recurrence.parse("BIWEEKLY");
+
+		assertThat(
+						biweekly.occurrences(
+								LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 1), LocalDate.of(2026, 2, 1)))
+				.containsExactly(LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 19));
+	}
+
+	@Test
+	void monthlyClampsToTheLastDayOfShortMonths() {
+		Recurrence monthly = Recurrence.parse("MONTHLY");
+
+		assertThat(
+						monthly.occurrences(
+								LocalDate.of(2026, 1, 31), LocalDate.of(2026, 1, 1), LocalDate.of(2026, 4, 30)))
+				.containsExactly(
+						LocalDate.of(2026, 1, 31),
+						LocalDate.of(2026, 2, 28),
+						LocalDate.of(2026, 3, 31),
+						LocalDate.of(2026, 4, 30));
+	}
+
+	@Test
+	void nothingOccursBeforeTheStart() {
+		Recurrence daily = Recurrence.parse("DAILY");
+
+		assertThat(daily.occursOn(LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 9))).isFalse();
+		assertThat(daily.occursOn(LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 10))).isTrue();
+	}
+}
@@ -0,0 +1,135 @@
+package com.circlesync.circlesync.taskmodule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.circlesync.circlesync.circlemodule.CircleTimeZones;
+import com.circlesync.circlesync.taskmodule.dto.TaskResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Hits, eviction and the local midnight rollover of the today agenda cache.
+ */
+class TodayAgendaCacheTests {
+
+	private final UUID circleId = UUID.randomUUID();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private CircleTimeZones circleTimeZones;
+	private TaskScheduler taskScheduler;
+
+	@BeforeEach
+	void setUp() {
+		circleTimeZones = mock(CircleTimeZones.class);
+		when(circleTimeZones.zoneOf(circleId)).thenReturn(ZoneOffset.UTC);
+		taskScheduler = mock(TaskScheduler.class);
+		doReturn(mock(ScheduledFuture.class))
+				.when(taskScheduler)
+				.schedule(any(Runnable.class), any(Instant.class));
+	}
+
+	@Test
+	void servesRepeatedLookupsFromTheCache() {
+		TodayAgendaCache cache = cache();
+
+		cache.get(circleId, this::load);
+		cache.get(circleId, this::load);
+
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void reloadsAfterTheLocalMidnightRollover() {
+		TodayAgendaCache cache = cache();
+		Instant midnight = LocalDate.now(ZoneOffset.UTC).plusDays(1).atStartOfDay(ZoneOffset.UTC)
+				.toInstant();
+		ArgumentCaptor<Runnable> rollover = ArgumentCaptor.forClass(Runnable.class);
+
+		cache.get(circleId, this::load);
+		verify(taskScheduler).schedule(rollover.capture(), eq(midnight));
+		rollover.getValue().run();
+		cache.get(circleId, this::load);
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void reloadsAfterALocalEviction() {
+		TodayAgendaCache cache = cache();
+
+		cache.get(circleId, this::load);
+		cache.evict(circleId);
+		cache.get(circleId, this::load);
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void doesNotCacheALoadThatRacedWithAnEviction() {
+		TodayAgendaCache cache = cache();
+		Function<LocalDate, List<TaskResponse>> racingLoader = today -> {
+			cache.evict(circleId);
+			return load(today);
+		};
+
+		cache.get(circleId, racingLoader);
+		cache.get(circleId, this::load);
+
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void loadsAllMissedCirclesWithOneCall() {
+		TodayAgendaCache cache = cache();
+		UUID otherCircle = UUID.randomUUID();
+		when(circleTimeZones.zonesOf(any())).thenReturn(Map.of(otherCircle, ZoneOffset.UTC));
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		Map<UUID, LocalDate> todayByCircle = Map.of(circleId, today, otherCircle, today);
+		List<Map<UUID, LocalDate>> batches = new ArrayList<>();
+		Function<Map<UUID, LocalDate>, Map<UUID, List<TaskResponse>>> loader = missing -> {
+			batches.add(missing);
+			return Map.of();
+		};
+		cache.get(circleId, this::load);
+
+		Map<UUID, List<TaskResponse>> tasks = cache.getAll(todayByCircle, loader);
+		cache.getAll(todayByCircle, loader);
+
+		// The circle cached by get is a hit, the other is loaded once and then cached too
+		assertThat(tasks).containsOnlyKeys(circleId, otherCircle);
+		assertThat(batches).containsExactly(Map.of(otherCircle, today));
+	}
+
+	private TodayAgendaCache cache() {
+		return new TodayAgendaCache(
+				circleTimeZones,
+				taskScheduler,
+				mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry());
+	}
+
+	private List<TaskResponse> load(LocalDate today) {
+		loads.incrementAndGet();
+		return List.of();
+	}
+}
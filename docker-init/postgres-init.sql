@@ -52,6 +52,7 @@ CREATE TABLE IF NOT EXISTS circle_members (
     nickname VARCHAR(100),
     joined_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP,
+    last_active_at TIMESTAMP,
     CONSTRAINT fk_circle FOREIGN KEY (circle_id) REFERENCES circles(id) ON DELETE CASCADE,
     CONSTRAINT chk_role CHECK (role IN ('ADMIN', 'MEMBER', 'VIEWER')),
     CONSTRAINT uq_circle_user UNIQUE (circle_id, user_id)
@@ -66,6 +67,45 @@ CREATE INDEX IF NOT EXISTS idx_circle_members_circle_id ON circle_members(circle
 CREATE INDEX IF NOT EXISTS idx_circle_members_user_id ON circle_members(user_id);
 CREATE INDEX IF NOT EXISTS idx_circle_members_role ON circle_members(role);
 
+-- Spring Modulith event publication registry: one row per event and listener, written in the
+-- publishing transaction and completed when the listener succeeds
+CREATE TABLE IF NOT EXISTS event_publication (
+    id UUID PRIMARY KEY,
+    listener_id TEXT NOT NULL,
+    event_type TEXT NOT NULL,
+    serialized_event TEXT NOT NULL,
+    publication_date TIMESTAMP WITH TIME ZONE NOT NULL,
+    completion_date TIMESTAMP WITH TIME ZONE
+);
+CREATE INDEX IF NOT EXISTS idx_event_publication_serialized_event_hash
+    ON event_publication USING hash(serialized_event);
+-- Incomplete publications are looked up for resubmission
+CREATE INDEX IF NOT EXISTS idx_event_publication_incomplete
+    ON event_publication(publication_date) WHERE completion_date IS NULL;
+CREATE INDEX IF NOT EXISTS idx_event_publication_completion_date
+    ON event_publication(completion_date);
+
+-- Mapped by the registry for its archive completion mode, which is not used
+CREATE TABLE IF NOT EXISTS event_publication_archive (
+    id UUID PRIMARY KEY,
+    listener_id TEXT NOT NULL,
+    event_type TEXT NOT NULL,
+    serialized_event TEXT NOT NULL,
+    publication_date TIMESTAMP WITH TIME ZONE NOT NULL,
+    completion_date TIMESTAMP WITH TIME ZONE
+);
+
+-- Transactional outbox: rows are inserted in the same transaction as the change they describe
+-- and deleted by the relay once the transport has accepted them
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    event_type VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Insert sample data (optional, for development)
 -- Uncomment if you want seed data
 /*
@@ -119,16 +159,22 @@ CREATE TABLE IF NOT EXISTS tasks (
     CONSTRAINT chk_task_visibility CHECK (visibility IN ('PUBLIC', 'PRIVATE', 'CIRCLE'))
 );
 
--- Create task_completions table
+-- Create task_completions table, range-partitioned by month on date.
+-- Monthly partitions (task_completions_yYYYYmMM) are created ahead of time by the app's
+-- partition manager; the default partition only catches dates outside them.
 CREATE TABLE IF NOT EXISTS task_completions (
-    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    id UUID NOT NULL DEFAULT uuid_generate_v4(),
     task_id UUID NOT NULL,
     user_id UUID NOT NULL,
     completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     notes TEXT,
     date DATE NOT NULL DEFAULT CURRENT_DATE,
-    CONSTRAINT fk_task FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE
-);
+    CONSTRAINT pk_task_completions PRIMARY KEY (id, date),
+    CONSTRAINT fk_task FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE,
+    CONSTRAINT uq_task_user_date UNIQUE (task_id, user_id, date)
+) PARTITION BY RANGE (date);
+
+CREATE TABLE IF NOT EXISTS task_completions_default PARTITION OF task_completions DEFAULT;
 
 -- Create streaks table
 CREATE TABLE IF NOT EXISTS streaks (
@@ -143,19 +189,87 @@ CREATE TABLE IF NOT EXISTS streaks (
     CONSTRAINT uq_task_user_streak UNIQUE (task_id, user_id)
 );
 
+-- Create completion_calendars table (one bit per day of the year, bit 0 = January 1st)
+CREATE TABLE IF NOT EXISTS completion_calendars (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    task_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    year INT NOT NULL,
+    days BYTEA NOT NULL,
+    updated_at TIMESTAMP,
+    CONSTRAINT fk_task_calendar FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE,
+    CONSTRAINT uq_task_user_year_calendar UNIQUE (task_id, user_id, year)
+);
+
 -- Create indexes for better query performance
 CREATE INDEX IF NOT EXISTS idx_tasks_circle_id ON tasks(circle_id);
 CREATE INDEX IF NOT EXISTS idx_tasks_created_by ON tasks(created_by);
 CREATE INDEX IF NOT EXISTS idx_tasks_type ON tasks(type);
 CREATE INDEX IF NOT EXISTS idx_tasks_status ON tasks(status);
 CREATE INDEX IF NOT EXISTS idx_tasks_due_date ON tasks(due_date);
-CREATE INDEX IF NOT EXISTS idx_tasks_assigned_to ON tasks USING GIN(assigned_to);
-CREATE INDEX IF NOT EXISTS idx_task_completions_task_id ON task_completions(task_id);
+-- Partial indexes keep soft-deleted tasks out of the hot read paths
+CREATE INDEX IF NOT EXISTS idx_tasks_assigned_to ON tasks USING GIN(assigned_to) WHERE status <> 'DELETED';
+CREATE INDEX IF NOT EXISTS idx_tasks_circle_active ON tasks(circle_id, due_date) WHERE status = 'ACTIVE';
+CREATE INDEX IF NOT EXISTS idx_tasks_deleted ON tasks(updated_at) WHERE status = 'DELETED';
+CREATE INDEX IF NOT EXISTS idx_task_completions_task_date ON task_completions(task_id, date, id);
 CREATE INDEX IF NOT EXISTS idx_task_completions_user_id ON task_completions(user_id);
 CREATE INDEX IF NOT EXISTS idx_task_completions_date ON task_completions(date);
 CREATE INDEX IF NOT EXISTS idx_streaks_task_id ON streaks(task_id);
 CREATE INDEX IF NOT EXISTS idx_streaks_user_id ON streaks(user_id);
 CREATE INDEX IF NOT EXISTS idx_streaks_task_user ON streaks(task_id, user_id);
+CREATE INDEX IF NOT EXISTS idx_streaks_active_last_completed ON streaks(last_completed_date) WHERE current_streak > 0;
+CREATE INDEX IF NOT EXISTS idx_completion_calendars_user_year ON completion_calendars(user_id, year);
+
+-- Last claimed time slot of each scheduled job that must run on exactly one node per slot
+CREATE TABLE IF NOT EXISTS scheduled_runs (
+    job VARCHAR(100) PRIMARY KEY,
+    last_slot TIMESTAMP NOT NULL
+);
+
+-- Transactional outbox: rows are inserted in the same transaction as the change they describe
+-- and deleted by the relay once the transport has accepted them
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    event_type VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Archived completion segments, one row per segment file in the shared archive directory. Rows
+-- are published in the same transaction that deletes the segment's rows from task_completions;
+-- the bytes never enter the database. A month listed here no longer accepts new completions.
+CREATE TABLE IF NOT EXISTS completion_segments (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    month DATE NOT NULL,
+    row_count BIGINT NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_completion_segments_month ON completion_segments(month);
+
+-- What archived completions still contribute: completions per task and user, folded into the
+-- all-time leaderboards, and the run of consecutive days that ends on the last archived day,
+-- which streak recomputes add to an island starting the day after
+CREATE TABLE IF NOT EXISTS archived_completion_counts (
+    task_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    completions BIGINT NOT NULL,
+    CONSTRAINT pk_archived_completion_counts PRIMARY KEY (task_id, user_id),
+    CONSTRAINT fk_task_archived_counts FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS archived_streak_tails (
+    task_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    last_day DATE NOT NULL,
+    length INT NOT NULL,
+    CONSTRAINT pk_archived_streak_tails PRIMARY KEY (task_id, user_id),
+    CONSTRAINT fk_task_archived_tails FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE
+);
 
 -- Return to postgres database
 \c postgres;